@@ -353,6 +353,33 @@ public interface IPlugInPort extends ISelectionProcessor, IMouseProcessor, IKeyP
    * @param xAxisFirst
    */
   void renumberSelectedComponents(boolean xAxisFirst);
+
+  /**
+   * Sets the property with the specified name to <code>value</code> on all the components that have
+   * it. Components without such property are skipped.
+   * 
+   * @param components
+   * @param propertyName
+   * @param value
+   */
+  void applyPropertyToComponents(Collection<IDIYComponent<?>> components, String propertyName, Object value);
+
+  /**
+   * Starts a bulk edit. All changes made until the matching {@link #endBulkEdit()} are reported to
+   * listeners as a single undoable change named <code>actionName</code>, and repaint, selection
+   * and file status notifications are merged into one of each. Bulk edits may be nested, only the
+   * outermost one is reported. Use this when many components are edited programmatically, e.g.
+   * from scripts.
+   * 
+   * @param actionName
+   */
+  void beginBulkEdit(String actionName);
+
+  /**
+   * Ends the bulk edit started by {@link #beginBulkEdit(String)} and notifies the listeners.
+   * Should be called from a <code>finally</code> block.
+   */
+  void endBulkEdit();
   
   /**   
    * @return size of extra space around the canvas
@@ -19,13 +19,33 @@ package org.diylc.common;
 
 import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
 import java.awt.Stroke;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.diylc.core.measures.Capacitance;
+import org.diylc.core.measures.Current;
+import org.diylc.core.measures.Inductance;
+import org.diylc.core.measures.Power;
+import org.diylc.core.measures.Resistance;
+import org.diylc.core.measures.Size;
+import org.diylc.core.measures.Voltage;
 
 /**
  * Repository for object that may be reused, such as {@link Stroke} or {@link AlphaComposite}.
+ * Also interns immutable property values (measures, colors and fonts), so components that use
+ * the same value share one instance.
  * 
  * @author Branislav Stojkovic
  */
@@ -33,20 +53,28 @@ public class ObjectCache {
 
   private static ObjectCache instance;
 
-  public static ObjectCache getInstance() {
+  public static synchronized ObjectCache getInstance() {
     if (instance == null) {
       instance = new ObjectCache();
     }
     return instance;
   }
 
+  // Exact classes only, subclasses such as SystemColor are not plain values.
+  private static final Set<Class<?>> INTERNED_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>> asList(Size.class,
+      Resistance.class, Capacitance.class, Inductance.class, Voltage.class, Current.class, Power.class, Color.class,
+      Font.class));
+  private static final int MAX_INTERNED = 10000;
+
   private ObjectCache() {}
 
   private Map<Float, Stroke> basicStrokeMap = new HashMap<Float, Stroke>();
   private Map<Float, Stroke> zoomableStrokeMap = new HashMap<Float, Stroke>();
   private Map<String, Stroke> dashStrokeMap = new HashMap<String, Stroke>();
+  private ConcurrentMap<Object, Object> internMap = new ConcurrentHashMap<Object, Object>();
+  private Map<Class<?>, List<Field>> internableFieldMap = new ConcurrentHashMap<Class<?>, List<Field>>();
 
-  public Stroke fetchBasicStroke(float width) {
+  public synchronized Stroke fetchBasicStroke(float width) {
     if (basicStrokeMap.containsKey(width)) {
       return basicStrokeMap.get(width);
     }
@@ -55,7 +83,7 @@ public class ObjectCache {
     return stroke;
   }
   
-  public Stroke fetchZoomableStroke(float width) {
+  public synchronized Stroke fetchZoomableStroke(float width) {
     if (zoomableStrokeMap.containsKey(width)) {
       return zoomableStrokeMap.get(width);
     }
@@ -64,7 +92,7 @@ public class ObjectCache {
     return stroke;
   }
 
-  public Stroke fetchStroke(float width, float[] dash, float phase, int cap) {
+  public synchronized Stroke fetchStroke(float width, float[] dash, float phase, int cap) {
     String key = width + "|" + Arrays.toString(dash) + "|" + phase + "|" + phase;
     if (dashStrokeMap.containsKey(key)) {
       return dashStrokeMap.get(key);
@@ -73,4 +101,74 @@ public class ObjectCache {
     dashStrokeMap.put(key, stroke);
     return stroke;
   }
+
+  /**
+   * Returns the shared instance equal to the specified value if it's an immutable value that can be
+   * shared (a measure, {@link Color} or {@link Font}), otherwise returns the value itself.
+   * 
+   * @param value
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T intern(T value) {
+    if (value == null || !INTERNED_TYPES.contains(value.getClass())) {
+      return value;
+    }
+    Object interned = internMap.get(value);
+    if (interned == null) {
+      // Don't let unusual files grow the map indefinitely.
+      if (internMap.size() >= MAX_INTERNED) {
+        return value;
+      }
+      interned = internMap.putIfAbsent(value, value);
+      if (interned == null) {
+        interned = value;
+      }
+    }
+    return (T) interned;
+  }
+
+  /**
+   * Replaces all property values of the object with their interned instances, see
+   * {@link #intern(Object)}.
+   * 
+   * @param object
+   */
+  public void internProperties(Object object) {
+    try {
+      for (Field field : getInternableFields(object.getClass())) {
+        Object value = field.get(object);
+        Object interned = intern(value);
+        if (interned != value) {
+          field.set(object, interned);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private List<Field> getInternableFields(Class<?> clazz) {
+    List<Field> fields = internableFieldMap.get(clazz);
+    if (fields == null) {
+      fields = new ArrayList<Field>();
+      for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.getType().isPrimitive()) {
+            continue;
+          }
+          for (Class<?> type : INTERNED_TYPES) {
+            if (field.getType().isAssignableFrom(type)) {
+              field.setAccessible(true);
+              fields.add(field);
+              break;
+            }
+          }
+        }
+      }
+      internableFieldMap.put(clazz, fields);
+    }
+    return fields;
+  }
 }
@@ -46,11 +46,7 @@ public class SimpleComponentTransformer implements IComponentTransformer {
   @Override
   public void rotate(IDIYComponent<?> component, Point center, int direction) {
     AffineTransform rotate = AffineTransform.getRotateInstance(Math.PI / 2 * direction, center.x, center.y);
-    for (int index = 0; index < component.getControlPointCount(); index++) {
-      Point p = new Point(component.getControlPoint(index));
-      rotate.transform(p, p);
-      component.setControlPoint(p, index);
-    }
+    component.transformControlPoints(rotate);
   }
 
   @Override
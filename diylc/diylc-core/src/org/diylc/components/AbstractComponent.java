@@ -30,13 +30,16 @@ import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.diylc.common.HorizontalAlignment;
+import org.diylc.common.ObjectCache;
 import org.diylc.common.VerticalAlignment;
 import org.diylc.core.IDIYComponent;
 import org.diylc.core.annotations.EditableProperty;
@@ -82,6 +85,28 @@ public abstract class AbstractComponent<T> implements IDIYComponent<T> {
     return false;
   }
 
+  /**
+   * Passes a single scratch point to {@link #setControlPoint(Point, int)}, implementations are
+   * expected to copy the coordinates rather than keep the reference.
+   */
+  @Override
+  public void transformControlPoints(AffineTransform transform) {
+    Point p = new Point();
+    for (int index = 0; index < getControlPointCount(); index++) {
+      transform.transform(getControlPoint(index), p);
+      setControlPoint(p, index);
+    }
+  }
+
+  @Override
+  public void transformControlPoints(Collection<Integer> indices, AffineTransform transform) {
+    Point p = new Point();
+    for (Integer index : indices) {
+      transform.transform(getControlPoint(index), p);
+      setControlPoint(p, index);
+    }
+  }
+
   @Override
   public String toString() {
     return name;
@@ -229,7 +254,8 @@ public abstract class AbstractComponent<T> implements IDIYComponent<T> {
               value = new Point((Point) value);
             }
 
-            field.set(newInstance, value);
+            // Immutable values are shared.
+            field.set(newInstance, ObjectCache.getInstance().intern(value));
           }
         }
       }
@@ -0,0 +1,138 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.core;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * Growable store of control point coordinates packed into two <code>int</code> arrays. Used when
+ * control points of a component need to be copied and manipulated, e.g. to validate a move while
+ * dragging, without allocating a {@link Point} for each of them. The same instance can be reused
+ * for any number of components, capacity only grows.
+ */
+public class ControlPointStore {
+
+  private int[] xs;
+  private int[] ys;
+  private int size;
+
+  public ControlPointStore() {
+    this(16);
+  }
+
+  public ControlPointStore(int capacity) {
+    this.xs = new int[Math.max(capacity, 1)];
+    this.ys = new int[xs.length];
+  }
+
+  /**
+   * Replaces the content of the store with control points of the specified component.
+   * 
+   * @param component
+   */
+  public void load(IDIYComponent<?> component) {
+    int count = component.getControlPointCount();
+    ensureCapacity(count);
+    for (int i = 0; i < count; i++) {
+      Point p = component.getControlPoint(i);
+      xs[i] = p.x;
+      ys[i] = p.y;
+    }
+    size = count;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void add(int x, int y) {
+    ensureCapacity(size + 1);
+    xs[size] = x;
+    ys[size] = y;
+    size++;
+  }
+
+  public int getX(int index) {
+    checkIndex(index);
+    return xs[index];
+  }
+
+  public int getY(int index) {
+    checkIndex(index);
+    return ys[index];
+  }
+
+  public void set(int index, int x, int y) {
+    checkIndex(index);
+    xs[index] = x;
+    ys[index] = y;
+  }
+
+  public void translate(int index, int dx, int dy) {
+    checkIndex(index);
+    xs[index] += dx;
+    ys[index] += dy;
+  }
+
+  /**
+   * @param i
+   * @param j
+   * @return true if points at the specified indices have the same coordinates.
+   */
+  public boolean isCoincident(int i, int j) {
+    checkIndex(i);
+    checkIndex(j);
+    return xs[i] == xs[j] && ys[i] == ys[j];
+  }
+
+  /**
+   * Copies coordinates of the point at the specified index into <code>target</code>.
+   * 
+   * @param index
+   * @param target
+   * @return <code>target</code>
+   */
+  public Point copyTo(int index, Point target) {
+    checkIndex(index);
+    target.setLocation(xs[index], ys[index]);
+    return target;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > xs.length) {
+      int newCapacity = Math.max(capacity, xs.length * 2);
+      xs = Arrays.copyOf(xs, newCapacity);
+      ys = Arrays.copyOf(ys, newCapacity);
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+  }
+}
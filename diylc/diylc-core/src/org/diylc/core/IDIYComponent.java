@@ -23,7 +23,9 @@ package org.diylc.core;
 
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.geom.AffineTransform;
 import java.io.Serializable;
+import java.util.Collection;
 
 import org.diylc.core.annotations.ComponentDescriptor;
 import org.diylc.core.annotations.EditableProperty;
@@ -98,6 +100,22 @@ public interface IDIYComponent<T> extends Serializable {
    */
   void setControlPoint(Point point, int index);
 
+  /**
+   * Applies the transform to all control points, rounding the result to the nearest pixel.
+   * 
+   * @param transform
+   */
+  void transformControlPoints(AffineTransform transform);
+
+  /**
+   * Applies the transform to control points at the specified indices, rounding the result to the
+   * nearest pixel.
+   * 
+   * @param indices
+   * @param transform
+   */
+  void transformControlPoints(Collection<Integer> indices, AffineTransform transform);
+
   /**
    * @param index
    * @return true, if the specified control point may stick to control points of other components.
@@ -0,0 +1,278 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.core.images;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Content-addressed repository of images used by components. Images are kept as encoded bytes
+ * keyed by their SHA-1 hash, so the same image used by many components or pasted many times is
+ * stored only once. Images are decoded lazily, the first time someone asks for them. <br>
+ * <br>
+ * The store returns the same {@link String} instance for equal keys and holds keys weakly, so an
+ * image is released as soon as no component, undo state or clipboard content references its key
+ * any more. Decoded images are held softly and are decoded again if GC takes them.
+ */
+public class ImageStore {
+
+  private static final Logger LOG = Logger.getLogger(ImageStore.class);
+
+  private static final String FORMAT = "png";
+
+  /**
+   * Rendering hint that allows components to draw a downsampled copy of an image that matches the
+   * current zoom instead of the original pixels. It should be set to {@link Boolean#TRUE} only for
+   * on-screen drawing, exports are expected to use full resolution.
+   */
+  public static final RenderingHints.Key KEY_DOWNSAMPLE = new RenderingHints.Key(0x1d1c) {
+
+    @Override
+    public boolean isCompatibleValue(Object val) {
+      return val instanceof Boolean;
+    }
+  };
+
+  private static ImageStore instance;
+
+  public static synchronized ImageStore getInstance() {
+    if (instance == null) {
+      instance = new ImageStore();
+    }
+    return instance;
+  }
+
+  private Map<String, Entry> entryMap = new WeakHashMap<String, Entry>();
+
+  private ImageStore() {}
+
+  /**
+   * @return number of images currently in the store
+   */
+  public synchronized int size() {
+    return entryMap.size();
+  }
+
+  /**
+   * @param key
+   * @return the instance of the key held by the store, or <code>key</code> itself if the store
+   *         doesn't know it. Keys read from elsewhere should be replaced with this instance, otherwise
+   *         the image may be released while still in use.
+   */
+  public synchronized String canonicalKey(String key) {
+    Entry entry = key == null ? null : entryMap.get(key);
+    String canonical = entry == null ? null : entry.key.get();
+    return canonical == null ? key : canonical;
+  }
+
+  /**
+   * Stores encoded image data.
+   * 
+   * @param data
+   * @return key of the image
+   */
+  public synchronized String put(byte[] data) {
+    String key = hash(data);
+    Entry entry = entryMap.get(key);
+    String canonical = entry == null ? null : entry.key.get();
+    if (canonical == null) {
+      entryMap.put(key, new Entry(key, data));
+      canonical = key;
+    }
+    return canonical;
+  }
+
+  /**
+   * Encodes the image and stores it.
+   * 
+   * @param image
+   * @return key of the image
+   */
+  public synchronized String put(ImageIcon image) {
+    String key = put(encode(image));
+    // We already have it decoded, no need to do it again.
+    Entry entry = entryMap.get(key);
+    if (entry.image == null || entry.image.get() == null) {
+      entry.image = new SoftReference<ImageIcon>(image);
+    }
+    return key;
+  }
+
+  /**
+   * @param key
+   * @return encoded image data or null if the key is unknown
+   */
+  public synchronized byte[] getData(String key) {
+    Entry entry = entryMap.get(key);
+    return entry == null ? null : entry.data;
+  }
+
+  /**
+   * @param key
+   * @return decoded image or null if the key is unknown or image cannot be decoded
+   */
+  public synchronized ImageIcon getImage(String key) {
+    Entry entry = entryMap.get(key);
+    if (entry == null) {
+      return null;
+    }
+    ImageIcon image = entry.image == null ? null : entry.image.get();
+    if (image == null) {
+      try {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(entry.data));
+        if (decoded == null) {
+          LOG.error("Unsupported image format for " + key);
+          return null;
+        }
+        image = new ImageIcon(decoded);
+        entry.image = new SoftReference<ImageIcon>(image);
+      } catch (IOException e) {
+        LOG.error("Could not decode image " + key, e);
+        return null;
+      }
+    }
+    return image;
+  }
+
+  /**
+   * Returns the image pixels best suited to be drawn at the given scale, i.e. the smallest
+   * power-of-two downsampled copy of the image that is still at least as large as the image will
+   * appear on the device. Downsampled copies are created on demand and may be released under
+   * memory pressure.
+   * 
+   * @param key
+   * @param scale ratio between device pixels and image pixels
+   * @return image pixels or null if the key is unknown or image cannot be decoded
+   */
+  public synchronized Image getImage(String key, double scale) {
+    ImageIcon image = getImage(key);
+    if (image == null) {
+      return null;
+    }
+    int level = 0;
+    int width = image.getIconWidth();
+    int height = image.getIconHeight();
+    while (scale > 0 && scale <= 0.5 && width > 1 && height > 1) {
+      scale *= 2;
+      width = (width + 1) / 2;
+      height = (height + 1) / 2;
+      level++;
+    }
+    if (level == 0) {
+      return image.getImage();
+    }
+    return getMipmap(key, image, level);
+  }
+
+  private BufferedImage getMipmap(String key, ImageIcon image, int level) {
+    List<SoftReference<BufferedImage>> levels = entryMap.get(key).mipmaps;
+    while (levels.size() < level) {
+      levels.add(null);
+    }
+    SoftReference<BufferedImage> ref = levels.get(level - 1);
+    BufferedImage mipmap = ref == null ? null : ref.get();
+    if (mipmap == null) {
+      Image source = level == 1 ? image.getImage() : getMipmap(key, image, level - 1);
+      int sourceWidth = level == 1 ? image.getIconWidth() : ((BufferedImage) source).getWidth();
+      int sourceHeight = level == 1 ? image.getIconHeight() : ((BufferedImage) source).getHeight();
+      mipmap =
+          new BufferedImage(Math.max(1, (sourceWidth + 1) / 2), Math.max(1, (sourceHeight + 1) / 2),
+              BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g2d = mipmap.createGraphics();
+      g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g2d.drawImage(source, 0, 0, mipmap.getWidth(), mipmap.getHeight(), null);
+      g2d.dispose();
+      levels.set(level - 1, new SoftReference<BufferedImage>(mipmap));
+      LOG.debug("Created mipmap level " + level + " for " + key);
+    }
+    return mipmap;
+  }
+
+  private static class Entry {
+
+    // Weak, otherwise the entry would keep its own key reachable.
+    private final WeakReference<String> key;
+    private final byte[] data;
+    private SoftReference<ImageIcon> image;
+    // Downsampled copies of the image, level n is 2^n times smaller than the original. They are
+    // cheap to recreate, so we let GC take them when memory gets tight.
+    private final List<SoftReference<BufferedImage>> mipmaps = new ArrayList<SoftReference<BufferedImage>>();
+
+    public Entry(String key, byte[] data) {
+      this.key = new WeakReference<String>(key);
+      this.data = data;
+    }
+  }
+
+  private static byte[] encode(ImageIcon image) {
+    BufferedImage bufferedImage;
+    if (image.getImage() instanceof BufferedImage) {
+      bufferedImage = (BufferedImage) image.getImage();
+    } else {
+      bufferedImage =
+          new BufferedImage(Math.max(1, image.getIconWidth()), Math.max(1, image.getIconHeight()),
+              BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g2d = bufferedImage.createGraphics();
+      g2d.drawImage(image.getImage(), 0, 0, null);
+      g2d.dispose();
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      ImageIO.write(bufferedImage, FORMAT, out);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not encode image", e);
+    }
+    return out.toByteArray();
+  }
+
+  private static String hash(byte[] data) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(data);
+      StringBuilder builder = new StringBuilder();
+      for (byte b : digest) {
+        builder.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.core.images;
+
+/**
+ * Reference to an image held by {@link ImageStore}. Holding the instance keeps the image in the
+ * store. Instances are immutable and may be shared between components.
+ * <p>
+ * When written by an {@link com.thoughtworks.xstream.XStream} that doesn't know about
+ * {@link StoredImageConverter}, e.g. one that doesn't process annotations, the encoded image is
+ * written along with the key so the image survives without the store.
+ */
+public class StoredImage {
+
+  private String key;
+  // Only set in serialized form, see writeReplace().
+  private byte[] data;
+
+  // Used by XStream.
+  private StoredImage() {}
+
+  public StoredImage(String key) {
+    this(key, null);
+  }
+
+  private StoredImage(String key, byte[] data) {
+    this.key = key;
+    this.data = data;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  private Object writeReplace() {
+    byte[] data = ImageStore.getInstance().getData(key);
+    return data == null ? this : new StoredImage(key, data);
+  }
+
+  private Object readResolve() {
+    ImageStore store = ImageStore.getInstance();
+    return new StoredImage(data == null ? store.canonicalKey(key) : store.put(data));
+  }
+
+  @Override
+  public int hashCode() {
+    return key == null ? 0 : key.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    StoredImage other = (StoredImage) obj;
+    return key == null ? other.key == null : key.equals(other.key);
+  }
+}
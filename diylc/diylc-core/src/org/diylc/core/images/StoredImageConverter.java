@@ -0,0 +1,82 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.core.images;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.core.util.Base64Encoder;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+
+/**
+ * Serializes {@link StoredImage} references. Image data is written only with the first reference
+ * to the key in the document, all subsequent references carry just the key. This keeps each
+ * document self-contained while storing each distinct image once.
+ */
+public class StoredImageConverter implements Converter {
+
+  private static final String WRITTEN_KEYS = StoredImageConverter.class.getName() + ".writtenKeys";
+
+  private static final Base64Encoder BASE64 = new Base64Encoder();
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void marshal(Object object, HierarchicalStreamWriter writer, MarshallingContext context) {
+    String key = ((StoredImage) object).getKey();
+    writer.addAttribute("key", key);
+    Set<String> writtenKeys = (Set<String>) context.get(WRITTEN_KEYS);
+    if (writtenKeys == null) {
+      writtenKeys = new HashSet<String>();
+      context.put(WRITTEN_KEYS, writtenKeys);
+    }
+    if (!writtenKeys.contains(key)) {
+      byte[] data = ImageStore.getInstance().getData(key);
+      if (data != null) {
+        writer.setValue(BASE64.encode(data));
+        writtenKeys.add(key);
+      }
+    }
+  }
+
+  @Override
+  public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+    String key = reader.getAttribute("key");
+    String value = reader.getValue();
+    if (value != null && value.trim().length() > 0) {
+      key = ImageStore.getInstance().put(BASE64.decode(value));
+    } else {
+      // Share the instance held by the store, it keeps the image alive.
+      key = ImageStore.getInstance().canonicalKey(key);
+    }
+    return new StoredImage(key);
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public boolean canConvert(Class clazz) {
+    return StoredImage.class.equals(clazz);
+  }
+}
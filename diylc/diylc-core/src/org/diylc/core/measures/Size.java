@@ -21,12 +21,17 @@
 */
 package org.diylc.core.measures;
 
+import org.diylc.common.ObjectCache;
 import org.diylc.utils.Constants;
 
 public class Size extends AbstractMeasure<SizeUnit> implements Comparable<Size> {
 
   private static final long serialVersionUID = 1L;
 
+  // Sizes are immutable, so pixel value is calculated once. It's transient and deserialized
+  // instances don't go through the constructor, so they calculate it on first use.
+  private transient double pixels;
+
   // public Size() {
   // super();
   // // TODO Auto-generated constructor stub
@@ -34,16 +39,38 @@ public class Size extends AbstractMeasure<SizeUnit> implements Comparable<Size>
 
   public Size(Double value, SizeUnit unit) {
     super(value, unit);
-    // TODO Auto-generated constructor stub
+    this.pixels = calculatePixels();
+  }
+
+  /**
+   * Returns a shared instance for the given size. Use it instead of the constructor where many
+   * equal sizes get created, e.g. when parsing.
+   * 
+   * @param value
+   * @param unit
+   * @return
+   */
+  public static Size valueOf(double value, SizeUnit unit) {
+    return ObjectCache.getInstance().intern(new Size(value, unit));
   }
 
   public double convertToPixels() {
+    if (pixels == 0) {
+      pixels = calculatePixels();
+    }
+    return pixels;
+  }
+
+  private double calculatePixels() {
+    if (value == null || unit == null) {
+      return 0;
+    }
     // double factor = getUnit().getFactor() / SizeUnit.in.getFactor();
     // int grids = (int) (factor * getValue() * Constants.GRIDS_PER_INCH);
     // double remainder = (factor * getValue() * Constants.GRIDS_PER_INCH) - grids;
     // return (int) Math.round(Constants.PIXELS_PER_INCH / Constants.GRIDS_PER_INCH
     // * (grids + remainder));
-    return getValue() * getUnit().getFactor() / SizeUnit.in.getFactor() * Constants.PIXELS_PER_INCH;
+    return value * unit.getFactor() / SizeUnit.in.getFactor() * Constants.PIXELS_PER_INCH;
   }
 
   @Override
@@ -56,7 +83,7 @@ public class Size extends AbstractMeasure<SizeUnit> implements Comparable<Size>
     for (SizeUnit unit : SizeUnit.values()) {
       if (value.toLowerCase().endsWith(unit.toString().toLowerCase())) {
         value = value.substring(0, value.length() - unit.toString().length()).trim();
-        return new Size(parse(value), unit);
+        return valueOf(parse(value), unit);
       }
     }
     throw new IllegalArgumentException("Could not parse size: " + value);
@@ -64,6 +91,6 @@ public class Size extends AbstractMeasure<SizeUnit> implements Comparable<Size>
 
   @Override
   public int compareTo(Size o) {
-    return new Double(value * unit.getFactor()).compareTo(o.getValue() * o.getUnit().getFactor());
+    return Double.compare(value * unit.getFactor(), o.getValue() * o.getUnit().getFactor());
   }
 }
@@ -0,0 +1,49 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.parsing;
+
+import java.util.List;
+
+import org.diylc.core.Project;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Base class for old file parsers that implements DOM parsing on top of
+ * {@link #startParsing(Element, List)}, so both paths produce the same project.
+ */
+public abstract class AbstractOldFileParser implements IOldFileParser {
+
+  @Override
+  public Project parseFile(Element root, List<String> warnings) {
+    IOldFileHandler handler = startParsing(root, warnings);
+    NodeList childNodes = root.getChildNodes();
+    for (int i = 0; i < childNodes.getLength(); i++) {
+      Node node = childNodes.item(i);
+      if (node.getNodeType() == Node.ELEMENT_NODE) {
+        handler.parseElement((Element) node);
+      }
+    }
+    return handler.finish();
+  }
+}
@@ -0,0 +1,48 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.parsing;
+
+import org.diylc.core.Project;
+import org.w3c.dom.Element;
+
+/**
+ * Builds a {@link Project} from an old file one top level element at a time.
+ * 
+ * @see IOldFileParser#startParsing(Element, java.util.List)
+ */
+public interface IOldFileHandler {
+
+  /**
+   * Called for each top level element in document order. The element is complete, i.e. it
+   * contains all of its children.
+   * 
+   * @param element
+   */
+  void parseElement(Element element);
+
+  /**
+   * Called after the last element has been parsed.
+   * 
+   * @return the project
+   */
+  Project finish();
+}
@@ -31,4 +31,15 @@ public interface IOldFileParser {
   boolean canParse(String version);
 
   Project parseFile(Element root, List<String> warnings);
+
+  /**
+   * Starts parsing a file without having the whole document in memory. Only attributes of the
+   * <code>root</code> element are available at this point, top level elements are passed to the
+   * returned handler as they are read.
+   * 
+   * @param root
+   * @param warnings
+   * @return handler that builds the project
+   */
+  IOldFileHandler startParsing(Element root, List<String> warnings);
 }
@@ -0,0 +1,171 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.parsing;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.diylc.core.Project;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads old files in a single pass of SAX events. Only one top level element (a component) is
+ * kept in memory at a time, it's passed to the {@link IOldFileHandler} of the matching parser as
+ * soon as it's complete.
+ */
+public class OldFileReader {
+
+  private final List<IOldFileParser> parsers;
+  private final SAXParserFactory saxParserFactory;
+  private final DocumentBuilderFactory documentBuilderFactory;
+
+  public OldFileReader(List<IOldFileParser> parsers) {
+    this.parsers = parsers;
+    this.saxParserFactory = SAXParserFactory.newInstance();
+    this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+  }
+
+  /**
+   * Parses the source.
+   * 
+   * @param source
+   * @param warnings
+   * @return parsed project or <code>null</code> if the source is in the current file format and
+   *         should be read with XStream
+   * @throws IllegalArgumentException if the source is not a DIY file or the format version is not
+   *         supported
+   */
+  public Project read(InputSource source, List<String> warnings) throws SAXException, IOException,
+      ParserConfigurationException {
+    Handler handler = new Handler(documentBuilderFactory.newDocumentBuilder().newDocument(), warnings);
+    try {
+      saxParserFactory.newSAXParser().parse(source, handler);
+    } catch (CurrentFormatException e) {
+      return null;
+    }
+    return handler.project;
+  }
+
+  private IOldFileHandler startParsing(Element root, List<String> warnings) {
+    String formatVersion = root.getAttribute("formatVersion");
+    for (IOldFileParser parser : parsers) {
+      if (parser.canParse(formatVersion)) {
+        return parser.startParsing(root, warnings);
+      }
+    }
+    throw new IllegalArgumentException("Unknown file format version: " + formatVersion);
+  }
+
+  private class Handler extends DefaultHandler {
+
+    private final Document document;
+    private final List<String> warnings;
+
+    private int depth = 0;
+    private IOldFileHandler fileHandler;
+    private Element current;
+    private Project project;
+
+    public Handler(Document document, List<String> warnings) {
+      this.document = document;
+      this.warnings = warnings;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+        throws SAXException {
+      if (depth == 0) {
+        if (qName.equalsIgnoreCase(Project.class.getName())) {
+          // No need to read any further.
+          throw new CurrentFormatException();
+        }
+        if (!qName.equalsIgnoreCase("layout")) {
+          throw new IllegalArgumentException("Could not open DIY file. Root node is not named 'Layout'.");
+        }
+        fileHandler = startParsing(createElement(qName, attributes), warnings);
+      } else {
+        Element element = createElement(qName, attributes);
+        if (current != null) {
+          current.appendChild(element);
+        }
+        current = element;
+      }
+      depth++;
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+      depth--;
+      if (depth == 1) {
+        fileHandler.parseElement(current);
+        current = null;
+      } else if (depth > 1) {
+        current = (Element) current.getParentNode();
+      }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+      if (current == null) {
+        return;
+      }
+      // Keep text nodes the way DOM parser would, some parsers rely on their positions.
+      Node last = current.getLastChild();
+      if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+        ((Text) last).appendData(new String(ch, start, length));
+      } else {
+        current.appendChild(document.createTextNode(new String(ch, start, length)));
+      }
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+      if (fileHandler != null) {
+        project = fileHandler.finish();
+      }
+    }
+
+    private Element createElement(String name, Attributes attributes) {
+      Element element = document.createElement(name);
+      for (int i = 0; i < attributes.getLength(); i++) {
+        element.setAttribute(attributes.getQName(i), attributes.getValue(i));
+      }
+      return element;
+    }
+  }
+
+  private static class CurrentFormatException extends SAXException {
+
+    private static final long serialVersionUID = 1L;
+  }
+}
@@ -26,4 +26,13 @@ public interface CloudListener {
   public void loggedIn();
 
   public void loggedOut();
+
+  /**
+   * Called from the uploading thread while a project is being uploaded.
+   * 
+   * @param projectName
+   * @param bytesSent
+   * @param totalBytes
+   */
+  public void uploadProgress(String projectName, long bytesSent, long totalBytes);
 }
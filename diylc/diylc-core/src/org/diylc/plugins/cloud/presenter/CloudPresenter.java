@@ -22,15 +22,16 @@
 package org.diylc.plugins.cloud.presenter;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
-import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 import org.diylc.appframework.miscutils.ConfigurationManager;
@@ -42,7 +43,6 @@ import org.diylc.plugins.cloud.model.UserEntity;
 import org.diylc.presenter.ComparatorFactory;
 import org.diylc.presenter.ComponentProcessor;
 
-import com.diyfever.httpproxy.PhpFlatProxy;
 import com.diyfever.httpproxy.ProxyFactory;
 
 /**
@@ -56,6 +56,8 @@ public class CloudPresenter {
 
   private static String USERNAME_KEY = "cloud.Username";
   private static String TOKEN_KEY = "cloud.token";
+  // The production server doesn't accept compressed requests, so this is off unless configured.
+  private static String COMPRESS_REQUESTS_KEY = "cloud.compressRequests";
 
   private static String ERROR = "Error";
 
@@ -63,11 +65,16 @@ public class CloudPresenter {
   private static final Object SUCCESS = "Success";
 
   private IServiceAPI service;
+  private HttpFlatProxy proxy;
   private String serviceUrl;
   private String machineId;
   private String[] categories;
 
   private boolean loggedIn = false;
+
+  private final List<CloudListener> listeners = new CopyOnWriteArrayList<CloudListener>();
+  private volatile boolean uploadCancelled;
+  private volatile HttpURLConnection uploadConnection;
   
   private CloudPresenter() {}
 
@@ -75,12 +82,24 @@ public class CloudPresenter {
     if (service == null) {
       serviceUrl =
           ConfigurationManager.getInstance().readString(IServiceAPI.URL_KEY, "http://www.diy-fever.com/diylc/api/v1");
-      ProxyFactory factory = new ProxyFactory(new PhpFlatProxy());
+      boolean compressRequests = ConfigurationManager.getInstance().readBoolean(COMPRESS_REQUESTS_KEY, false);
+      proxy =
+          new HttpFlatProxy(HttpFlatProxy.DEFAULT_CONNECT_TIMEOUT, HttpFlatProxy.DEFAULT_READ_TIMEOUT,
+              HttpFlatProxy.DEFAULT_MAX_ATTEMPTS, HttpFlatProxy.DEFAULT_BACKOFF, compressRequests);
+      ProxyFactory factory = new ProxyFactory(proxy);
       service = factory.createProxy(IServiceAPI.class, serviceUrl);
     }
     return service;
   }
 
+  public void addCloudListener(CloudListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeCloudListener(CloudListener listener) {
+    listeners.remove(listener);
+  }
+
   public boolean logIn(String username, String password) throws CloudException {
     LOG.info("Trying to login to cloud as " + username);
 
@@ -99,6 +118,9 @@ public class CloudPresenter {
       ConfigurationManager.getInstance().writeValue(USERNAME_KEY, username);
       ConfigurationManager.getInstance().writeValue(TOKEN_KEY, res);
       this.loggedIn = true;
+      for (CloudListener listener : listeners) {
+        listener.loggedIn();
+      }
       return true;
     }
   }
@@ -121,6 +143,9 @@ public class CloudPresenter {
       } else {
         LOG.info("Login success");
         this.loggedIn = true;
+        for (CloudListener listener : listeners) {
+          listener.loggedIn();
+        }
         return true;
       }
     } else
@@ -131,6 +156,9 @@ public class CloudPresenter {
     LOG.info("Logged out");
     ConfigurationManager.getInstance().writeValue(TOKEN_KEY, null);
     this.loggedIn = false;
+    for (CloudListener listener : listeners) {
+      listener.loggedOut();
+    }
   }
 
   public boolean isLoggedIn() {
@@ -160,43 +188,97 @@ public class CloudPresenter {
     return categories;
   }
 
+  /**
+   * Uploads a new project or replaces an existing one when <code>projectId</code> is specified.
+   * The request is streamed, so memory use doesn't depend on the file size, and progress is
+   * reported through {@link CloudListener#uploadProgress(String, long, long)}.
+   * 
+   * @throws CancellationException if {@link #cancelUpload()} is called while uploading
+   */
   public void uploadProject(String projectName, String category, String description, String keywords,
       String diylcVersion, File thumbnail, File project, Integer projectId) throws IOException, CloudException {
-    String username = ConfigurationManager.getInstance().readString(USERNAME_KEY, null);
-    String token = ConfigurationManager.getInstance().readString(TOKEN_KEY, null);
+    LOG.info("Uploading a new project: " + projectName);
+    upload(projectName, category, description, keywords, diylcVersion, thumbnail, project, projectId);
+  }
 
-    if (username == null || token == null)
-      throw new CloudException("Login failed. Please try to login again.");
+  public void updateProjectDetails(ProjectEntity project, String diylcVersion) throws IOException, CloudException {
+    LOG.info("Updating project with projectId: " + project.getId());
+    upload(project.getName(), project.getCategoryForDisplay(), project.getDescription(), project.getKeywords(),
+        diylcVersion, null, null, project.getId());
+  }
 
-    LOG.info("Uploading a new project: " + projectName);
-    try {
-      String res =
-          getService().uploadProject(username, token, getMachineId(), projectName, category, description, diylcVersion,
-              keywords, thumbnail, project, projectId);
-      if (!res.equals(SUCCESS))
-        throw new CloudException(res);
-    } catch (Exception e) {
-      throw new CloudException(e);
+  /**
+   * Aborts the upload in progress, if any. The connection is dropped right away, so this works
+   * even when the upload is stuck waiting on the network.
+   */
+  public void cancelUpload() {
+    uploadCancelled = true;
+    HttpURLConnection connection = uploadConnection;
+    if (connection != null) {
+      connection.disconnect();
     }
   }
 
-  public void updateProjectDetails(ProjectEntity project, String diylcVersion) throws IOException, CloudException {
+  private void upload(final String projectName, String category, String description, String keywords,
+      String diylcVersion, File thumbnail, File project, Integer projectId) throws CloudException {
     String username = ConfigurationManager.getInstance().readString(USERNAME_KEY, null);
     String token = ConfigurationManager.getInstance().readString(TOKEN_KEY, null);
 
     if (username == null || token == null)
       throw new CloudException("Login failed. Please try to login again.");
-    LOG.info("Updating project with projectId: " + project.getId());
+
+    // Same parameters as IServiceAPI.uploadProject
+    Map<String, Object> params = new HashMap<String, Object>();
+    params.put("username", username);
+    params.put("token", token);
+    params.put("machineId", getMachineId());
+    params.put("projectName", projectName);
+    params.put("category", category);
+    params.put("description", description);
+    params.put("diylcVersion", diylcVersion);
+    params.put("keywords", keywords);
+    params.put("thumbnail", thumbnail);
+    params.put("project", project);
+    params.put("projectId", projectId);
+
+    uploadCancelled = false;
+    Object res;
     try {
-      String res =
-          getService().uploadProject(username, token, getMachineId(), project.getName(),
-              project.getCategoryForDisplay(), project.getDescription(), diylcVersion, project.getKeywords(), null,
-              null, project.getId());
-      if (!res.equals(SUCCESS))
-        throw new CloudException(res);
+      getService();
+      res = proxy.invokeStreaming(serviceUrl, "uploadProject", params, new HttpFlatProxy.IUploadListener() {
+
+        @Override
+        public void connectionOpened(HttpURLConnection connection) {
+          uploadConnection = connection;
+          // Cancelled before the connection was available.
+          if (uploadCancelled) {
+            connection.disconnect();
+          }
+        }
+
+        @Override
+        public void uploadProgress(long bytesSent, long totalBytes) {
+          for (CloudListener listener : listeners) {
+            listener.uploadProgress(projectName, bytesSent, totalBytes);
+          }
+        }
+
+        @Override
+        public boolean isCancelled() {
+          return uploadCancelled;
+        }
+      });
     } catch (Exception e) {
+      if (uploadCancelled) {
+        LOG.info("Upload cancelled");
+        throw new CancellationException("Upload cancelled");
+      }
       throw new CloudException(e);
+    } finally {
+      uploadConnection = null;
     }
+    if (!SUCCESS.equals(res))
+      throw new CloudException(res == null ? "Upload failed." : res.toString());
   }
 
   public void deleteProject(int projectId) throws CloudException {
@@ -332,21 +414,11 @@ public class CloudPresenter {
     if (res instanceof List<?>) {
       @SuppressWarnings("unchecked")
       List<ProjectEntity> projects = (List<ProjectEntity>) res;
-      LOG.info("Received " + projects.size() + " results. Downloading thumbnails...");
-      // Download thumbnails and replace urls with local paths to speed up loading in the main
-      // thread
+      LOG.info("Received " + projects.size() + " results.");
+      // Thumbnails are loaded by the UI as the results are displayed.
       for (ProjectEntity project : projects) {
-        String url = project.getThumbnailUrl();
-        URL website = new URL(url);
-        ReadableByteChannel rbc = Channels.newChannel(website.openStream());
-        File temp = File.createTempFile("thumbnail", ".png");
-        FileOutputStream fos = new FileOutputStream(temp);
-        fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-        project.setThumbnailUrl(temp.getAbsolutePath());
         project.setCategories(getCategories());
-        fos.close();
       }
-      LOG.info("Finished downloading thumbnails.");
       return projects;
     }
     throw new CloudException("Unexpected server response received for search results: " + res.getClass().getName());
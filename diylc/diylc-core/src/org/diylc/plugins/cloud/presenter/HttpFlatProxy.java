@@ -0,0 +1,441 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.plugins.cloud.presenter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+
+import com.diyfever.httpproxy.IFlatProxy;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.json.JettisonMappedXmlDriver;
+
+/**
+ * {@link IFlatProxy} implementation that talks to the DIYLC PHP server the same way as
+ * <code>PhpFlatProxy</code> (multipart POST to <code>&lt;url&gt;/&lt;method&gt;.php</code>, JSON
+ * response deserialized by XStream), with a few additions:
+ * <ul>
+ * <li>responses are always read to the end and closed, so the underlying keep-alive connection is
+ * returned to the JDK connection pool and reused by the next call;</li>
+ * <li>gzip compressed responses are requested and decoded, request bodies are compressed as well
+ * when <code>compressRequests</code> is set;</li>
+ * <li>connect and read timeouts are bounded;</li>
+ * <li>idempotent calls are retried with exponential backoff and jitter when the connection fails
+ * or the server responds with 5xx.</li>
+ * </ul>
+ * Like <code>PhpFlatProxy</code>, failed calls are logged and <code>null</code> is returned.
+ */
+public class HttpFlatProxy implements IFlatProxy {
+
+  private static final Logger LOG = Logger.getLogger(HttpFlatProxy.class);
+
+  public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+  public static final int DEFAULT_READ_TIMEOUT = 30000;
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  public static final long DEFAULT_BACKOFF = 250;
+
+  private static final Set<String> IDEMPOTENT_METHODS = new HashSet<String>(Arrays.asList("search",
+      "getCategories", "getSortings", "getComments"));
+
+  private static final String LINE_FEED = "\r\n";
+  private static final int BUFFER_SIZE = 8192;
+
+  private final int connectTimeout;
+  private final int readTimeout;
+  private final int maxAttempts;
+  private final long backoff;
+  private final boolean compressRequests;
+
+  private final Random random = new Random();
+
+  // XStream is thread safe once configured, so there's no need to create a new instance for each
+  // response.
+  private final XStream xStream;
+
+  public HttpFlatProxy() {
+    this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_MAX_ATTEMPTS, DEFAULT_BACKOFF, false);
+  }
+
+  /**
+   * @param connectTimeout connect timeout in milliseconds
+   * @param readTimeout read timeout in milliseconds
+   * @param maxAttempts how many times an idempotent call is attempted before giving up
+   * @param backoff delay before the first retry in milliseconds, doubled for each subsequent retry
+   * @param compressRequests if <code>true</code>, request bodies are sent gzip compressed. The
+   *        server must support <code>Content-Encoding: gzip</code> on requests
+   */
+  public HttpFlatProxy(int connectTimeout, int readTimeout, int maxAttempts, long backoff, boolean compressRequests) {
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoff = backoff;
+    this.compressRequests = compressRequests;
+    this.xStream = new XStream(new JettisonMappedXmlDriver());
+    this.xStream.setMode(XStream.NO_REFERENCES);
+  }
+
+  @Override
+  public InputStream invoke(String url, String method, Map<String, Object> params) {
+    String fullUrl = createPhpFileName(url, method);
+    byte[] body;
+    String boundary = createBoundary();
+    try {
+      body = createBody(params, boundary);
+    } catch (IOException e) {
+      LOG.error("Could not create request for " + fullUrl, e);
+      return null;
+    }
+    int attempts = IDEMPOTENT_METHODS.contains(method) ? maxAttempts : 1;
+    for (int attempt = 1; attempt <= attempts; attempt++) {
+      try {
+        LOG.debug("Connecting to: " + fullUrl + (attempt > 1 ? " (attempt " + attempt + ")" : ""));
+        return new ByteArrayInputStream(post(new URL(fullUrl), body, boundary));
+      } catch (HttpStatusException e) {
+        LOG.warn("Error calling " + method + ": " + e.getMessage());
+        if (e.getStatus() < 500) {
+          // Client errors won't go away by themselves.
+          break;
+        }
+      } catch (IOException e) {
+        LOG.warn("Error calling " + method + ": " + e);
+      }
+      if (attempt < attempts) {
+        try {
+          Thread.sleep(getDelay(attempt));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    LOG.error("Giving up on " + fullUrl);
+    return null;
+  }
+
+  @Override
+  public Object invokeAndDeserialize(String url, String method, Map<String, Object> params) {
+    InputStream stream = invoke(url, method, params);
+    if (stream == null) {
+      return null;
+    }
+    return xStream.fromXML(stream);
+  }
+
+  /**
+   * @param attempt number of the failed attempt, starting from 1
+   * @return how long to wait before the next attempt, with random jitter of up to 50%
+   */
+  private long getDelay(int attempt) {
+    long delay = backoff << (attempt - 1);
+    synchronized (random) {
+      return delay + (long) (random.nextDouble() * delay / 2);
+    }
+  }
+
+  /**
+   * Sends the request without buffering it in memory. File parameters are streamed straight from
+   * disk (and through gzip when <code>compressRequests</code> is set), so memory use does not
+   * depend on the size of the files. Meant for uploads, the call is never retried.
+   * 
+   * @param url
+   * @param method
+   * @param params
+   * @param listener notified as the request body is written, may cancel the upload
+   * @return deserialized response
+   * @throws IOException if the call fails or is cancelled, in which case
+   *         {@link InterruptedIOException} is thrown
+   */
+  public Object invokeStreaming(String url, String method, Map<String, Object> params,
+      IUploadListener listener) throws IOException {
+    String fullUrl = createPhpFileName(url, method);
+    String boundary = createBoundary();
+    // Progress is measured on the uncompressed body, so the total is known up front.
+    CountingOutputStream counter = new CountingOutputStream(null, 0, null);
+    writeBody(counter, params, boundary, false);
+    long total = counter.getCount();
+    for (Object value : params.values()) {
+      if (value instanceof File) {
+        total += ((File) value).length();
+      }
+    }
+
+    LOG.debug("Streaming " + total + " bytes to: " + fullUrl);
+    HttpURLConnection connection = openConnection(new URL(fullUrl), boundary);
+    listener.connectionOpened(connection);
+    // The int overload is the only one available on Java 6.
+    if (compressRequests || total > Integer.MAX_VALUE) {
+      connection.setChunkedStreamingMode(BUFFER_SIZE);
+    } else {
+      connection.setFixedLengthStreamingMode((int) total);
+    }
+    try {
+      OutputStream raw = connection.getOutputStream();
+      OutputStream out = new CountingOutputStream(compressRequests ? new GZIPOutputStream(raw, BUFFER_SIZE) : raw,
+          total, listener);
+      // Not closed on failure, closing a fixed length stream early would only mask the cause.
+      writeBody(out, params, boundary, true);
+      out.close();
+      return xStream.fromXML(new ByteArrayInputStream(readResponse(connection)));
+    } catch (IOException e) {
+      // Don't let a half written request go back to the connection pool.
+      connection.disconnect();
+      throw e;
+    }
+  }
+
+  private byte[] post(URL url, byte[] body, String boundary) throws IOException {
+    HttpURLConnection connection = openConnection(url, boundary);
+    connection.setFixedLengthStreamingMode(body.length);
+
+    OutputStream out = connection.getOutputStream();
+    try {
+      out.write(body);
+    } finally {
+      out.close();
+    }
+    return readResponse(connection);
+  }
+
+  private HttpURLConnection openConnection(URL url, String boundary) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setConnectTimeout(connectTimeout);
+    connection.setReadTimeout(readTimeout);
+    connection.setUseCaches(false);
+    connection.setDoOutput(true);
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+    connection.setRequestProperty("Accept-Encoding", "gzip");
+    if (compressRequests) {
+      connection.setRequestProperty("Content-Encoding", "gzip");
+    }
+    return connection;
+  }
+
+  private byte[] readResponse(HttpURLConnection connection) throws IOException {
+    int status = connection.getResponseCode();
+    if (status >= 400) {
+      // Drain the error stream too, otherwise the connection can't be reused.
+      InputStream error = connection.getErrorStream();
+      if (error != null) {
+        readFully(error);
+      }
+      throw new HttpStatusException(status, connection.getResponseMessage());
+    }
+    InputStream in = connection.getInputStream();
+    if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+      in = new GZIPInputStream(in);
+    }
+    return readFully(in);
+  }
+
+  private byte[] createBody(Map<String, Object> params, String boundary) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    OutputStream out = compressRequests ? new GZIPOutputStream(buffer) : buffer;
+    writeBody(out, params, boundary, true);
+    out.close();
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Writes the multipart body. When <code>includeFiles</code> is <code>false</code>, only headers
+   * of file parts are written, which is used to calculate the body length.
+   */
+  private void writeBody(OutputStream out, Map<String, Object> params, String boundary, boolean includeFiles)
+      throws IOException {
+    for (Map.Entry<String, Object> entry : params.entrySet()) {
+      Object value = entry.getValue();
+      if (value == null) {
+        continue;
+      }
+      write(out, "--" + boundary + LINE_FEED);
+      write(out, "Content-Disposition: form-data; name=\"" + entry.getKey() + "\"");
+      if (value instanceof File) {
+        File file = (File) value;
+        write(out, "; filename=\"" + file.getName() + "\"" + LINE_FEED);
+        write(out, "Content-Type: application/octet-stream" + LINE_FEED + LINE_FEED);
+        if (includeFiles) {
+          InputStream in = new FileInputStream(file);
+          try {
+            copy(in, out);
+          } finally {
+            in.close();
+          }
+        }
+      } else {
+        write(out, LINE_FEED + LINE_FEED);
+        write(out, value.toString());
+      }
+      write(out, LINE_FEED);
+    }
+    write(out, "--" + boundary + "--" + LINE_FEED);
+  }
+
+  private String createBoundary() {
+    synchronized (random) {
+      return "---------------------------" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+    }
+  }
+
+  private static String createPhpFileName(String url, String method) {
+    return url.endsWith("/") ? url + method + ".php" : url + "/" + method + ".php";
+  }
+
+  private static void write(OutputStream out, String s) throws IOException {
+    out.write(s.getBytes("UTF-8"));
+  }
+
+  private static void copy(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int n;
+    while ((n = in.read(buffer)) > 0) {
+      out.write(buffer, 0, n);
+    }
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      copy(in, out);
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Receives progress of streamed uploads.
+   */
+  public interface IUploadListener {
+
+    /**
+     * Called before anything is sent. The connection may be disconnected from another thread to
+     * abort an upload that is blocked on the network.
+     * 
+     * @param connection
+     */
+    void connectionOpened(HttpURLConnection connection);
+
+    /**
+     * Called from the uploading thread as the request body is written.
+     * 
+     * @param bytesSent
+     * @param totalBytes
+     */
+    void uploadProgress(long bytesSent, long totalBytes);
+
+    /**
+     * @return <code>true</code> to abort the upload
+     */
+    boolean isCancelled();
+  }
+
+  /**
+   * Counts the bytes written through it, reporting progress to the listener and aborting when
+   * the listener cancels. With no underlying stream it only counts.
+   */
+  private static class CountingOutputStream extends FilterOutputStream {
+
+    private static final long REPORT_INTERVAL = 32 * 1024;
+
+    private final long total;
+    private final IUploadListener listener;
+    private long count;
+    private long lastReported;
+
+    public CountingOutputStream(OutputStream out, long total, IUploadListener listener) {
+      super(out);
+      this.total = total;
+      this.listener = listener;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (listener != null && listener.isCancelled()) {
+        throw new InterruptedIOException("Upload cancelled");
+      }
+      if (out != null) {
+        out.write(b, off, len);
+      }
+      count += len;
+      if (listener != null && (count - lastReported >= REPORT_INTERVAL || count == total)) {
+        lastReported = count;
+        listener.uploadProgress(count, total);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (out != null) {
+        out.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (out != null) {
+        out.close();
+      }
+    }
+
+    public long getCount() {
+      return count;
+    }
+  }
+
+  private static class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public HttpStatusException(int status, String message) {
+      super("Server returned " + status + " " + message);
+      this.status = status;
+    }
+
+    public int getStatus() {
+      return status;
+    }
+  }
+}
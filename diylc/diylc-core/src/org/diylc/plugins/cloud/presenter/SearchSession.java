@@ -21,8 +21,18 @@
 */
 package org.diylc.plugins.cloud.presenter;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import org.apache.log4j.Logger;
 import org.diylc.plugins.cloud.model.ProjectEntity;
 
 /**
@@ -30,11 +40,22 @@ import org.diylc.plugins.cloud.model.ProjectEntity;
  * {@link SearchSession#startSession(String, String, String)} to start the search session and then
  * {@link SearchSession#hasMoreData()} returns true if there's more data available and
  * {@link SearchSession#requestMoreData()} returns the next page.
+ * <br>
+ * As soon as a page is returned, the next one is fetched in background so it's ready by the time
+ * the user scrolls down to it. Pages are cached for a short while, so repeating a recent search
+ * doesn't go to the cloud again. The cache is shared by all sessions and should be cleared with
+ * {@link #clearCache()} whenever projects are uploaded, changed or deleted. Starting a new session
+ * cancels any request still in progress for the previous one.
  * 
  * @author Branislav Stojkovic
  */
 public class SearchSession {
-  
+
+  private static final Logger LOG = Logger.getLogger(SearchSession.class);
+
+  private static final int MAX_CACHED_PAGES = 50;
+  private static final long CACHE_TIMEOUT = 2 * 60 * 1000;
+
   private String searchFor;
   private String category;
   private String sort;
@@ -43,24 +64,189 @@ public class SearchSession {
   private int currentPage;
   private List<ProjectEntity> currentResults;
 
+  // Incremented with each new session, results that belong to an older one are thrown away.
+  private int generation;
+  private Future<List<ProjectEntity>> prefetch;
+  private int prefetchPage;
+  private IPrefetchListener prefetchListener;
+
+  private static final Map<String, CachedPage> pageCache = new LinkedHashMap<String, CachedPage>(16, 0.75f, true) {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+      return size() > MAX_CACHED_PAGES;
+    }
+  };
+
+  private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "Search prefetch");
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
   public SearchSession() {
   }
 
-  public List<ProjectEntity> startSession(String searchFor, String category, String sort) throws CloudException {
-    this.searchFor = searchFor;
-    this.category = category;
-    this.sort = sort;
-    this.currentPage = 1;
+  /**
+   * Sets the listener that gets notified from a background thread whenever a page is prefetched,
+   * e.g. to start loading thumbnails.
+   * 
+   * @param prefetchListener
+   */
+  public synchronized void setPrefetchListener(IPrefetchListener prefetchListener) {
+    this.prefetchListener = prefetchListener;
+  }
 
-    return currentResults = CloudPresenter.Instance.search(searchFor, category, sort, currentPage, itemsPerPage);
+  /**
+   * @throws CancellationException if another session was started while this one was waiting for
+   *         the results
+   */
+  public List<ProjectEntity> startSession(String searchFor, String category, String sort) throws CloudException {
+    int sessionGeneration;
+    synchronized (this) {
+      if (prefetch != null) {
+        prefetch.cancel(true);
+        prefetch = null;
+      }
+      this.searchFor = searchFor;
+      this.category = category;
+      this.sort = sort;
+      this.currentPage = 1;
+      this.currentResults = null;
+      sessionGeneration = ++generation;
+    }
+    List<ProjectEntity> results = fetch(searchFor, category, sort, 1);
+    synchronized (this) {
+      if (sessionGeneration != generation) {
+        throw new CancellationException("Search session has been restarted");
+      }
+      currentResults = results;
+      schedulePrefetch();
+    }
+    return results;
   }
 
-  public boolean hasMoreData() {
+  public synchronized boolean hasMoreData() {
     return this.currentResults != null && this.currentResults.size() == itemsPerPage;
   }
 
+  /**
+   * @throws CancellationException if a new session was started while waiting for the results
+   */
   public List<ProjectEntity> requestMoreData() throws CloudException {
-    currentPage++;
-    return currentResults = CloudPresenter.Instance.search(searchFor, category, sort, currentPage, itemsPerPage);
+    int page;
+    int sessionGeneration;
+    String searchFor;
+    String category;
+    String sort;
+    Future<List<ProjectEntity>> pending = null;
+    synchronized (this) {
+      page = ++currentPage;
+      sessionGeneration = generation;
+      searchFor = this.searchFor;
+      category = this.category;
+      sort = this.sort;
+      if (prefetch != null && prefetchPage == page) {
+        pending = prefetch;
+      }
+      prefetch = null;
+    }
+    List<ProjectEntity> results = null;
+    if (pending != null) {
+      try {
+        results = pending.get();
+      } catch (ExecutionException e) {
+        // Try again below and let the error surface if it happens again.
+        LOG.debug("Prefetching page " + page + " failed", e.getCause());
+      } catch (CancellationException e) {
+        // Fall through.
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Interrupted while waiting for the results");
+      }
+    }
+    if (results == null) {
+      results = fetch(searchFor, category, sort, page);
+    }
+    synchronized (this) {
+      if (sessionGeneration != generation) {
+        throw new CancellationException("Search session has been restarted");
+      }
+      currentResults = results;
+      schedulePrefetch();
+    }
+    return results;
+  }
+
+  /**
+   * Forgets all cached pages, e.g. after projects have been changed.
+   */
+  public static void clearCache() {
+    synchronized (pageCache) {
+      pageCache.clear();
+    }
+  }
+
+  // Must be called while holding the lock.
+  private void schedulePrefetch() {
+    if (!hasMoreData()) {
+      return;
+    }
+    final int page = currentPage + 1;
+    final String searchFor = this.searchFor;
+    final String category = this.category;
+    final String sort = this.sort;
+    final IPrefetchListener listener = prefetchListener;
+    prefetchPage = page;
+    prefetch = prefetchExecutor.submit(new Callable<List<ProjectEntity>>() {
+
+      @Override
+      public List<ProjectEntity> call() throws Exception {
+        List<ProjectEntity> results = fetch(searchFor, category, sort, page);
+        if (listener != null && !Thread.currentThread().isInterrupted()) {
+          listener.pagePrefetched(results);
+        }
+        return results;
+      }
+    });
+  }
+
+  private List<ProjectEntity> fetch(String searchFor, String category, String sort, int page)
+      throws CloudException {
+    String key = searchFor + "|" + category + "|" + sort + "|" + page + "|" + itemsPerPage;
+    synchronized (pageCache) {
+      CachedPage cached = pageCache.get(key);
+      if (cached != null && System.currentTimeMillis() - cached.time < CACHE_TIMEOUT) {
+        LOG.debug("Serving page " + page + " from cache");
+        return cached.results;
+      }
+    }
+    List<ProjectEntity> results = CloudPresenter.Instance.search(searchFor, category, sort, page, itemsPerPage);
+    synchronized (pageCache) {
+      pageCache.put(key, new CachedPage(results, System.currentTimeMillis()));
+    }
+    return results;
+  }
+
+  private static class CachedPage {
+
+    private final List<ProjectEntity> results;
+    private final long time;
+
+    public CachedPage(List<ProjectEntity> results, long time) {
+      this.results = results;
+      this.time = time;
+    }
+  }
+
+  public interface IPrefetchListener {
+
+    void pagePrefetched(List<ProjectEntity> projects);
   }
 }
@@ -0,0 +1,98 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.diylc.core.ControlPointStore;
+import org.diylc.core.IDIYComponent;
+
+/**
+ * Applies one {@link AffineTransform} to control points of many components as a single operation.
+ * The whole transform is validated first, so either all points are updated or none are. A point
+ * may not leave the canvas and may not land on another control point of the same component,
+ * unless both of them are allowed to overlap. Collisions are found through a hash set of occupied
+ * locations, so validation takes linear time in the number of control points. <br>
+ * <br>
+ * Instances keep scratch buffers between calls and are not thread safe.
+ */
+public class BulkTransformer {
+
+  private final ControlPointStore controlPoints = new ControlPointStore();
+  private final Set<Long> occupied = new HashSet<Long>();
+  private final Point transformed = new Point();
+
+  /**
+   * @param controlPointMap maps components to indices of control points that should be transformed
+   * @param transform
+   * @param bounds area that transformed points must stay within, edges included
+   * @return true if the transform can be applied
+   */
+  public boolean canTransform(Map<IDIYComponent<?>, Set<Integer>> controlPointMap, AffineTransform transform,
+      Rectangle bounds) {
+    for (Map.Entry<IDIYComponent<?>, Set<Integer>> entry : controlPointMap.entrySet()) {
+      IDIYComponent<?> component = entry.getKey();
+      controlPoints.load(component);
+      for (Integer index : entry.getValue()) {
+        transform.transform(component.getControlPoint(index), transformed);
+        if (transformed.x < bounds.x || transformed.y < bounds.y || transformed.x > bounds.x + bounds.width
+            || transformed.y > bounds.y + bounds.height) {
+          // At least one control point went out of bounds.
+          return false;
+        }
+        controlPoints.set(index, transformed.x, transformed.y);
+      }
+
+      if (controlPoints.size() < 2) {
+        continue;
+      }
+      occupied.clear();
+      for (int i = 0; i < controlPoints.size(); i++) {
+        // Control points that may overlap are ignored.
+        if (!component.canControlPointOverlap(i)
+            && !occupied.add(((long) controlPoints.getX(i) << 32) | (controlPoints.getY(i) & 0xFFFFFFFFL))) {
+          // Control points collision detected, cannot make this move.
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies the transform without validating it. Callers should invalidate all affected components
+   * at once, see {@link DrawingManager#invalidateComponents(java.util.Collection)}.
+   * 
+   * @param controlPointMap
+   * @param transform
+   */
+  public void transform(Map<IDIYComponent<?>, Set<Integer>> controlPointMap, AffineTransform transform) {
+    for (Map.Entry<IDIYComponent<?>, Set<Integer>> entry : controlPointMap.entrySet()) {
+      entry.getKey().transformControlPoints(entry.getValue(), transform);
+    }
+  }
+}
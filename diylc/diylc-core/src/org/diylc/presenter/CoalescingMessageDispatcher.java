@@ -0,0 +1,107 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.Timer;
+
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.common.EventType;
+
+/**
+ * {@link MessageDispatcher} that merges high frequency events within a display frame. Events listed
+ * in {@link #COALESCED_EVENTS} are not delivered right away; only the latest occurrence of each
+ * type is kept and delivered on the EDT when the frame timer fires. All other events are delivered
+ * synchronously, after any pending coalesced events, so listeners still see them in order.
+ */
+public class CoalescingMessageDispatcher extends MessageDispatcher<EventType> {
+
+  public static final EnumSet<EventType> COALESCED_EVENTS = EnumSet.of(EventType.REPAINT, EventType.MOUSE_MOVED,
+      EventType.AVAILABLE_CTRL_POINTS_CHANGED, EventType.STATUS_MESSAGE_CHANGED);
+
+  // Roughly one frame of a 60Hz display.
+  public static final int FRAME_MILLIS = 16;
+
+  // Keeps the order in which event types first arrived within the frame.
+  private final Map<EventType, Object[]> pendingEvents = new LinkedHashMap<EventType, Object[]>();
+  private final Timer frameTimer;
+
+  public CoalescingMessageDispatcher() {
+    this(FRAME_MILLIS);
+  }
+
+  public CoalescingMessageDispatcher(int frameMillis) {
+    super(true);
+    frameTimer = new Timer(frameMillis, new ActionListener() {
+
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        flush();
+      }
+    });
+    frameTimer.setRepeats(false);
+  }
+
+  @Override
+  public void dispatchMessage(EventType eventType, Object... params) {
+    if (COALESCED_EVENTS.contains(eventType)) {
+      synchronized (pendingEvents) {
+        pendingEvents.put(eventType, params);
+      }
+      if (!frameTimer.isRunning()) {
+        frameTimer.start();
+      }
+    } else {
+      flush();
+      super.dispatchMessage(eventType, params);
+    }
+  }
+
+  /**
+   * Delivers all pending events right away.
+   */
+  public void flush() {
+    Map<EventType, Object[]> events;
+    synchronized (pendingEvents) {
+      if (pendingEvents.isEmpty()) {
+        return;
+      }
+      events = new LinkedHashMap<EventType, Object[]>(pendingEvents);
+      pendingEvents.clear();
+    }
+    for (Map.Entry<EventType, Object[]> event : events.entrySet()) {
+      super.dispatchMessage(event.getKey(), event.getValue());
+    }
+  }
+
+  public void dispose() {
+    frameTimer.stop();
+    synchronized (pendingEvents) {
+      pendingEvents.clear();
+    }
+  }
+}
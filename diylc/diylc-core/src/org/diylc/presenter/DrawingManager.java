@@ -54,6 +54,7 @@ import org.diylc.core.IDIYComponent;
 import org.diylc.core.Project;
 import org.diylc.core.Theme;
 import org.diylc.core.VisibilityPolicy;
+import org.diylc.core.images.ImageStore;
 import org.diylc.utils.Constants;
 
 /**
@@ -175,6 +176,9 @@ public class DrawingManager {
       g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
     }
 
+    // Downsampled images are good enough for the canvas, but not for exports.
+    g2d.setRenderingHint(ImageStore.KEY_DOWNSAMPLE, drawOptions.contains(DrawOption.SELECTION));
+
     // AffineTransform initialTx = g2d.getTransform();
     Dimension d = getCanvasDimensions(project, zoom, drawOptions.contains(DrawOption.EXTRA_SPACE));
 
@@ -425,6 +429,13 @@ public class DrawingManager {
     lastDrawnStateMap.remove(component);
   }
 
+  public void invalidateComponents(Collection<? extends IDIYComponent<?>> components) {
+    for (IDIYComponent<?> component : components) {
+      componentAreaMap.remove(component);
+      lastDrawnStateMap.remove(component);
+    }
+  }
+
   public ComponentArea getComponentArea(IDIYComponent<?> component) {
     return componentAreaMap.get(component);
   }
@@ -500,8 +500,9 @@ class G2DWrapper extends Graphics2D implements IDrawingObserver {
 
   @Override
   public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
-    // FIXME: map
-    return canvasGraphics.drawImage(img, x, y, width, height, observer);
+    boolean result = canvasGraphics.drawImage(img, x, y, width, height, observer);
+    appendShape(new Rectangle2D.Double(x, y, width, height));
+    return result;
   }
 
   @Override
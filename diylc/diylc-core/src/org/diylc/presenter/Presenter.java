@@ -23,6 +23,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.dnd.DnDConstants;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -150,6 +151,17 @@ public class Presenter implements IPlugInPort {
   // Maps components that have at least one dragged point to set of indices
   // that designate which of their control points are being dragged.
   private Map<IDIYComponent<?>, Set<Integer>> controlPointMap;
+  private final BulkTransformer bulkTransformer = new BulkTransformer();
+
+  // Bulk edit, see beginBulkEdit().
+  private int bulkEditDepth = 0;
+  private String bulkEditName;
+  private Project bulkEditProject;
+  private boolean bulkEditModified;
+  private boolean bulkEditRepaint;
+  private boolean bulkEditSelectionChanged;
+  private boolean bulkEditFileChanged;
+  private boolean bulkEditContinuityChanged;
   private Set<IDIYComponent<?>> lockedComponents;
 
   // Utilities
@@ -175,12 +187,24 @@ public class Presenter implements IPlugInPort {
   private Project preDragProject = null;
   private int dragAction;
   private Point previousScaledPoint;
+  // Last status message posted by draw(), so it's posted only when it changes.
+  private String drawStatusMessage;
 
   public Presenter(IView view) {
+    this(view, false);
+  }
+
+  /**
+   * @param view
+   * @param coalesceEvents if true, high frequency events such as repaint and mouse move are merged
+   *        and delivered once per display frame, see {@link CoalescingMessageDispatcher}
+   */
+  public Presenter(IView view, boolean coalesceEvents) {
     super();
     this.view = view;
     plugIns = new ArrayList<IPlugIn>();
-    messageDispatcher = new MessageDispatcher<EventType>(true);
+    messageDispatcher =
+        coalesceEvents ? new CoalescingMessageDispatcher() : new MessageDispatcher<EventType>(true);
     selectedComponents = new HashSet<IDIYComponent<?>>();
     lockedComponents = new HashSet<IDIYComponent<?>>();
     currentProject = new Project();
@@ -205,6 +229,9 @@ public class Presenter implements IPlugInPort {
     for (IPlugIn plugIn : plugIns) {
       messageDispatcher.unregisterListener(plugIn);
     }
+    if (messageDispatcher instanceof CoalescingMessageDispatcher) {
+      ((CoalescingMessageDispatcher) messageDispatcher).dispose();
+    }
   }
 
   // IPlugInPort
@@ -270,7 +297,7 @@ public class Presenter implements IPlugInPort {
     drawingManager.clearContinuityArea();
     updateSelection(EMPTY_SELECTION);
     messageDispatcher.dispatchMessage(EventType.PROJECT_LOADED, project, freshStart);
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     messageDispatcher.dispatchMessage(EventType.LAYER_STATE_CHANGED, currentProject.getLockedLayers());
     messageDispatcher.dispatchMessage(EventType.LAYER_VISIBILITY_CHANGED, currentProject.getHiddenLayers());
   }
@@ -490,12 +517,17 @@ public class Presenter implements IPlugInPort {
       failedComponentNames.add(component.getName());
     }
     Collections.sort(failedComponentNames);
+    String statusMessage;
     if (!failedComponentNames.isEmpty()) {
-      messageDispatcher.dispatchMessage(EventType.STATUS_MESSAGE_CHANGED,
+      statusMessage =
           "<html><font color='red'>Failed to draw components: " + Utils.toCommaString(failedComponentNames)
-              + "</font></html>");
+              + "</font></html>";
     } else {
-      messageDispatcher.dispatchMessage(EventType.STATUS_MESSAGE_CHANGED, "");
+      statusMessage = "";
+    }
+    if (!statusMessage.equals(drawStatusMessage)) {
+      drawStatusMessage = statusMessage;
+      messageDispatcher.dispatchMessage(EventType.STATUS_MESSAGE_CHANGED, statusMessage);
     }
   }
 
@@ -535,13 +567,13 @@ public class Presenter implements IPlugInPort {
         // Try to rotate the component on right click while creating.
         if (button != IPlugInPort.BUTTON1) {
           instantiationManager.tryToRotateComponentSlot();
-          messageDispatcher.dispatchMessage(EventType.REPAINT);
+          repaint();
           return;
         }
         // Keep the reference to component type for later.
         ComponentType componentTypeSlot = instantiationManager.getComponentTypeSlot();
         Template template = instantiationManager.getTemplate();
-        Project oldProject = currentProject.clone();
+        Project oldProject = cloneForUndo();
         switch (componentTypeSlot.getCreationMethod()) {
           case SINGLE_CLICK:
             try {
@@ -563,7 +595,7 @@ public class Presenter implements IPlugInPort {
               // selectedComponents);
               // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
               // calculateSelectionDimension());
-              messageDispatcher.dispatchMessage(EventType.REPAINT);
+              repaint();
               updateSelection(newSelection);
             } catch (Exception e) {
               LOG.error("Error instatiating component of type: " + componentTypeSlot.getInstanceClass().getName(), e);
@@ -594,7 +626,7 @@ public class Presenter implements IPlugInPort {
               }
               messageDispatcher.dispatchMessage(EventType.SLOT_CHANGED, componentTypeSlot,
                   instantiationManager.getFirstControlPoint());
-              messageDispatcher.dispatchMessage(EventType.REPAINT);
+              repaint();
             } else {
               // On the second click, add the component to the
               // project.
@@ -606,14 +638,13 @@ public class Presenter implements IPlugInPort {
         }
         // Notify the listeners.
         if (!oldProject.equals(currentProject)) {
-          messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Add "
-              + componentTypeSlot.getName());
-          drawingManager.clearContinuityArea();
-          projectFileManager.notifyFileChange();
+          notifyProjectModified(oldProject, "Add " + componentTypeSlot.getName());
+          clearContinuityArea();
+          notifyFileChange();
         }
       } else if (ConfigurationManager.getInstance().readBoolean(HIGHLIGHT_CONTINUITY_AREA, false)) {
         drawingManager.findContinuityAreaAtPoint(currentProject, scaledPoint);
-        messageDispatcher.dispatchMessage(EventType.REPAINT);
+        repaint();
       } else {
         List<IDIYComponent<?>> newSelection = new ArrayList<IDIYComponent<?>>(selectedComponents);
         List<IDIYComponent<?>> components = findComponentsAtScaled(scaledPoint);
@@ -647,7 +678,7 @@ public class Presenter implements IPlugInPort {
         // selectedComponents);
         // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
         // calculateSelectionDimension());
-        messageDispatcher.dispatchMessage(EventType.REPAINT);
+        repaint();
       }
     }
   }
@@ -669,7 +700,7 @@ public class Presenter implements IPlugInPort {
     }
 
     updateSelection(newSelection);
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
 
     if (componentTypeSlot.isAutoEdit()
         && ConfigurationManager.getInstance().readBoolean(IPlugInPort.AUTO_EDIT_KEY, false)) {
@@ -714,23 +745,22 @@ public class Presenter implements IPlugInPort {
     if (altDown) {
       Project oldProject = null;
       if (key == IKeyProcessor.VK_RIGHT) {
-        oldProject = currentProject.clone();
+        oldProject = cloneForUndo();
         rotateComponents(this.selectedComponents, 1, snapToGrid);
       } else if (key == IKeyProcessor.VK_LEFT) {
-        oldProject = currentProject.clone();
+        oldProject = cloneForUndo();
         rotateComponents(this.selectedComponents, -1, snapToGrid);
       } else if (key == IKeyProcessor.VK_H) {
-        oldProject = currentProject.clone();
+        oldProject = cloneForUndo();
         mirrorComponents(this.selectedComponents, IComponentTransformer.HORIZONTAL, snapToGrid);
       } else if (key == IKeyProcessor.VK_V) {
-        oldProject = currentProject.clone();
+        oldProject = cloneForUndo();
         mirrorComponents(this.selectedComponents, IComponentTransformer.VERTICAL, snapToGrid);
       } else
         return false;
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-          "Rotate Selection");
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
-      drawingManager.clearContinuityArea();
+      notifyProjectModified(oldProject, "Rotate Selection");
+      repaint();
+      clearContinuityArea();
       return true;
     }
 
@@ -769,10 +799,10 @@ public class Presenter implements IPlugInPort {
         return false;
     }
 
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     moveComponents(controlPointMap, dx, dy, snapToGrid);
-    messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Move Selection");
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    notifyProjectModified(oldProject, "Move Selection");
+    repaint();
     return true;
   }
 
@@ -830,19 +860,23 @@ public class Presenter implements IPlugInPort {
           break;
       }
       if (refresh) {
-        messageDispatcher.dispatchMessage(EventType.REPAINT);
+        repaint();
       }
     } else {
       // Go backwards so we take the highest z-order components first.
       for (int i = currentProject.getComponents().size() - 1; i >= 0; i--) {
         IDIYComponent<?> component = currentProject.getComponents().get(i);
+        // Only consider selected components.
+        if (!selectedComponents.contains(component)) {
+          continue;
+        }
         ComponentType componentType =
             ComponentProcessor.getInstance().extractComponentTypeFrom(
                 (Class<? extends IDIYComponent<?>>) component.getClass());
         for (int pointIndex = 0; pointIndex < component.getControlPointCount(); pointIndex++) {
           Point controlPoint = component.getControlPoint(pointIndex);
-          // Only consider selected components that are not grouped.
-          if (selectedComponents.contains(component) && componentType.isStretchable()
+          // Only consider components that are not grouped.
+          if (componentType.isStretchable()
               && findAllGroupedComponents(component).size() == 1) {
             try {
               if (previousScaledPoint.distance(controlPoint) < DrawingManager.CONTROL_POINT_SIZE) {
@@ -905,7 +939,7 @@ public class Presenter implements IPlugInPort {
     // selectedComponents);
     // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
     // calculateSelectionDimension());
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
   }
 
   @Override
@@ -981,11 +1015,11 @@ public class Presenter implements IPlugInPort {
     int dx = (int) xOffset.convertToPixels();
     int dy = (int) yOffset.convertToPixels();
 
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     moveComponents(controlPointMap, dx, dy, false);
-    messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Move Selection");
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
-    drawingManager.clearContinuityArea();
+    notifyProjectModified(oldProject, "Move Selection");
+    repaint();
+    clearContinuityArea();
   }
 
   @Override
@@ -1024,7 +1058,7 @@ public class Presenter implements IPlugInPort {
       // selectedComponents);
       // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
       // calculateSelectionDimension());
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      repaint();
     } else if (components == null || components.isEmpty()) {
       // If there are no components are under the cursor, reset selection.
       updateSelection(EMPTY_SELECTION);
@@ -1032,7 +1066,7 @@ public class Presenter implements IPlugInPort {
       // selectedComponents);
       // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
       // calculateSelectionDimension());
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      repaint();
     } else {
       // Take the last component, i.e. the top order component.
       IDIYComponent<?> component = components.get(0);
@@ -1044,7 +1078,7 @@ public class Presenter implements IPlugInPort {
         // selectedComponents);
         // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
         // calculateSelectionDimension());
-        messageDispatcher.dispatchMessage(EventType.REPAINT);
+        repaint();
       }
       // If there aren't any control points, try to add all the selected
       // components with all their control points. That will allow the
@@ -1186,7 +1220,7 @@ public class Presenter implements IPlugInPort {
       instantiationManager.updateSingleClick(previousScaledPoint, isSnapToGrid(),
           currentProject.getGridSpacing());
     }
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     return true;
   }
 
@@ -1205,7 +1239,7 @@ public class Presenter implements IPlugInPort {
     if (controlPointMap.size() == 1) {
       Map.Entry<IDIYComponent<?>, Set<Integer>> entry = controlPointMap.entrySet().iterator().next();
 
-      Point firstPoint = entry.getKey().getControlPoint(entry.getValue().toArray(new Integer[] {})[0]);
+      Point firstPoint = entry.getKey().getControlPoint(entry.getValue().iterator().next());
       Point testPoint = new Point(firstPoint);
       testPoint.translate(dx, dy);
       if (snapToGrid) {
@@ -1227,51 +1261,14 @@ public class Presenter implements IPlugInPort {
       return null;
     }
 
-    // Validate if moving can be done.
-    for (Map.Entry<IDIYComponent<?>, Set<Integer>> entry : controlPointMap.entrySet()) {
-      IDIYComponent<?> component = entry.getKey();
-      Point[] controlPoints = new Point[component.getControlPointCount()];
-      for (int index = 0; index < component.getControlPointCount(); index++) {
-        controlPoints[index] = new Point(component.getControlPoint(index));
-        // When the first point is moved, calculate how much it
-        // actually moved after snapping.
-        if (entry.getValue().contains(index)) {
-          controlPoints[index].translate(actualDx, actualDy);
-          controlPoints[index].translate((int)extraSpace, (int)extraSpace);
-          if (controlPoints[index].x < 0 || controlPoints[index].y < 0 || controlPoints[index].x > d.width
-              || controlPoints[index].y > d.height) {
-            // At least one control point went out of bounds.
-            return null;
-          }
-        }
-        // For control points that may overlap, just write null,
-        // we'll ignore them later.
-        if (component.canControlPointOverlap(index)) {
-          controlPoints[index] = null;
-        }
-      }
-
-      for (int i = 0; i < controlPoints.length - 1; i++) {
-        for (int j = i + 1; j < controlPoints.length; j++) {
-          if (controlPoints[i] != null && controlPoints[j] != null && controlPoints[i].equals(controlPoints[j])) {
-            // Control points collision detected, cannot make
-            // this move.
-            return null;
-          }
-        }
-      }
-    }
-
-    // Update all points to new location.
-    for (Map.Entry<IDIYComponent<?>, Set<Integer>> entry : controlPointMap.entrySet()) {
-      IDIYComponent<?> c = entry.getKey();
-      drawingManager.invalidateComponent(c);
-      for (Integer index : entry.getValue()) {
-        Point p = new Point(c.getControlPoint(index));
-        p.translate(actualDx, actualDy);
-        c.setControlPoint(p, index);
-      }
+    // Validate if moving can be done and update all points to new location.
+    AffineTransform translate = AffineTransform.getTranslateInstance(actualDx, actualDy);
+    Rectangle bounds = new Rectangle(-(int) extraSpace, -(int) extraSpace, d.width, d.height);
+    if (!bulkTransformer.canTransform(controlPointMap, translate, bounds)) {
+      return null;
     }
+    drawingManager.invalidateComponents(controlPointMap.keySet());
+    bulkTransformer.transform(controlPointMap, translate);
     return new Point(actualDx, actualDy);
   }
 
@@ -1279,12 +1276,11 @@ public class Presenter implements IPlugInPort {
   public void rotateSelection(int direction) {
     if (!selectedComponents.isEmpty()) {
       LOG.trace("Rotating selected components");
-      Project oldProject = currentProject.clone();
+      Project oldProject = cloneForUndo();
       rotateComponents(this.selectedComponents, direction, isSnapToGrid());
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-          "Rotate Selection");
-      drawingManager.clearContinuityArea();
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      notifyProjectModified(oldProject, "Rotate Selection");
+      clearContinuityArea();
+      repaint();
     }
   }
 
@@ -1312,12 +1308,12 @@ public class Presenter implements IPlugInPort {
           "Mirror Selection", IView.YES_NO_OPTION, IView.QUESTION_MESSAGE) != IView.YES_OPTION)
         return;
 
-    for (IDIYComponent<?> component : selectedComponents) {
+    drawingManager.invalidateComponents(components);
+    for (IDIYComponent<?> component : components) {
       ComponentType type =
           ComponentProcessor.getInstance().extractComponentTypeFrom(
               (Class<? extends IDIYComponent<?>>) component.getClass());
       if (type.getTransformer() != null && type.getTransformer().canRotate(component)) {
-        drawingManager.invalidateComponent(component);
         type.getTransformer().rotate(component, center, direction);
       }
     }
@@ -1387,14 +1383,13 @@ public class Presenter implements IPlugInPort {
   public void mirrorSelection(int direction) {
     if (!selectedComponents.isEmpty()) {
       LOG.trace("Mirroring selected components");
-      Project oldProject = currentProject.clone();
+      Project oldProject = cloneForUndo();
 
       mirrorComponents(selectedComponents, direction, isSnapToGrid());
 
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-          "Mirror Selection");
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
-      drawingManager.clearContinuityArea();
+      notifyProjectModified(oldProject, "Mirror Selection");
+      repaint();
+      clearContinuityArea();
     }
   }
 
@@ -1426,11 +1421,11 @@ public class Presenter implements IPlugInPort {
           "Mirror Selection", IView.YES_NO_OPTION, IView.QUESTION_MESSAGE) != IView.YES_OPTION)
         return;
 
+    drawingManager.invalidateComponents(components);
     for (IDIYComponent<?> component : components) {
       ComponentType type =
           ComponentProcessor.getInstance().extractComponentTypeFrom(
               (Class<? extends IDIYComponent<?>>) component.getClass());
-      drawingManager.invalidateComponent(component);
       if (type.getTransformer() != null && type.getTransformer().canMirror(component)) {
         type.getTransformer().mirror(component, center, direction);
       }
@@ -1515,10 +1510,10 @@ public class Presenter implements IPlugInPort {
 
     if (!preDragProject.equals(currentProject)) {
       messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, preDragProject, currentProject.clone(), "Drag");
-      drawingManager.clearContinuityArea();
-      projectFileManager.notifyFileChange();
+      clearContinuityArea();
+      notifyFileChange();
     }
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     dragInProgress = false;
   }
 
@@ -1527,7 +1522,7 @@ public class Presenter implements IPlugInPort {
     LOG.info(String.format("pasteComponents(%s, %s)", components, autoGroup));
     instantiationManager.pasteComponents(components, this.previousScaledPoint, isSnapToGrid(),
         currentProject.getGridSpacing(), autoGroup);
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     messageDispatcher.dispatchMessage(EventType.SLOT_CHANGED, instantiationManager.getComponentTypeSlot(),
         instantiationManager.getFirstControlPoint());
   }
@@ -1540,7 +1535,7 @@ public class Presenter implements IPlugInPort {
       LOG.debug("Nothing to duplicate");
       return;
     }
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     Set<IDIYComponent<?>> newSelection = new HashSet<IDIYComponent<?>>();
 
     int grid = (int) currentProject.getGridSpacing().convertToPixels();
@@ -1564,10 +1559,10 @@ public class Presenter implements IPlugInPort {
 
     updateSelection(newSelection);
 
-    messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Duplicate");
-    drawingManager.clearContinuityArea();
-    projectFileManager.notifyFileChange();
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    notifyProjectModified(oldProject, "Duplicate");
+    clearContinuityArea();
+    notifyFileChange();
+    repaint();
   }
 
   @Override
@@ -1577,7 +1572,7 @@ public class Presenter implements IPlugInPort {
       LOG.debug("Nothing to delete");
       return;
     }
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     // Remove selected components from any groups.
     ungroupComponents(selectedComponents);
     // Remove from area map.
@@ -1585,18 +1580,22 @@ public class Presenter implements IPlugInPort {
       drawingManager.invalidateComponent(component);
     }
     currentProject.getComponents().removeAll(selectedComponents);
-    messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Delete");
-    drawingManager.clearContinuityArea();
-    projectFileManager.notifyFileChange();
+    notifyProjectModified(oldProject, "Delete");
+    clearContinuityArea();
+    notifyFileChange();
     updateSelection(EMPTY_SELECTION);
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
   }
 
   @Override
   public void setSelectionDefaultPropertyValue(String propertyName, Object value) {
     LOG.info(String.format("setSelectionDefaultPropertyValue(%s, %s)", propertyName, value));
+    // Write the default once per component type, not once per component.
+    Set<String> classNames = new HashSet<String>();
     for (IDIYComponent<?> component : selectedComponents) {
-      String className = component.getClass().getName();
+      classNames.add(component.getClass().getName());
+    }
+    for (String className : classNames) {
       LOG.debug("Default property value set for " + className + ":" + propertyName);
       ConfigurationManager.getInstance().writeValue(DEFAULTS_KEY_PREFIX + className + ":" + propertyName, value);
     }
@@ -1617,65 +1616,65 @@ public class Presenter implements IPlugInPort {
   @Override
   public void groupSelectedComponents() {
     LOG.info("groupSelectedComponents()");
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     // First remove the selected components from other groups.
     ungroupComponents(selectedComponents);
     // Then group them together.
     currentProject.getGroups().add(new HashSet<IDIYComponent<?>>(selectedComponents));
     // Notify the listeners.
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Group");
-      projectFileManager.notifyFileChange();
+      notifyProjectModified(oldProject, "Group");
+      notifyFileChange();
     }
   }
 
   @Override
   public void ungroupSelectedComponents() {
     LOG.info("ungroupSelectedComponents()");
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     ungroupComponents(selectedComponents);
     // Notify the listeners.
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Ungroup");
-      projectFileManager.notifyFileChange();
+      notifyProjectModified(oldProject, "Ungroup");
+      notifyFileChange();
     }
   }
 
   @Override
   public void setLayerLocked(int layerZOrder, boolean locked) {
     LOG.info(String.format("setLayerLocked(%s, %s)", layerZOrder, locked));
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     if (locked) {
       currentProject.getLockedLayers().add(layerZOrder);
     } else {
       currentProject.getLockedLayers().remove(layerZOrder);
     }
     updateSelection(EMPTY_SELECTION);
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     messageDispatcher.dispatchMessage(EventType.LAYER_STATE_CHANGED, currentProject.getLockedLayers());
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), locked ? "Lock Layer" : "Unlock Layer");
-      projectFileManager.notifyFileChange();
+      notifyProjectModified(oldProject, locked ? "Lock Layer" : "Unlock Layer");
+      notifyFileChange();
     }
   }
 
   @Override
   public void setLayerVisibility(int layerZOrder, boolean visible) {
     LOG.info(String.format("setLayerVisibility(%s, %s)", layerZOrder, visible));
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     if (visible) {
       currentProject.getHiddenLayers().remove(layerZOrder);
     } else {
       currentProject.getHiddenLayers().add(layerZOrder);
     }
     updateSelection(EMPTY_SELECTION);
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
     messageDispatcher.dispatchMessage(EventType.LAYER_VISIBILITY_CHANGED, currentProject.getHiddenLayers());
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), visible ? "Show Layer" : "Hide Layer");
-      projectFileManager.notifyFileChange();
+      notifyProjectModified(oldProject, visible ? "Show Layer" : "Hide Layer");
+      notifyFileChange();
     }
   }
 
@@ -1684,7 +1683,7 @@ public class Presenter implements IPlugInPort {
   public void sendSelectionToBack() {
     LOG.info("sendSelectionToBack()");
     int forceConfirmation = -1;
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
 
     // sort the selection in the reversed Z-order to preserve the order after moving to the back
     List<IDIYComponent<?>> selection = new ArrayList<IDIYComponent<?>>(selectedComponents);
@@ -1726,9 +1725,9 @@ public class Presenter implements IPlugInPort {
         }
     }
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), "Send to Back");
-      projectFileManager.notifyFileChange();
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      notifyProjectModified(oldProject, "Send to Back");
+      notifyFileChange();
+      repaint();
     }
   }
 
@@ -1737,7 +1736,7 @@ public class Presenter implements IPlugInPort {
   public void bringSelectionToFront() {
     LOG.info("bringSelectionToFront()");
     int forceConfirmation = -1;
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
 
     // sort the selection in Z-order
     List<IDIYComponent<?>> selection = new ArrayList<IDIYComponent<?>>(selectedComponents);
@@ -1779,17 +1778,105 @@ public class Presenter implements IPlugInPort {
         }
     }
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-          "Bring to Front");
-      projectFileManager.notifyFileChange();
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      notifyProjectModified(oldProject, "Bring to Front");
+      notifyFileChange();
+      repaint();
     }
   }
 
   @Override
   public void refresh() {
     LOG.info("refresh()");
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
+  }
+
+  @Override
+  public void beginBulkEdit(String actionName) {
+    LOG.info(String.format("beginBulkEdit(%s)", actionName));
+    if (bulkEditDepth++ == 0) {
+      bulkEditName = actionName;
+      bulkEditProject = currentProject.clone();
+    }
+  }
+
+  @Override
+  public void endBulkEdit() {
+    LOG.info("endBulkEdit()");
+    if (bulkEditDepth == 0) {
+      throw new IllegalStateException("There is no bulk edit in progress.");
+    }
+    if (--bulkEditDepth > 0) {
+      return;
+    }
+    Project oldProject = bulkEditProject;
+    boolean modified = bulkEditModified && !oldProject.equals(currentProject);
+    boolean repaint = bulkEditRepaint || modified;
+    boolean selectionChanged = bulkEditSelectionChanged;
+    boolean fileChanged = bulkEditFileChanged && modified;
+    boolean continuityChanged = bulkEditContinuityChanged;
+    bulkEditProject = null;
+    bulkEditModified = false;
+    bulkEditRepaint = false;
+    bulkEditSelectionChanged = false;
+    bulkEditFileChanged = false;
+    bulkEditContinuityChanged = false;
+
+    if (continuityChanged) {
+      drawingManager.clearContinuityArea();
+    }
+    if (modified) {
+      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), bulkEditName);
+    }
+    if (fileChanged) {
+      projectFileManager.notifyFileChange();
+    }
+    if (selectionChanged) {
+      fireSelectionChanged();
+    }
+    if (repaint) {
+      messageDispatcher.dispatchMessage(EventType.REPAINT);
+    }
+  }
+
+  /**
+   * @return copy of the current project to be passed to {@link #notifyProjectModified(Project, String)}
+   *         once the change is done. During a bulk edit this is the copy taken when the edit started,
+   *         so the project is cloned only once.
+   */
+  private Project cloneForUndo() {
+    return bulkEditDepth > 0 ? bulkEditProject : currentProject.clone();
+  }
+
+  private void notifyProjectModified(Project oldProject, String actionName) {
+    if (bulkEditDepth > 0) {
+      bulkEditModified = true;
+    } else {
+      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(), actionName);
+    }
+  }
+
+  private void repaint() {
+    if (bulkEditDepth > 0) {
+      bulkEditRepaint = true;
+    } else {
+      messageDispatcher.dispatchMessage(EventType.REPAINT);
+    }
+  }
+
+  private void notifyFileChange() {
+    if (bulkEditDepth > 0) {
+      bulkEditFileChanged = true;
+    } else {
+      projectFileManager.notifyFileChange();
+    }
+  }
+
+  private void clearContinuityArea() {
+    if (bulkEditDepth > 0) {
+      bulkEditContinuityChanged = true;
+    } else {
+      drawingManager.clearContinuityArea();
+    }
   }
 
   @Override
@@ -1809,7 +1896,7 @@ public class Presenter implements IPlugInPort {
     if (getSelectedComponents().isEmpty()) {
       return;
     }
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     List<IDIYComponent<?>> components = new ArrayList<IDIYComponent<?>>(getSelectedComponents());
     // Sort components by their location.
     Collections.sort(components, new Comparator<IDIYComponent<?>>() {
@@ -1872,14 +1959,21 @@ public class Presenter implements IPlugInPort {
           .getComponents()));
     }
 
-    messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-        "Renumber selection");
-    projectFileManager.notifyFileChange();
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    notifyProjectModified(oldProject, "Renumber selection");
+    notifyFileChange();
+    repaint();
   }
 
   public void updateSelection(Collection<IDIYComponent<?>> newSelection) {
     this.selectedComponents = new HashSet<IDIYComponent<?>>(newSelection);
+    if (bulkEditDepth > 0) {
+      bulkEditSelectionChanged = true;
+    } else {
+      fireSelectionChanged();
+    }
+  }
+
+  private void fireSelectionChanged() {
     Map<IDIYComponent<?>, Set<Integer>> controlPointMap = new HashMap<IDIYComponent<?>, Set<Integer>>();
     for (IDIYComponent<?> component : selectedComponents) {
       Set<Integer> indices = new HashSet<Integer>();
@@ -1951,7 +2045,7 @@ public class Presenter implements IPlugInPort {
     if (newSelection.size() > oldSize && expansionMode != ExpansionMode.IMMEDIATE) {
       expandSelection(expansionMode);
     }
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
   }
 
   /**
@@ -2073,12 +2167,51 @@ public class Presenter implements IPlugInPort {
     }
   }
 
+  @Override
+  public void applyPropertyToComponents(Collection<IDIYComponent<?>> components, String propertyName, Object value) {
+    LOG.debug(String.format("applyPropertyToComponents(%s, %s, %s)", components.size(), propertyName, value));
+    Project oldProject = cloneForUndo();
+    drawingManager.invalidateComponents(components);
+    // Look up the property once per component type.
+    Map<Class<?>, PropertyWrapper> propertyMap = new HashMap<Class<?>, PropertyWrapper>();
+    try {
+      for (IDIYComponent<?> component : components) {
+        PropertyWrapper property = propertyMap.get(component.getClass());
+        if (property == null && !propertyMap.containsKey(component.getClass())) {
+          for (PropertyWrapper p : ComponentProcessor.getInstance().extractProperties(component.getClass())) {
+            if (p.getName().equals(propertyName)) {
+              property = p;
+              property.setValue(value);
+              break;
+            }
+          }
+          propertyMap.put(component.getClass(), property);
+        }
+        if (property != null) {
+          property.writeTo(component);
+        }
+      }
+    } catch (Exception e) {
+      LOG.error("Could not apply property " + propertyName, e);
+      view.showMessage("Could not apply changes to the components. Check the log for details.", "Error",
+          IView.ERROR_MESSAGE);
+    } finally {
+      // Notify the listeners.
+      if (!oldProject.equals(currentProject)) {
+        notifyProjectModified(oldProject, "Edit " + propertyName);
+        clearContinuityArea();
+        notifyFileChange();
+      }
+      repaint();
+    }
+  }
+
   private void applyPropertiesToSelection(List<PropertyWrapper> properties) {
     LOG.debug(String.format("applyPropertiesToSelection(%s)", properties));
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
+    drawingManager.invalidateComponents(selectedComponents);
     try {
       for (IDIYComponent<?> component : selectedComponents) {
-        drawingManager.invalidateComponent(component);
         for (PropertyWrapper property : properties) {
           if (property.isChanged()) {
             property.writeTo(component);
@@ -2092,12 +2225,11 @@ public class Presenter implements IPlugInPort {
     } finally {
       // Notify the listeners.
       if (!oldProject.equals(currentProject)) {
-        messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-            "Edit Selection");
-        drawingManager.clearContinuityArea();
-        projectFileManager.notifyFileChange();
+        notifyProjectModified(oldProject, "Edit Selection");
+        clearContinuityArea();
+        notifyFileChange();
       }
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      repaint();
     }
   }
 
@@ -2119,7 +2251,7 @@ public class Presenter implements IPlugInPort {
   @Override
   public void applyProperties(Object obj, List<PropertyWrapper> properties) {
     LOG.debug(String.format("applyProperties(%s, %s)", obj, properties));
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
     try {
       for (PropertyWrapper property : properties) {
         property.writeTo(obj);
@@ -2130,10 +2262,9 @@ public class Presenter implements IPlugInPort {
     } finally {
       // Notify the listeners.
       if (!oldProject.equals(currentProject)) {
-        messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-            "Edit Project");
-        drawingManager.clearContinuityArea();
-        projectFileManager.notifyFileChange();
+        notifyProjectModified(oldProject, "Edit Project");
+        clearContinuityArea();
+        notifyFileChange();
       }
       drawingManager.fireZoomChanged();
     }
@@ -2179,7 +2310,7 @@ public class Presenter implements IPlugInPort {
       else if (componentType != null)
         updateSelection(EMPTY_SELECTION);
       
-      messageDispatcher.dispatchMessage(EventType.REPAINT);
+      repaint();
       // messageDispatcher.dispatchMessage(EventType.SELECTION_CHANGED,
       // selectedComponents);
       // messageDispatcher.dispatchMessage(EventType.SELECTION_SIZE_CHANGED,
@@ -2359,11 +2490,11 @@ public class Presenter implements IPlugInPort {
   public void applyVariantToSelection(Template template) {
     LOG.debug(String.format("applyTemplateToSelection(%s)", template.getName()));
 
-    Project oldProject = currentProject.clone();
+    Project oldProject = cloneForUndo();
 
+    drawingManager.invalidateComponents(selectedComponents);
     for (IDIYComponent<?> component : this.selectedComponents) {
       try {
-        drawingManager.invalidateComponent(component);
         // this.instantiationManager.loadComponentShapeFromTemplate(component, template);
         this.instantiationManager.fillWithDefaultProperties(component, template);
       } catch (Exception e) {
@@ -2373,12 +2504,11 @@ public class Presenter implements IPlugInPort {
 
     // Notify the listeners.
     if (!oldProject.equals(currentProject)) {
-      messageDispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, oldProject, currentProject.clone(),
-          "Edit Selection");
-      drawingManager.clearContinuityArea();
-      projectFileManager.notifyFileChange();
+      notifyProjectModified(oldProject, "Edit Selection");
+      clearContinuityArea();
+      notifyFileChange();
     }
-    messageDispatcher.dispatchMessage(EventType.REPAINT);
+    repaint();
   }
 
   @SuppressWarnings("unchecked")
@@ -35,17 +35,17 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.log4j.Logger;
 import org.diylc.appframework.miscutils.Utils;
 import org.diylc.appframework.simplemq.MessageDispatcher;
 import org.diylc.common.EventType;
+import org.diylc.common.ObjectCache;
+import org.diylc.core.IDIYComponent;
 import org.diylc.core.Project;
 import org.diylc.parsing.IOldFileParser;
-import org.w3c.dom.Document;
+import org.diylc.parsing.OldFileReader;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
@@ -67,6 +67,7 @@ public class ProjectFileManager {
   private MessageDispatcher<EventType> messageDispatcher;
 
   private List<IOldFileParser> parsers;
+  private OldFileReader oldFileReader;
 
   public ProjectFileManager(MessageDispatcher<EventType> messageDispatcher) {
     super();
@@ -103,6 +104,13 @@ public class ProjectFileManager {
     return parsers;
   }
 
+  private OldFileReader getOldFileReader() {
+    if (oldFileReader == null) {
+      oldFileReader = new OldFileReader(getParsers());
+    }
+    return oldFileReader;
+  }
+
   public synchronized void serializeProjectToFile(Project project, String fileName, boolean isBackup)
       throws IOException {
     if (!isBackup) {
@@ -126,28 +134,18 @@ public class ProjectFileManager {
     LOG.info(String.format("loadProjectFromFile(%s)", fileName));
     Project project = null;
     File file = new File(fileName);
-    DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-    DocumentBuilder db = dbf.newDocumentBuilder();
-    Document doc = db.parse(new InputSource(new InputStreamReader(new FileInputStream(file))));
-    doc.getDocumentElement().normalize();
-    if (doc.getDocumentElement().getNodeName().equalsIgnoreCase(Project.class.getName())) {
+    // Old files are streamed so we never need the whole document in memory. The reader stops at
+    // the root element if the file is in the current format.
+    FileInputStream fis = new FileInputStream(file);
+    try {
+      project = getOldFileReader().read(new InputSource(new InputStreamReader(fis)), warnings);
+    } finally {
+      fis.close();
+    }
+    if (project == null) {
       project = parseV3File(fileName);
-    } else {
-      if (!doc.getDocumentElement().getNodeName().equalsIgnoreCase("layout")) {
-        throw new IllegalArgumentException("Could not open DIY file. Root node is not named 'Layout'.");
-      }
-      String formatVersion = doc.getDocumentElement().getAttribute("formatVersion");
-
-      // try to find a parser for an older version
-      List<IOldFileParser> parsers = getParsers();
-      for (int i = 0; i < parsers.size(); i++) {
-        if (parsers.get(i).canParse(formatVersion))
-          project = parsers.get(i).parseFile(doc.getDocumentElement(), warnings);
-      }
-
-      if (project == null)
-        throw new IllegalArgumentException("Unknown file format version: " + formatVersion);
     }
+    internProperties(project);
     Collections.sort(warnings);
     this.currentFileName = fileName;
     this.modified = false;
@@ -171,6 +169,18 @@ public class ProjectFileManager {
     messageDispatcher.dispatchMessage(EventType.FILE_STATUS_CHANGED, getCurrentFileName(), isModified());
   }
 
+  /**
+   * Files (and legacy parsers) create a new instance of each measure, color and font for each
+   * component, while layouts typically use just a few dozen distinct values.
+   */
+  private void internProperties(Project project) {
+    ObjectCache cache = ObjectCache.getInstance();
+    cache.internProperties(project);
+    for (IDIYComponent<?> component : project.getComponents()) {
+      cache.internProperties(component);
+    }
+  }
+
   private Project parseV3File(String fileName) throws IOException {
     Project project;
     FileInputStream fis = new FileInputStream(fileName);
@@ -0,0 +1,82 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import org.diylc.presenter.Presenter;
+import org.diylc.utils.BomEntry;
+import org.diylc.utils.BomMaker;
+
+/**
+ * Renders the bill of materials of the project as comma separated values.
+ */
+public class BOMRenderer implements IRenderer {
+
+  @Override
+  public String getFormat() {
+    return "bom";
+  }
+
+  @Override
+  public String getContentType() {
+    return "text/csv; charset=UTF-8";
+  }
+
+  @Override
+  public void render(Presenter presenter, Map<String, String> options, OutputStream out) throws Exception {
+    List<BomEntry> bom = BomMaker.getInstance().createBom(presenter.getCurrentProject().getComponents());
+    Writer writer = new OutputStreamWriter(out, "UTF-8");
+    writer.write("Name,Type,Value,Quantity,Notes\r\n");
+    for (BomEntry entry : bom) {
+      writeValue(writer, entry.getName());
+      writer.write(',');
+      writeValue(writer, entry.getType());
+      writer.write(',');
+      writeValue(writer, entry.getValue());
+      writer.write(',');
+      writeValue(writer, entry.getQuantity() == null ? null : entry.getQuantity().toString());
+      writer.write(',');
+      writeValue(writer, entry.getNotes());
+      writer.write("\r\n");
+    }
+    writer.flush();
+  }
+
+  private void writeValue(Writer writer, String value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+      writer.write('"');
+      writer.write(value.replace("\"", "\"\""));
+      writer.write('"');
+    } else {
+      writer.write(value);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.diylc.common.PropertyWrapper;
+import org.diylc.core.IView;
+
+/**
+ * {@link IView} for presenters that run without a user interface. Messages go to the log and all
+ * questions are declined.
+ */
+public class HeadlessView implements IView {
+
+  private static final Logger LOG = Logger.getLogger(HeadlessView.class);
+
+  @Override
+  public void showMessage(String message, String title, int messageType) {
+    LOG.debug(title + ": " + message);
+  }
+
+  @Override
+  public int showConfirmDialog(String message, String title, int optionType, int messageType) {
+    return optionType == OK_CANCEL_OPTION ? CANCEL_OPTION : NO_OPTION;
+  }
+
+  @Override
+  public boolean editProperties(List<PropertyWrapper> properties, Set<PropertyWrapper> defaultedProperties) {
+    return false;
+  }
+
+  @Override
+  public File promptFileSave() {
+    return null;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.diylc.presenter.Presenter;
+
+/**
+ * Produces one output format for {@link RenderService}. Renderers are shared between worker
+ * threads, so they must not keep any per-request state.
+ * <br>
+ * Renderers that live outside of the core module are picked up by {@link RenderServer} through
+ * {@link java.util.ServiceLoader}.
+ */
+public interface IRenderer {
+
+  /**
+   * @return short lower case name of the format, e.g. "png"
+   */
+  String getFormat();
+
+  /**
+   * @return MIME type of the output
+   */
+  String getContentType();
+
+  /**
+   * Renders the project currently loaded into the presenter.
+   *
+   * @param presenter presenter owned by the calling worker thread
+   * @param options format specific options, e.g. resolution, never <code>null</code>
+   * @param out
+   * @throws Exception
+   */
+  void render(Presenter presenter, Map<String, String> options, OutputStream out) throws Exception;
+}
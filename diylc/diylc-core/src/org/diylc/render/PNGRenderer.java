@@ -0,0 +1,80 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.diylc.common.DrawOption;
+import org.diylc.presenter.Presenter;
+import org.diylc.utils.Constants;
+
+/**
+ * Renders the project to a PNG image. Accepts a <code>dpi</code> option, 300 by default.
+ */
+public class PNGRenderer implements IRenderer {
+
+  public static final int DEFAULT_DPI = 300;
+  public static final int MAX_DPI = 1200;
+  // Don't let a single request take the whole heap, 64M pixels take 256MB.
+  private static final long MAX_PIXELS = 1L << 26;
+
+  @Override
+  public String getFormat() {
+    return "png";
+  }
+
+  @Override
+  public String getContentType() {
+    return "image/png";
+  }
+
+  @Override
+  public void render(Presenter presenter, Map<String, String> options, OutputStream out) throws Exception {
+    int dpi = RenderService.getIntOption(options, "dpi", DEFAULT_DPI);
+    if (dpi <= 0 || dpi > MAX_DPI) {
+      throw new IllegalArgumentException("Resolution must be between 1 and " + MAX_DPI + " DPI");
+    }
+    double zoom = dpi * Constants.PIXEL_SIZE / Constants.PIXELS_PER_INCH;
+    Dimension d = presenter.getCanvasDimensions(false, false);
+    int width = Math.max(1, (int) (d.getWidth() * zoom));
+    int height = Math.max(1, (int) (d.getHeight() * zoom));
+    if ((long) width * height > MAX_PIXELS) {
+      throw new IllegalArgumentException(String.format("Image would be %dx%d pixels, use a lower resolution",
+          width, height));
+    }
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2d = image.createGraphics();
+    try {
+      presenter.draw(g2d, EnumSet.of(DrawOption.ANTIALIASING), null, zoom);
+    } finally {
+      g2d.dispose();
+    }
+    ImageIO.write(image, "png", out);
+  }
+}
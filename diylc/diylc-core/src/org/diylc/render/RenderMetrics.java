@@ -0,0 +1,104 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per format request counters and latency statistics collected by {@link RenderService}.
+ * Percentiles are computed over a window of the most recent requests.
+ */
+public class RenderMetrics {
+
+  private static final int WINDOW = 1024;
+
+  private final Map<String, FormatMetrics> formats = new TreeMap<String, FormatMetrics>();
+
+  synchronized void recordCompleted(String format, long queueMillis, long renderMillis, boolean success) {
+    FormatMetrics metrics = getFormatMetrics(format);
+    if (success) {
+      metrics.completed++;
+    } else {
+      metrics.failed++;
+    }
+    metrics.totalQueueMillis += queueMillis;
+    metrics.totalRenderMillis += renderMillis;
+    metrics.maxRenderMillis = Math.max(metrics.maxRenderMillis, renderMillis);
+    metrics.window[(int) (metrics.windowIndex++ % WINDOW)] = queueMillis + renderMillis;
+  }
+
+  synchronized void recordRejected(String format) {
+    getFormatMetrics(format).rejected++;
+  }
+
+  private FormatMetrics getFormatMetrics(String format) {
+    FormatMetrics metrics = formats.get(format);
+    if (metrics == null) {
+      metrics = new FormatMetrics();
+      formats.put(format, metrics);
+    }
+    return metrics;
+  }
+
+  /**
+   * @return one line per format with request counts, average queue and render time and latency
+   *         percentiles, all times in milliseconds
+   */
+  public synchronized String getReport() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("format\tcompleted\tfailed\trejected\tavg_queue\tavg_render\tmax_render\tp50\tp95\tp99\n");
+    for (Map.Entry<String, FormatMetrics> entry : formats.entrySet()) {
+      FormatMetrics metrics = entry.getValue();
+      long count = metrics.completed + metrics.failed;
+      long[] latencies = Arrays.copyOf(metrics.window, (int) Math.min(metrics.windowIndex, WINDOW));
+      Arrays.sort(latencies);
+      builder.append(entry.getKey()).append('\t').append(metrics.completed).append('\t').append(metrics.failed)
+          .append('\t').append(metrics.rejected).append('\t')
+          .append(count == 0 ? 0 : metrics.totalQueueMillis / count).append('\t')
+          .append(count == 0 ? 0 : metrics.totalRenderMillis / count).append('\t').append(metrics.maxRenderMillis)
+          .append('\t').append(percentile(latencies, 50)).append('\t').append(percentile(latencies, 95))
+          .append('\t').append(percentile(latencies, 99)).append('\n');
+    }
+    return builder.toString();
+  }
+
+  private static long percentile(long[] sorted, int percent) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+  }
+
+  private static class FormatMetrics {
+
+    private long completed;
+    private long failed;
+    private long rejected;
+    private long totalQueueMillis;
+    private long totalRenderMillis;
+    private long maxRenderMillis;
+    private final long[] window = new long[WINDOW];
+    private long windowIndex;
+  }
+}
@@ -0,0 +1,400 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.PropertyConfigurator;
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.render.RenderService.RenderResult;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs {@link RenderService} either as a local HTTP endpoint or as a daemon that reads commands
+ * from the standard input.
+ *
+ * <pre>
+ * RenderServer [-t &lt;threads&gt;] [-q &lt;queue size&gt;] (-p &lt;port&gt; | -d)
+ *
+ *   -t  number of worker threads, defaults to the number of available processors
+ *   -q  number of requests that may wait for a worker, defaults to 64
+ *   -p  listen for HTTP requests on the port (localhost only)
+ *   -d  read commands from the standard input
+ * </pre>
+ *
+ * HTTP endpoints:
+ *
+ * <pre>
+ * POST /render/&lt;format&gt;?dpi=300   request body is the project file, response is the output
+ * GET  /formats                     supported formats, one per line
+ * GET  /metrics                     request counts and latencies
+ * </pre>
+ *
+ * Daemon commands, one per line. Render requests run concurrently and report back with
+ * <code>OK &lt;output&gt; &lt;queue ms&gt; &lt;render ms&gt;</code> or
+ * <code>ERROR &lt;output&gt; &lt;message&gt;</code> when done:
+ *
+ * <pre>
+ * render &lt;format&gt; &lt;input file&gt; &lt;output file&gt; [key=value...]
+ * metrics
+ * quit
+ * </pre>
+ *
+ * Renderers other than the built-in PNG and BOM ones are discovered with {@link ServiceLoader}.
+ */
+public class RenderServer {
+
+  private static final Logger LOG = Logger.getLogger(RenderServer.class);
+
+  private static final int DEFAULT_QUEUE_SIZE = 64;
+
+  private final RenderService service;
+  // Threads that report daemon results, only touched by the thread reading commands.
+  private final List<Thread> reporters = new ArrayList<Thread>();
+
+  public RenderServer(RenderService service) {
+    this.service = service;
+  }
+
+  public static void main(String[] args) {
+    URL url = RenderServer.class.getResource("/org/diylc/log4j.properties");
+    if (url != null) {
+      Properties properties = new Properties();
+      try {
+        properties.load(url.openStream());
+        PropertyConfigurator.configure(properties);
+      } catch (Exception e) {
+        LOG.error("Could not initialize log4j configuration", e);
+      }
+    }
+    // V2 parser reads unit preferences from the configuration.
+    ConfigurationManager.initialize("diylc");
+
+    int threadCount = Runtime.getRuntime().availableProcessors();
+    int queueSize = DEFAULT_QUEUE_SIZE;
+    int port = -1;
+    boolean daemon = false;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if ("-t".equals(args[i]) && i < args.length - 1) {
+          threadCount = Math.max(1, Integer.parseInt(args[++i]));
+        } else if ("-q".equals(args[i]) && i < args.length - 1) {
+          queueSize = Math.max(1, Integer.parseInt(args[++i]));
+        } else if ("-p".equals(args[i]) && i < args.length - 1) {
+          port = Integer.parseInt(args[++i]);
+        } else if ("-d".equals(args[i])) {
+          daemon = true;
+        } else {
+          throw new IllegalArgumentException(args[i]);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      printUsage();
+      System.exit(2);
+    }
+    if (daemon == (port >= 0)) {
+      printUsage();
+      System.exit(2);
+    }
+
+    RenderService service = new RenderService(threadCount, queueSize);
+    for (IRenderer renderer : ServiceLoader.load(IRenderer.class)) {
+      service.register(renderer);
+    }
+    RenderServer server = new RenderServer(service);
+    try {
+      if (daemon) {
+        server.runDaemon(System.in);
+        System.exit(0);
+      } else {
+        server.startHttp(port);
+      }
+    } catch (IOException e) {
+      LOG.error("Render server failed", e);
+      System.exit(1);
+    }
+  }
+
+  private static void printUsage() {
+    System.err.println("Usage: RenderServer [-t <threads>] [-q <queue size>] (-p <port> | -d)");
+    System.err.println("  -t  number of worker threads, defaults to the number of available processors");
+    System.err.println("  -q  number of requests that may wait for a worker, defaults to " + DEFAULT_QUEUE_SIZE);
+    System.err.println("  -p  listen for HTTP requests on the port (localhost only)");
+    System.err.println("  -d  read commands from the standard input");
+  }
+
+  /**
+   * Starts serving HTTP requests on the loopback interface. Returns immediately.
+   *
+   * @param port
+   * @return the server, so it can be stopped
+   * @throws IOException
+   */
+  public HttpServer startHttp(int port) throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+    // Connection threads mostly wait for the render workers, the service itself limits the load.
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/render/", new HttpHandler() {
+
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        handleRender(exchange);
+      }
+    });
+    server.createContext("/formats", new HttpHandler() {
+
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (String format : service.getFormats()) {
+          builder.append(format).append('\n');
+        }
+        sendText(exchange, 200, builder.toString());
+      }
+    });
+    server.createContext("/metrics", new HttpHandler() {
+
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        sendText(exchange, 200, getMetricsReport());
+      }
+    });
+    server.start();
+    LOG.info("Render server listening on " + server.getAddress());
+    System.out.println("Listening on http://" + server.getAddress().getAddress().getHostAddress() + ":"
+        + server.getAddress().getPort() + "/");
+    return server;
+  }
+
+  private void handleRender(HttpExchange exchange) throws IOException {
+    if (!"POST".equals(exchange.getRequestMethod())) {
+      sendText(exchange, 405, "Use POST with the project file as the request body\n");
+      return;
+    }
+    String format = exchange.getRequestURI().getPath().substring("/render/".length());
+    IRenderer renderer = service.getRenderer(format);
+    if (renderer == null) {
+      sendText(exchange, 404, "Unsupported format: " + format + "\n");
+      return;
+    }
+    Map<String, String> options = parseQuery(exchange.getRequestURI().getRawQuery());
+    File input = File.createTempFile("diylc-render", ".diy");
+    try {
+      OutputStream fileOut = new FileOutputStream(input);
+      try {
+        copy(exchange.getRequestBody(), fileOut);
+      } finally {
+        fileOut.close();
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      RenderResult result;
+      try {
+        result = service.submit(format, input, options, out).get();
+      } catch (RejectedExecutionException e) {
+        sendText(exchange, 503, "Too many requests, try again later\n");
+        return;
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        sendText(exchange, cause instanceof IllegalArgumentException ? 400 : 500, "Could not render: " + cause
+            + "\n");
+        return;
+      } catch (InterruptedException e) {
+        sendText(exchange, 500, "Interrupted\n");
+        return;
+      }
+      exchange.getResponseHeaders().set("Content-Type", renderer.getContentType());
+      exchange.getResponseHeaders().set("X-Queue-Time", Long.toString(result.getQueueMillis()));
+      exchange.getResponseHeaders().set("X-Render-Time", Long.toString(result.getRenderMillis()));
+      exchange.getResponseHeaders().set("X-Warnings", Integer.toString(result.getWarnings().size()));
+      exchange.sendResponseHeaders(200, out.size());
+      OutputStream body = exchange.getResponseBody();
+      out.writeTo(body);
+      body.close();
+    } finally {
+      input.delete();
+    }
+  }
+
+  /**
+   * Reads and executes commands until the input ends or <code>quit</code> is received. Waits for
+   * pending render requests and their replies before returning.
+   *
+   * @param in
+   * @throws IOException
+   */
+  public void runDaemon(InputStream in) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      String[] parts = line.trim().split("\\s+");
+      if (parts[0].length() == 0) {
+        continue;
+      }
+      if ("quit".equals(parts[0])) {
+        break;
+      } else if ("metrics".equals(parts[0])) {
+        respond(getMetricsReport());
+      } else if ("render".equals(parts[0]) && parts.length >= 4) {
+        Map<String, String> options = new HashMap<String, String>();
+        for (int i = 4; i < parts.length; i++) {
+          int index = parts[i].indexOf('=');
+          if (index > 0) {
+            options.put(parts[i].substring(0, index), parts[i].substring(index + 1));
+          }
+        }
+        submitDaemonRequest(parts[1], new File(parts[2]), new File(parts[3]), options);
+      } else {
+        respond("ERROR unknown command: " + line.trim());
+      }
+    }
+    service.shutdown();
+    try {
+      while (!service.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOG.info("Waiting for " + (service.getActiveCount() + service.getQueueSize()) + " render request(s)");
+      }
+      for (Thread reporter : reporters) {
+        reporter.join();
+      }
+    } catch (InterruptedException e) {
+      // Exit anyway.
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void submitDaemonRequest(String format, File input, final File output, Map<String, String> options) {
+    final OutputStream out;
+    try {
+      out = new FileOutputStream(output);
+    } catch (IOException e) {
+      respond("ERROR " + output + " " + e.getMessage());
+      return;
+    }
+    try {
+      // Report back from a separate thread so the next command can be read right away.
+      final java.util.concurrent.Future<RenderResult> future = service.submit(format, input, options, out);
+      Thread thread = new Thread(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            RenderResult result = future.get();
+            out.close();
+            respond("OK " + output + " " + result.getQueueMillis() + " " + result.getRenderMillis());
+          } catch (Exception e) {
+            closeQuietly(out);
+            output.delete();
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            respond("ERROR " + output + " " + cause);
+          }
+        }
+      });
+      thread.setDaemon(true);
+      thread.start();
+      Iterator<Thread> i = reporters.iterator();
+      while (i.hasNext()) {
+        if (!i.next().isAlive()) {
+          i.remove();
+        }
+      }
+      reporters.add(thread);
+    } catch (RuntimeException e) {
+      closeQuietly(out);
+      output.delete();
+      respond("ERROR " + output + " " + (e instanceof RejectedExecutionException ? "queue is full" : e.getMessage()));
+    }
+  }
+
+  private String getMetricsReport() {
+    return "queued\t" + service.getQueueSize() + "\nactive\t" + service.getActiveCount() + "\n"
+        + service.getMetrics().getReport();
+  }
+
+  private static synchronized void respond(String message) {
+    System.out.println(message);
+    System.out.flush();
+  }
+
+  private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+    byte[] bytes = text.getBytes("UTF-8");
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    OutputStream body = exchange.getResponseBody();
+    body.write(bytes);
+    body.close();
+  }
+
+  private static Map<String, String> parseQuery(String query) throws IOException {
+    Map<String, String> options = new HashMap<String, String>();
+    if (query == null) {
+      return options;
+    }
+    for (String pair : query.split("&")) {
+      int index = pair.indexOf('=');
+      if (index > 0) {
+        options.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"), URLDecoder.decode(pair
+            .substring(index + 1), "UTF-8"));
+      }
+    }
+    return options;
+  }
+
+  private static void copy(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[8192];
+    int count;
+    while ((count = in.read(buffer)) > 0) {
+      out.write(buffer, 0, count);
+    }
+  }
+
+  private static void closeQuietly(OutputStream out) {
+    try {
+      out.close();
+    } catch (IOException e) {
+      // Nothing to do.
+    }
+  }
+}
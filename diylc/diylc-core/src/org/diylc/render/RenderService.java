@@ -0,0 +1,282 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.render;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.common.DrawOption;
+import org.diylc.common.EventType;
+import org.diylc.core.Project;
+import org.diylc.presenter.Presenter;
+import org.diylc.presenter.ProjectFileManager;
+import org.diylc.utils.BomMaker;
+
+/**
+ * Renders project files to various formats without a user interface. Requests are queued and
+ * served by a fixed number of worker threads, each with its own {@link Presenter} that is created
+ * and warmed up when the service starts. When the queue is full new requests are rejected rather
+ * than piling up.
+ */
+public class RenderService {
+
+  private static final Logger LOG = Logger.getLogger(RenderService.class);
+
+  private final Map<String, IRenderer> renderers = new ConcurrentHashMap<String, IRenderer>();
+  private final BlockingQueue<Worker> workers;
+  private final ThreadPoolExecutor executor;
+  private final RenderMetrics metrics = new RenderMetrics();
+
+  /**
+   * @param threadCount maximum number of requests rendered at the same time
+   * @param queueCapacity maximum number of requests waiting for a worker
+   */
+  public RenderService(int threadCount, int queueCapacity) {
+    final AtomicInteger threadNumber = new AtomicInteger(1);
+    executor =
+        new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+
+              @Override
+              public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Render worker " + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+    executor.prestartAllCoreThreads();
+
+    long start = System.currentTimeMillis();
+    workers = new ArrayBlockingQueue<Worker>(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      workers.add(new Worker());
+    }
+    BomMaker.getInstance();
+    LOG.info(String.format("Started %d render worker(s) in %d ms", threadCount, System.currentTimeMillis() - start));
+
+    register(new PNGRenderer());
+    register(new BOMRenderer());
+  }
+
+  public void register(IRenderer renderer) {
+    renderers.put(renderer.getFormat().toLowerCase(), renderer);
+  }
+
+  public Set<String> getFormats() {
+    return Collections.unmodifiableSet(new TreeSet<String>(renderers.keySet()));
+  }
+
+  /**
+   * @param format
+   * @return renderer for the format or <code>null</code> if the format is not supported
+   */
+  public IRenderer getRenderer(String format) {
+    return format == null ? null : renderers.get(format.toLowerCase());
+  }
+
+  public RenderMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * @return number of requests waiting for a worker
+   */
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * @return number of requests being rendered
+   */
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * Queues the project file for rendering. The output stream is written to from a worker thread
+   * and it's not closed.
+   *
+   * @param format
+   * @param input project file
+   * @param options format specific options
+   * @param out
+   * @return future result of the request, fails with the exception thrown while rendering
+   * @throws IllegalArgumentException if the format is not supported
+   * @throws RejectedExecutionException if the queue is full
+   */
+  public Future<RenderResult> submit(final String format, final File input, final Map<String, String> options,
+      final OutputStream out) {
+    final IRenderer renderer = getRenderer(format);
+    if (renderer == null) {
+      throw new IllegalArgumentException("Unsupported format: " + format);
+    }
+    final long submitted = System.currentTimeMillis();
+    try {
+      return executor.submit(new Callable<RenderResult>() {
+
+        @Override
+        public RenderResult call() throws Exception {
+          long started = System.currentTimeMillis();
+          Worker worker = workers.take();
+          boolean success = false;
+          try {
+            List<String> warnings = new ArrayList<String>();
+            Project project;
+            try {
+              project = worker.fileManager.deserializeProjectFromFile(input.getAbsolutePath(), warnings);
+            } catch (Exception e) {
+              // Report bad input separately from rendering failures.
+              throw new IllegalArgumentException("Could not read the project: " + e.getMessage(), e);
+            }
+            worker.presenter.loadProject(project, true);
+            renderer.render(worker.presenter, options, out);
+            success = true;
+            return new RenderResult(renderer, started - submitted, System.currentTimeMillis() - started, warnings);
+          } finally {
+            workers.add(worker);
+            metrics.recordCompleted(renderer.getFormat(), started - submitted, System.currentTimeMillis() - started,
+                success);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      metrics.recordRejected(renderer.getFormat());
+      throw e;
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Blocks until all submitted requests are finished after {@link #shutdown()}.
+   *
+   * @param timeout
+   * @param unit
+   * @return true if all requests finished, false if the timeout elapsed first
+   * @throws InterruptedException
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * Helper for renderers that take numeric options.
+   *
+   * @param options
+   * @param key
+   * @param defaultValue
+   * @return parsed option value or <code>defaultValue</code> if the option is missing
+   * @throws IllegalArgumentException if the value is not a number
+   */
+  public static int getIntOption(Map<String, String> options, String key, int defaultValue) {
+    String value = options.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+    }
+  }
+
+  /**
+   * Presenter and file manager owned by one request at a time.
+   */
+  private static class Worker {
+
+    private final Presenter presenter;
+    private final ProjectFileManager fileManager;
+
+    public Worker() {
+      presenter = new Presenter(new HeadlessView());
+      fileManager = new ProjectFileManager(new MessageDispatcher<EventType>(true));
+      // Draw an empty project once so component types, fonts and caches are loaded before the
+      // first real request comes in.
+      presenter.loadProject(new Project(), true);
+      BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g2d = image.createGraphics();
+      presenter.draw(g2d, EnumSet.of(DrawOption.ANTIALIASING), null, 1d);
+      g2d.dispose();
+    }
+  }
+
+  public static class RenderResult {
+
+    private final IRenderer renderer;
+    private final long queueMillis;
+    private final long renderMillis;
+    private final List<String> warnings;
+
+    public RenderResult(IRenderer renderer, long queueMillis, long renderMillis, List<String> warnings) {
+      this.renderer = renderer;
+      this.queueMillis = queueMillis;
+      this.renderMillis = renderMillis;
+      this.warnings = warnings;
+    }
+
+    public IRenderer getRenderer() {
+      return renderer;
+    }
+
+    /**
+     * @return time spent waiting for a worker
+     */
+    public long getQueueMillis() {
+      return queueMillis;
+    }
+
+    /**
+     * @return time spent loading and rendering the project
+     */
+    public long getRenderMillis() {
+      return renderMillis;
+    }
+
+    public List<String> getWarnings() {
+      return warnings;
+    }
+  }
+}
@@ -23,6 +23,7 @@ package org.diylc.utils;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
+import java.awt.GraphicsEnvironment;
 import java.awt.Stroke;
 import java.awt.Toolkit;
 
@@ -31,7 +32,7 @@ import org.diylc.core.Theme;
 public class Constants {
 
   public static final int PIXELS_PER_INCH = 200;
-  public static final double PIXEL_SIZE = 1d * PIXELS_PER_INCH / Toolkit.getDefaultToolkit().getScreenResolution();
+  public static final double PIXEL_SIZE = 1d * PIXELS_PER_INCH / getScreenResolution();
 
   public static Color CANVAS_COLOR = Color.white;
 
@@ -44,4 +45,9 @@ public class Constants {
   public static final Color TRANSPARENT_COLOR = new Color(0, 0, 0, 0);
 
   public static final Color MULTI_VALUE_COLOR = Color.yellow;
+
+  private static int getScreenResolution() {
+    // There is no screen when running headless (e.g. batch conversion), assume the usual 96 DPI.
+    return GraphicsEnvironment.isHeadless() ? 96 : Toolkit.getDefaultToolkit().getScreenResolution();
+  }
 }
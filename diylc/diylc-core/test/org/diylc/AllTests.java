@@ -21,15 +21,23 @@
 */
 package org.diylc;
 
+import org.diylc.core.images.ImageStoreTest;
+import org.diylc.core.measures.SizeTest;
+import org.diylc.plugins.cloud.presenter.HttpFlatProxyTest;
 import org.diylc.plugins.file.BomMakerTest;
+import org.diylc.presenter.BulkTransformerTest;
 import org.diylc.presenter.ClassProcessorTest;
+import org.diylc.presenter.CoalescingMessageDispatcherTest;
+import org.diylc.presenter.PresenterBulkEditTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 
 @RunWith(Suite.class)
-@SuiteClasses({BomMakerTest.class, ClassProcessorTest.class})
+@SuiteClasses({BomMakerTest.class, BulkTransformerTest.class, ClassProcessorTest.class,
+    CoalescingMessageDispatcherTest.class, HttpFlatProxyTest.class, ImageStoreTest.class,
+    PresenterBulkEditTest.class, SizeTest.class})
 public class AllTests {
 
 }
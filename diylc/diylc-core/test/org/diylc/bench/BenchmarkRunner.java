@@ -0,0 +1,315 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal benchmark harness in the spirit of JMH, used by the benchmarks in the test tree. Each
+ * benchmark is warmed up for a fixed time and then measured in several timed iterations, which
+ * gives the mean time per operation with its error (standard deviation across iterations).
+ * Allocated bytes per operation are read from the thread allocation counter when the JVM
+ * supports it. Optionally, peak heap usage during the measurement is recorded as well.
+ * <p>
+ * Results can be written to a CSV file and compared against a previous run to catch regressions.
+ */
+public class BenchmarkRunner {
+
+  private final long warmupMillis;
+  private final long measureMillis;
+  private final int iterations;
+  private boolean trackPeakHeap = false;
+
+  /**
+   * @param warmupMillis how long to run each benchmark before measuring
+   * @param measureMillis total measurement time of each benchmark, split into iterations
+   * @param iterations number of measurement iterations
+   */
+  public BenchmarkRunner(long warmupMillis, long measureMillis, int iterations) {
+    this.warmupMillis = warmupMillis;
+    this.measureMillis = measureMillis;
+    this.iterations = Math.max(1, iterations);
+  }
+
+  /**
+   * @param trackPeakHeap if <code>true</code>, garbage is collected before each measurement and
+   *        peak heap usage is recorded. Makes sense for long running operations only
+   */
+  public void setTrackPeakHeap(boolean trackPeakHeap) {
+    this.trackPeakHeap = trackPeakHeap;
+  }
+
+  /**
+   * Runs a single benchmark.
+   * 
+   * @param name unique benchmark name, used to match results against a baseline
+   * @param operation
+   * @return measured result
+   * @throws Exception if the operation fails
+   */
+  public Result run(String name, Operation operation) throws Exception {
+    runFor(operation, warmupMillis * 1000000);
+
+    List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+    if (trackPeakHeap) {
+      System.gc();
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+          pool.resetPeakUsage();
+          heapPools.add(pool);
+        }
+      }
+    }
+    double[] nanosPerOp = new double[iterations];
+    long totalOps = 0;
+    long totalBytes = 0;
+    long iterationNanos = Math.max(1, measureMillis * 1000000 / iterations);
+    for (int i = 0; i < iterations; i++) {
+      long bytes = getAllocatedBytes();
+      long start = System.nanoTime();
+      long ops = runFor(operation, iterationNanos);
+      long elapsed = System.nanoTime() - start;
+      totalBytes += getAllocatedBytes() - bytes;
+      totalOps += ops;
+      nanosPerOp[i] = 1d * elapsed / ops;
+    }
+
+    double mean = 0;
+    for (double d : nanosPerOp) {
+      mean += d;
+    }
+    mean /= iterations;
+    double variance = 0;
+    for (double d : nanosPerOp) {
+      variance += (d - mean) * (d - mean);
+    }
+    double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+    double bytesPerOp = isAllocationSupported() ? 1d * totalBytes / totalOps : Double.NaN;
+    // Pools may peak at different times, so this is an upper bound.
+    long peakHeap = 0;
+    for (MemoryPoolMXBean pool : heapPools) {
+      peakHeap += pool.getPeakUsage().getUsed();
+    }
+    return new Result(name, totalOps, mean, error, bytesPerOp, trackPeakHeap ? peakHeap : -1);
+  }
+
+  private static long runFor(Operation operation, long nanos) throws Exception {
+    long ops = 0;
+    long end = System.nanoTime() + nanos;
+    do {
+      operation.run();
+      ops++;
+    } while (System.nanoTime() < end);
+    return ops;
+  }
+
+  private static boolean isAllocationSupported() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    return bean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+  }
+
+  private static long getAllocatedBytes() {
+    if (!isAllocationSupported()) {
+      return 0;
+    }
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread
+        .currentThread().getId());
+  }
+
+  public static void printHeader(PrintStream out) {
+    out.println(String.format("%-80s %12s %10s %12s %10s", "Benchmark", "ns/op", "error", "B/op", "peak MB"));
+  }
+
+  public static void writeCsv(List<Result> results, File file) throws IOException {
+    PrintWriter out = new PrintWriter(new FileWriter(file));
+    try {
+      out.println("benchmark,ops,ns_per_op,error,bytes_per_op,peak_heap_bytes");
+      for (Result result : results) {
+        out.println(String.format(Locale.US, "%s,%d,%.1f,%.1f,%.1f,%d", result.getName(), result.getOps(),
+            result.getNanosPerOp(), result.getError(), result.getBytesPerOp(), result.getPeakHeapBytes()));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Common ending of benchmark runs: writes the results to CSV and compares them to the baseline,
+   * when specified.
+   * 
+   * @param results
+   * @param csv may be <code>null</code>
+   * @param baseline may be <code>null</code>
+   * @param thresholdPercent
+   * @return exit code, 1 if there are regressions, 0 otherwise
+   * @throws IOException
+   */
+  public static int finish(List<Result> results, File csv, File baseline, double thresholdPercent)
+      throws IOException {
+    if (csv != null) {
+      writeCsv(results, csv);
+    }
+    if (baseline != null && reportRegressions(results, readCsv(baseline), thresholdPercent, System.out) > 0) {
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Reads results previously written by {@link #writeCsv(List, File)}.
+   * 
+   * @param file
+   * @return map of benchmark names to time per operation in nanoseconds
+   * @throws IOException
+   */
+  public static Map<String, Double> readCsv(File file) throws IOException {
+    Map<String, Double> results = new LinkedHashMap<String, Double>();
+    BufferedReader in = new BufferedReader(new FileReader(file));
+    try {
+      String line = in.readLine();
+      while ((line = in.readLine()) != null) {
+        String[] parts = line.split(",");
+        if (parts.length >= 3) {
+          results.put(parts[0], Double.parseDouble(parts[2]));
+        }
+      }
+    } finally {
+      in.close();
+    }
+    return results;
+  }
+
+  /**
+   * Compares results against a baseline and prints the ones that got slower by more than the
+   * threshold.
+   * 
+   * @param results
+   * @param baseline
+   * @param thresholdPercent
+   * @param out
+   * @return number of regressions found
+   */
+  public static int reportRegressions(List<Result> results, Map<String, Double> baseline, double thresholdPercent,
+      PrintStream out) {
+    List<String> regressions = new ArrayList<String>();
+    for (Result result : results) {
+      Double base = baseline.get(result.getName());
+      if (base == null || base <= 0) {
+        continue;
+      }
+      double change = 100 * (result.getNanosPerOp() - base) / base;
+      // Differences within the measurement error are noise.
+      if (change > thresholdPercent && result.getNanosPerOp() - result.getError() > base) {
+        regressions.add(String.format(Locale.US, "%-80s %12.1f -> %12.1f ns/op (+%.0f%%)", result.getName(), base,
+            result.getNanosPerOp(), change));
+      }
+    }
+    if (regressions.isEmpty()) {
+      out.println("No regressions over " + thresholdPercent + "%");
+    } else {
+      out.println(regressions.size() + " regression(s) over " + thresholdPercent + "%:");
+      for (String regression : regressions) {
+        out.println(regression);
+      }
+    }
+    return regressions.size();
+  }
+
+  /**
+   * Benchmarked code.
+   */
+  public interface Operation {
+
+    void run() throws Exception;
+  }
+
+  public static class Result {
+
+    private final String name;
+    private final long ops;
+    private final double nanosPerOp;
+    private final double error;
+    private final double bytesPerOp;
+    private final long peakHeapBytes;
+
+    public Result(String name, long ops, double nanosPerOp, double error, double bytesPerOp, long peakHeapBytes) {
+      this.name = name;
+      this.ops = ops;
+      this.nanosPerOp = nanosPerOp;
+      this.error = error;
+      this.bytesPerOp = bytesPerOp;
+      this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getOps() {
+      return ops;
+    }
+
+    public double getNanosPerOp() {
+      return nanosPerOp;
+    }
+
+    public double getError() {
+      return error;
+    }
+
+    /**
+     * @return allocated bytes per operation or {@link Double#NaN} if not supported by the JVM
+     */
+    public double getBytesPerOp() {
+      return bytesPerOp;
+    }
+
+    /**
+     * @return peak heap usage during the measurement or -1 if not tracked
+     */
+    public long getPeakHeapBytes() {
+      return peakHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.US, "%-80s %12.1f %10.1f %12.0f %10s", name, nanosPerOp, error, bytesPerOp,
+          peakHeapBytes < 0 ? "-" : String.format(Locale.US, "%.1f", peakHeapBytes / 1048576d));
+    }
+  }
+}
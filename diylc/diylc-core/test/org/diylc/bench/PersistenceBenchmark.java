@@ -0,0 +1,284 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.bench.BenchmarkRunner.Result;
+import org.diylc.common.EventType;
+import org.diylc.core.Project;
+import org.diylc.presenter.ProjectFileManager;
+
+/**
+ * Measures the persistence and undo hot paths on synthetic projects of increasing size (see
+ * {@link ProjectGenerator}): saving and loading the current file format through
+ * {@link ProjectFileManager}, loading V1 and V2 files (which go through the old file parsers),
+ * {@link Project#clone()} and {@link Project#equals(Object)}. Reports latency, allocation and peak
+ * heap per operation.
+ * <p>
+ * Needs diylc-library on the classpath.
+ * 
+ * <pre>
+ * PersistenceBenchmark [-w &lt;ms&gt;] [-m &lt;ms&gt;] [-i &lt;iterations&gt;] [-s &lt;size,...&gt;]
+ *                      [-csv &lt;file&gt;] [-b &lt;baseline csv&gt;] [-t &lt;percent&gt;]
+ *
+ *   -w    warmup time per benchmark, defaults to 1000 ms
+ *   -m    measurement time per benchmark, defaults to 3000 ms
+ *   -i    measurement iterations, defaults to 3
+ *   -s    comma separated project sizes (component count), defaults to 100,1000,10000,50000
+ *   -csv  write results to a CSV file
+ *   -b    compare against a CSV from a previous run, exits with 1 if anything got slower
+ *   -t    regression threshold in percent, defaults to 10
+ * </pre>
+ */
+public class PersistenceBenchmark {
+
+  private static final long SEED = 42;
+
+  private final BenchmarkRunner runner;
+  private final ProjectFileManager fileManager = new ProjectFileManager(new MessageDispatcher<EventType>(true));
+  private final File tempDir;
+
+  public PersistenceBenchmark(BenchmarkRunner runner, File tempDir) {
+    this.runner = runner;
+    this.tempDir = tempDir;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (System.getProperty("java.awt.headless") == null) {
+      System.setProperty("java.awt.headless", "true");
+    }
+    // V2 parser reads unit preferences from the configuration.
+    ConfigurationManager.initialize("diylc");
+
+    long warmup = 1000;
+    long measure = 3000;
+    int iterations = 3;
+    int[] sizes = new int[] {100, 1000, 10000, 50000};
+    File csv = null;
+    File baseline = null;
+    double threshold = 10;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if ("-w".equals(args[i]) && i < args.length - 1) {
+          warmup = Long.parseLong(args[++i]);
+        } else if ("-m".equals(args[i]) && i < args.length - 1) {
+          measure = Long.parseLong(args[++i]);
+        } else if ("-i".equals(args[i]) && i < args.length - 1) {
+          iterations = Integer.parseInt(args[++i]);
+        } else if ("-s".equals(args[i]) && i < args.length - 1) {
+          String[] parts = args[++i].split(",");
+          sizes = new int[parts.length];
+          for (int j = 0; j < parts.length; j++) {
+            sizes[j] = Integer.parseInt(parts[j]);
+          }
+        } else if ("-csv".equals(args[i]) && i < args.length - 1) {
+          csv = new File(args[++i]);
+        } else if ("-b".equals(args[i]) && i < args.length - 1) {
+          baseline = new File(args[++i]);
+        } else if ("-t".equals(args[i]) && i < args.length - 1) {
+          threshold = Double.parseDouble(args[++i]);
+        } else {
+          printUsage();
+          System.exit(2);
+        }
+      }
+    } catch (NumberFormatException e) {
+      printUsage();
+      System.exit(2);
+    }
+
+    BenchmarkRunner runner = new BenchmarkRunner(warmup, measure, iterations);
+    runner.setTrackPeakHeap(true);
+    File tempDir = new File(System.getProperty("java.io.tmpdir"), "diylc-persistence-benchmark");
+    tempDir.mkdirs();
+    List<Result> results = new ArrayList<Result>();
+    PersistenceBenchmark benchmark = new PersistenceBenchmark(runner, tempDir);
+    BenchmarkRunner.printHeader(System.out);
+    for (int size : sizes) {
+      results.addAll(benchmark.run(size));
+    }
+    System.exit(BenchmarkRunner.finish(results, csv, baseline, threshold));
+  }
+
+  private static void printUsage() {
+    System.err.println("Usage: PersistenceBenchmark [-w <ms>] [-m <ms>] [-i <iterations>] [-s <size,...>] "
+        + "[-csv <file>] [-b <baseline csv>] [-t <percent>]");
+  }
+
+  public List<Result> run(final int size) throws Exception {
+    List<Result> results = new ArrayList<Result>();
+    final Project project = new ProjectGenerator(SEED).generate(size);
+    final File file = new File(tempDir, "project-" + size + ".diy");
+    final File v1File = new File(tempDir, "project-" + size + "-v1.diy");
+    final File v2File = new File(tempDir, "project-" + size + "-v2.diy");
+    fileManager.serializeProjectToFile(project, file.getAbsolutePath(), false);
+    writeV1File(v1File, size, SEED);
+    writeV2File(v2File, size, SEED);
+
+    results.add(report(runner.run("save/" + size, new BenchmarkRunner.Operation() {
+
+      @Override
+      public void run() throws Exception {
+        fileManager.serializeProjectToFile(project, file.getAbsolutePath(), false);
+      }
+    })));
+    results.add(report(runner.run("load/" + size, new BenchmarkRunner.Operation() {
+
+      @Override
+      public void run() throws Exception {
+        fileManager.deserializeProjectFromFile(file.getAbsolutePath(), new ArrayList<String>());
+      }
+    })));
+    results.add(report(runner.run("loadV1/" + size, new BenchmarkRunner.Operation() {
+
+      @Override
+      public void run() throws Exception {
+        fileManager.deserializeProjectFromFile(v1File.getAbsolutePath(), new ArrayList<String>());
+      }
+    })));
+    results.add(report(runner.run("loadV2/" + size, new BenchmarkRunner.Operation() {
+
+      @Override
+      public void run() throws Exception {
+        fileManager.deserializeProjectFromFile(v2File.getAbsolutePath(), new ArrayList<String>());
+      }
+    })));
+    results.add(report(runner.run("clone/" + size, new BenchmarkRunner.Operation() {
+
+      @Override
+      public void run() {
+        project.clone();
+      }
+    })));
+    final Project copy = project.clone();
+    results.add(report(runner.run("equals/" + size, new BenchmarkRunner.Operation() {
+
+      @Override
+      public void run() {
+        if (!project.equals(copy)) {
+          throw new IllegalStateException("Cloned project is not equal to the original");
+        }
+      }
+    })));
+
+    file.delete();
+    v1File.delete();
+    v2File.delete();
+    return results;
+  }
+
+  private static Result report(Result result) {
+    System.out.println(result);
+    return result;
+  }
+
+  private static void writeV1File(File file, int size, long seed) throws IOException {
+    Random random = new Random(seed);
+    int columns = (int) Math.ceil(Math.sqrt(size)) * 4;
+    PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    try {
+      out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+      out.println(String.format("<Layout Project=\"Synthetic\" Credits=\"Benchmark\" Type=\"perfboard\" "
+          + "Width=\"%d\" Height=\"%d\">", columns, columns));
+      for (int i = 0; i < size; i++) {
+        int x = (i * 4) % columns;
+        int y = (i * 4) / columns;
+        switch (random.nextInt(4)) {
+          case 0:
+            out.println(String.format("<resistor Name=\"R%d\" Value=\"10K\" X1=\"%d\" Y1=\"%d\" X2=\"%d\" Y2=\"%d\"/>",
+                i, x, y, x + 3, y));
+            break;
+          case 1:
+            out.println(String.format("<trace Name=\"T%d\" Color=\"red\" X1=\"%d\" Y1=\"%d\" X2=\"%d\" Y2=\"%d\"/>", i,
+                x, y, x, y + 3));
+            break;
+          case 2:
+            out.println(String.format("<jumper Name=\"J%d\" X1=\"%d\" Y1=\"%d\" X2=\"%d\" Y2=\"%d\"/>", i, x, y, x + 2,
+                y + 2));
+            break;
+          default:
+            out.println(String.format("<text Name=\"L%d\" Value=\"Label %d\" X1=\"%d\" Y1=\"%d\"/>", i, i, x, y));
+        }
+      }
+      out.println("</Layout>");
+    } finally {
+      out.close();
+    }
+  }
+
+  private static void writeV2File(File file, int size, long seed) throws IOException {
+    Random random = new Random(seed);
+    int columns = (int) Math.ceil(Math.sqrt(size));
+    PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    try {
+      out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+      out.println("<layout formatVersion=\"2.0\" projectName=\"Synthetic\" credits=\"Benchmark\" width=\"29cm\" "
+          + "height=\"21cm\">");
+      for (int i = 0; i < size; i++) {
+        int x = (i % columns) * 200;
+        int y = (i / columns) * 200;
+        // The parser relies on whitespace between elements, keep one element per line.
+        switch (random.nextInt(3)) {
+          case 0:
+            writeV2Component(out, "Resistor", new String[] {"Name", "R" + i, "Value", "10K", "Diameter", "2mm",
+                "Length", "6mm"}, x, y, x + 100, y);
+            break;
+          case 1:
+            writeV2Component(out, "Copper Trace", new String[] {"Name", "T" + i, "Thickness", "1mm"}, x, y, x,
+                y + 100);
+            break;
+          default:
+            writeV2Component(out, "Solder pad", new String[] {"Name", "P" + i, "Size", "2mm", "Shape", "circle"}, x,
+                y);
+        }
+      }
+      out.println("</layout>");
+    } finally {
+      out.close();
+    }
+  }
+
+  private static void writeV2Component(PrintWriter out, String name, String[] properties, int... coordinates) {
+    out.println("<component name=\"" + name + "\">");
+    out.println("<properties>");
+    for (int i = 0; i < properties.length; i += 2) {
+      out.println("<property name=\"" + properties[i] + "\" value=\"" + properties[i + 1] + "\"/>");
+    }
+    out.println("</properties>");
+    out.println("<points>");
+    for (int i = 0; i < coordinates.length; i += 2) {
+      out.println("<point x=\"" + coordinates[i] + "\" y=\"" + coordinates[i + 1] + "\"/>");
+    }
+    out.println("</points>");
+    out.println("</component>");
+  }
+}
@@ -0,0 +1,299 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.bench;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.diylc.common.ComponentType;
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.Project;
+import org.diylc.core.measures.Size;
+import org.diylc.core.measures.SizeUnit;
+import org.diylc.presenter.ComponentProcessor;
+import org.diylc.presenter.InstantiationManager;
+import org.diylc.utils.Constants;
+
+/**
+ * Generates large synthetic projects for stress and scaling tests. Projects are laid out as a grid
+ * of tiles, each holding a vero board, a perf board or a terminal strip populated with leaded
+ * components, ICs, wires, traces and labels. Component leads sit in board holes or on terminals
+ * and wires start and end on other components' leads, so projects have realistic sticky
+ * connections and continuity areas.
+ * <p>
+ * Output depends only on the seed and component count, with the exception of component defaults
+ * the user saved to the configuration, which are applied through {@link InstantiationManager} the
+ * same way they are when placing components in the editor. {@code ConfigurationManager} must be
+ * initialized and diylc-library must be on the classpath.
+ */
+public class ProjectGenerator {
+
+  private static final String PACKAGE = "org.diylc.components.";
+
+  private static final String VERO_BOARD = PACKAGE + "boards.VeroBoard";
+  private static final String PERF_BOARD = PACKAGE + "boards.PerfBoard";
+  private static final String TERMINAL_STRIP = PACKAGE + "boards.TerminalStrip";
+  private static final String DIL_IC = PACKAGE + "semiconductors.DIL_IC";
+  private static final String HOOKUP_WIRE = PACKAGE + "connectivity.HookupWire";
+  private static final String JUMPER = PACKAGE + "connectivity.Jumper";
+  private static final String COPPER_TRACE = PACKAGE + "connectivity.CopperTrace";
+  private static final String LABEL = PACKAGE + "misc.Label";
+  private static final String[] AXIAL_COMPONENTS = new String[] {PACKAGE + "passive.Resistor",
+      PACKAGE + "passive.Resistor", PACKAGE + "passive.Resistor", PACKAGE + "passive.AxialFilmCapacitor",
+      PACKAGE + "semiconductors.DiodePlastic"};
+  private static final String[] RADIAL_COMPONENTS = new String[] {PACKAGE + "passive.RadialFilmCapacitor",
+      PACKAGE + "passive.RadialElectrolytic"};
+  private static final String[] IC_PIN_COUNTS = new String[] {"_8", "_8", "_14", "_16"};
+
+  // All distances are in board holes, 0.1 inch apart.
+  private static final int SPACING = (int) new Size(0.1d, SizeUnit.in).convertToPixels();
+  private static final int BOARD_COLUMNS = 20;
+  private static final int BOARD_ROWS = 15;
+  private static final int TILE_SIZE = 24 * SPACING;
+  private static final int COMPONENTS_PER_BOARD = 40;
+  private static final int TERMINALS = 6;
+  private static final int COMPONENTS_PER_STRIP = 16;
+  private static final int MAX_ATTEMPTS = 20;
+
+  private final Random random;
+  private final InstantiationManager instantiationManager = new InstantiationManager();
+  private final Map<String, Integer> nameCounters = new HashMap<String, Integer>();
+
+  public ProjectGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Generates a project with exactly the specified number of components, including boards.
+   * 
+   * @param componentCount
+   * @return
+   * @throws Exception if a component could not be instantiated
+   */
+  public Project generate(int componentCount) throws Exception {
+    Project project = new Project();
+    project.setTitle("Synthetic project with " + componentCount + " components");
+    project.setAuthor("ProjectGenerator");
+    List<IDIYComponent<?>> components = project.getComponents();
+
+    // Tiles cycle between two boards and a terminal strip, keep the grid roughly square.
+    int estimatedTiles = Math.max(1, componentCount * 3 / (2 * (COMPONENTS_PER_BOARD + 1) + COMPONENTS_PER_STRIP + 1));
+    int columns = (int) Math.ceil(Math.sqrt(estimatedTiles));
+    int tile = 0;
+    while (components.size() < componentCount) {
+      int x = (tile % columns) * TILE_SIZE + SPACING;
+      int y = (tile / columns) * TILE_SIZE + SPACING;
+      List<IDIYComponent<?>> tileComponents;
+      switch (tile % 3) {
+        case 0:
+          tileComponents = generateBoard(VERO_BOARD, x, y);
+          break;
+        case 1:
+          tileComponents = generateBoard(PERF_BOARD, x, y);
+          break;
+        default:
+          tileComponents = generateTerminalStrip(x, y);
+      }
+      int remaining = componentCount - components.size();
+      components.addAll(tileComponents.size() > remaining ? tileComponents.subList(0, remaining) : tileComponents);
+      tile++;
+    }
+    int rows = (tile + columns - 1) / columns;
+    project.setWidth(new Size(Math.max(29d, (columns * TILE_SIZE + SPACING) * 2.54 / Constants.PIXELS_PER_INCH),
+        SizeUnit.cm));
+    project.setHeight(new Size(Math.max(21d, (rows * TILE_SIZE + SPACING) * 2.54 / Constants.PIXELS_PER_INCH),
+        SizeUnit.cm));
+    return project;
+  }
+
+  private List<IDIYComponent<?>> generateBoard(String boardType, int x, int y) throws Exception {
+    List<IDIYComponent<?>> components = new ArrayList<IDIYComponent<?>>();
+    boolean vero = VERO_BOARD.equals(boardType);
+    IDIYComponent<?> board = create(boardType);
+    board.setControlPoint(new Point(x, y), 0);
+    board.setControlPoint(new Point(x + BOARD_COLUMNS * SPACING, y + BOARD_ROWS * SPACING), 1);
+    components.add(board);
+
+    // Holes are at board origin + k * spacing, 0 < k < size.
+    boolean[][] occupied = new boolean[BOARD_COLUMNS][BOARD_ROWS];
+    List<Point> leads = new ArrayList<Point>();
+    while (components.size() < COMPONENTS_PER_BOARD + 1) {
+      int kind = random.nextInt(100);
+      if (kind < 45) {
+        placeLeaded(components, occupied, leads, x, y);
+      } else if (kind < 55) {
+        placeIC(components, occupied, leads, x, y);
+      } else if (kind < 90 && leads.size() >= 2) {
+        // Vero boards get jumpers, perf boards wires and traces.
+        String type = vero ? JUMPER : (kind < 75 ? HOOKUP_WIRE : COPPER_TRACE);
+        connectAny(components, type, leads);
+      } else {
+        placeLabel(components, x + (1 + random.nextInt(BOARD_COLUMNS - 4)) * SPACING,
+            y + (1 + random.nextInt(BOARD_ROWS - 1)) * SPACING);
+      }
+    }
+    return components;
+  }
+
+  private List<IDIYComponent<?>> generateTerminalStrip(int x, int y) throws Exception {
+    List<IDIYComponent<?>> components = new ArrayList<IDIYComponent<?>>();
+    IDIYComponent<?> strip = create(TERMINAL_STRIP);
+    strip.getClass().getMethod("setTerminalCount", int.class).invoke(strip, TERMINALS);
+    translate(strip, x + 4 * SPACING, y + 2 * SPACING);
+    components.add(strip);
+
+    // Terminal strips are point to point, many leads may share a terminal.
+    List<Point> terminals = new ArrayList<Point>();
+    for (int i = 0; i < strip.getControlPointCount(); i++) {
+      terminals.add(new Point(strip.getControlPoint(i)));
+    }
+    while (components.size() < COMPONENTS_PER_STRIP + 1) {
+      int kind = random.nextInt(100);
+      if (kind < 50) {
+        // Across the strip.
+        int terminal = random.nextInt(TERMINALS);
+        connect(components, AXIAL_COMPONENTS[random.nextInt(AXIAL_COMPONENTS.length)], terminals.get(terminal),
+            terminals.get(terminal + TERMINALS));
+      } else if (kind < 90) {
+        connectAny(components, HOOKUP_WIRE, terminals);
+      } else {
+        placeLabel(components, x + random.nextInt(12) * SPACING, y + SPACING);
+      }
+    }
+    return components;
+  }
+
+  private void placeLeaded(List<IDIYComponent<?>> components, boolean[][] occupied, List<Point> leads, int x, int y)
+      throws Exception {
+    boolean radial = random.nextInt(4) == 0;
+    int span = radial ? 1 + random.nextInt(2) : 3 + random.nextInt(3);
+    boolean horizontal = random.nextBoolean();
+    int dx = horizontal ? span : 0;
+    int dy = horizontal ? 0 : span;
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int column = 1 + random.nextInt(BOARD_COLUMNS - 1 - dx);
+      int row = 1 + random.nextInt(BOARD_ROWS - 1 - dy);
+      if (!occupied[column][row] && !occupied[column + dx][row + dy]) {
+        occupied[column][row] = true;
+        occupied[column + dx][row + dy] = true;
+        Point p1 = new Point(x + column * SPACING, y + row * SPACING);
+        Point p2 = new Point(x + (column + dx) * SPACING, y + (row + dy) * SPACING);
+        leads.add(p1);
+        leads.add(p2);
+        connect(components, radial ? RADIAL_COMPONENTS[random.nextInt(RADIAL_COMPONENTS.length)]
+            : AXIAL_COMPONENTS[random.nextInt(AXIAL_COMPONENTS.length)], p1, p2);
+        return;
+      }
+    }
+  }
+
+  private void placeIC(List<IDIYComponent<?>> components, boolean[][] occupied, List<Point> leads, int x, int y)
+      throws Exception {
+    IDIYComponent<?> ic = create(DIL_IC);
+    Class<?> pinCountClass = Class.forName(DIL_IC + "$PinCount");
+    ic.getClass().getMethod("setPinCount", pinCountClass).invoke(ic,
+        pinCountClass.getField(IC_PIN_COUNTS[random.nextInt(IC_PIN_COUNTS.length)]).get(null));
+    int rowCount = ic.getControlPointCount() / 2;
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int column = 1 + random.nextInt(BOARD_COLUMNS - 4);
+      int row = 1 + random.nextInt(BOARD_ROWS - rowCount);
+      boolean free = true;
+      for (int i = 0; i < rowCount && free; i++) {
+        free = !occupied[column][row + i] && !occupied[column + 3][row + i];
+      }
+      if (free) {
+        for (int i = 0; i < rowCount; i++) {
+          occupied[column][row + i] = true;
+          occupied[column + 3][row + i] = true;
+        }
+        translate(ic, x + column * SPACING, y + row * SPACING);
+        for (int i = 0; i < ic.getControlPointCount(); i++) {
+          leads.add(new Point(ic.getControlPoint(i)));
+        }
+        components.add(ic);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Creates a two-ended component with its first and last control point at the specified points.
+   * Points in between (of curved wires) are spread evenly.
+   */
+  private void connect(List<IDIYComponent<?>> components, String type, Point p1, Point p2) throws Exception {
+    IDIYComponent<?> component = create(type);
+    int count = component.getControlPointCount();
+    for (int i = 0; i < count; i++) {
+      component.setControlPoint(new Point(p1.x + (p2.x - p1.x) * i / (count - 1), p1.y + (p2.y - p1.y) * i
+          / (count - 1)), i);
+    }
+    components.add(component);
+  }
+
+  /**
+   * Connects two different points picked at random. Both ends in the same spot would make the
+   * component impossible to drag.
+   */
+  private void connectAny(List<IDIYComponent<?>> components, String type, List<Point> points) throws Exception {
+    int first = random.nextInt(points.size());
+    int second = (first + 1 + random.nextInt(points.size() - 1)) % points.size();
+    connect(components, type, points.get(first), points.get(second));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void placeLabel(List<IDIYComponent<?>> components, int x, int y) throws Exception {
+    IDIYComponent<String> label = (IDIYComponent<String>) create(LABEL);
+    label.setControlPoint(new Point(x, y), 0);
+    label.setValue("Label " + random.nextInt(1000));
+    components.add(label);
+  }
+
+  private void translate(IDIYComponent<?> component, int dx, int dy) {
+    for (int i = 0; i < component.getControlPointCount(); i++) {
+      Point point = new Point(component.getControlPoint(i));
+      point.translate(dx, dy);
+      component.setControlPoint(point, i);
+    }
+  }
+
+  /**
+   * Instantiates a component with default property values and a unique name. Names are assigned
+   * from a counter per prefix rather than {@link InstantiationManager#createUniqueName} which scans
+   * the whole project and would make generation quadratic.
+   */
+  @SuppressWarnings("unchecked")
+  private IDIYComponent<?> create(String className) throws Exception {
+    Class<? extends IDIYComponent<?>> clazz = (Class<? extends IDIYComponent<?>>) Class.forName(className);
+    ComponentType componentType = ComponentProcessor.getInstance().extractComponentTypeFrom(clazz);
+    IDIYComponent<?> component = clazz.newInstance();
+    instantiationManager.fillWithDefaultProperties(component, null);
+    Integer counter = nameCounters.get(componentType.getNamePrefix());
+    counter = counter == null ? 1 : counter + 1;
+    nameCounters.put(componentType.getNamePrefix(), counter);
+    component.setName(componentType.getNamePrefix() + counter);
+    return component;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.core.images;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+public class ImageStoreTest {
+
+  @Test
+  public void testSameKeyInstance() {
+    byte[] data = "testSameKeyInstance".getBytes();
+    String key = ImageStore.getInstance().put(data);
+    assertSame(key, ImageStore.getInstance().put(data.clone()));
+    assertSame(key, ImageStore.getInstance().canonicalKey(new String(key)));
+    assertArrayEquals(data, ImageStore.getInstance().getData(new String(key)));
+  }
+
+  @Test
+  public void testReleasedWhenUnreferenced() throws InterruptedException {
+    String key = ImageStore.getInstance().put("testReleasedWhenUnreferenced".getBytes());
+    String copy = new String(key);
+    WeakReference<String> ref = new WeakReference<String>(key);
+    key = null;
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(ref.get());
+    assertNull(ImageStore.getInstance().getData(copy));
+    assertEquals(copy, ImageStore.getInstance().canonicalKey(copy));
+  }
+}
@@ -0,0 +1,67 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.core.measures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+public class SizeTest {
+
+  @Test
+  public void testConvertToPixels() {
+    assertEquals(200d, new Size(1d, SizeUnit.in).convertToPixels(), 1e-9);
+    assertEquals(200d / 25.4, new Size(1d, SizeUnit.mm).convertToPixels(), 1e-9);
+    assertEquals(0d, new Size(0d, SizeUnit.cm).convertToPixels(), 1e-9);
+  }
+
+  @Test
+  public void testDeserialized() {
+    // XStream does not call the constructor, cached pixel value must be calculated anyway.
+    XStream xStream = new XStream(new DomDriver());
+    Size size = (Size) xStream.fromXML(xStream.toXML(new Size(2.5d, SizeUnit.mm)));
+    assertEquals(new Size(2.5d, SizeUnit.mm), size);
+    assertEquals(new Size(2.5d, SizeUnit.mm).convertToPixels(), size.convertToPixels(), 1e-9);
+  }
+
+  @Test
+  public void testValueOf() {
+    Size size = Size.valueOf(0.1d, SizeUnit.in);
+    assertSame(size, Size.valueOf(0.1d, SizeUnit.in));
+    assertNotSame(size, Size.valueOf(0.1d, SizeUnit.mm));
+    assertEquals(new Size(0.1d, SizeUnit.in), size);
+    assertSame(Size.parseSize("0.1in"), size);
+  }
+
+  @Test
+  public void testCompareTo() {
+    assertTrue(new Size(1d, SizeUnit.in).compareTo(new Size(25d, SizeUnit.mm)) > 0);
+    assertTrue(new Size(1d, SizeUnit.cm).compareTo(new Size(10d, SizeUnit.mm)) == 0);
+    assertTrue(new Size(1d, SizeUnit.px).compareTo(new Size(1d, SizeUnit.mm)) < 0);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.plugins.cloud.presenter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.diylc.plugins.cloud.model.ProjectEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HttpFlatProxyTest {
+
+  private StubCloudServer server;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new StubCloudServer(0, 25);
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+  }
+
+  private Map<String, Object> params(Object... nameValuePairs) {
+    Map<String, Object> params = new HashMap<String, Object>();
+    for (int i = 0; i < nameValuePairs.length; i += 2) {
+      params.put((String) nameValuePairs[i], nameValuePairs[i + 1]);
+    }
+    return params;
+  }
+
+  @Test
+  public void testSearch() {
+    HttpFlatProxy proxy = new HttpFlatProxy(1000, 1000, 3, 10, false);
+    Object categories = proxy.invokeAndDeserialize(server.getUrl(), "getCategories", params());
+    assertEquals(StubCloudServer.CATEGORIES.length, ((List<?>) categories).size());
+    Object res =
+        proxy.invokeAndDeserialize(server.getUrl(), "search",
+            params("criteria", "", "page", 3, "itemsPerPage", 10, "sort", StubCloudServer.SORTINGS[0]));
+    assertTrue(res instanceof List<?>);
+    @SuppressWarnings("unchecked")
+    List<ProjectEntity> projects = (List<ProjectEntity>) res;
+    assertEquals(5, projects.size());
+    assertEquals(21, projects.get(0).getId());
+  }
+
+  @Test
+  public void testRetry() {
+    HttpFlatProxy proxy = new HttpFlatProxy(1000, 1000, 3, 10, false);
+    server.failNext(2);
+    Object sortings = proxy.invokeAndDeserialize(server.getUrl(), "getSortings", params());
+    assertEquals(StubCloudServer.SORTINGS.length, ((List<?>) sortings).size());
+    assertEquals(3, server.getRequestCount());
+
+    // Login is not idempotent, so it must not be retried.
+    server.failNext(1);
+    assertNull(proxy.invokeAndDeserialize(server.getUrl(), "login",
+        params("username", "test", "password", "test", "machineId", "machine")));
+    assertEquals(4, server.getRequestCount());
+  }
+
+  @Test
+  public void testCompressedUpload() throws Exception {
+    HttpFlatProxy proxy = new HttpFlatProxy(1000, 1000, 3, 10, true);
+    Object token =
+        proxy.invokeAndDeserialize(server.getUrl(), "login",
+            params("username", "test", "password", "test", "machineId", "machine"));
+    File file = File.createTempFile("stub", ".diy");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write("<project/>".getBytes("UTF-8"));
+    out.close();
+    assertEquals("Success", proxy.invokeAndDeserialize(server.getUrl(), "uploadProject",
+        params("username", "test", "token", token, "machineId", "machine", "projectName", "Uploaded", "category",
+            "Effects", "description", "Description", "diylcVersion", "4.0.0", "keywords", "uploaded", "project",
+            file)));
+    Object res =
+        proxy.invokeAndDeserialize(server.getUrl(), "search",
+            params("criteria", "uploaded", "page", 1, "itemsPerPage", 10, "username", "test"));
+    @SuppressWarnings("unchecked")
+    List<ProjectEntity> projects = (List<ProjectEntity>) res;
+    assertEquals(1, projects.size());
+    assertEquals("Uploaded", projects.get(0).getName());
+  }
+
+  @Test
+  public void testDisconnectAbortsUpload() throws Exception {
+    HttpFlatProxy proxy = new HttpFlatProxy(1000, 10000, 3, 10, false);
+    server.setLatency(5000);
+    File file = File.createTempFile("stub", ".diy");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write("<project/>".getBytes("UTF-8"));
+    out.close();
+    long start = System.currentTimeMillis();
+    try {
+      // Nothing is reported while waiting for the response, only disconnecting can stop it.
+      proxy.invokeStreaming(server.getUrl(), "uploadProject", params("project", file),
+          new HttpFlatProxy.IUploadListener() {
+
+            @Override
+            public void connectionOpened(final HttpURLConnection connection) {
+              Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                  try {
+                    Thread.sleep(200);
+                  } catch (InterruptedException e) {
+                    return;
+                  }
+                  connection.disconnect();
+                }
+              });
+              thread.setDaemon(true);
+              thread.start();
+            }
+
+            @Override
+            public void uploadProgress(long bytesSent, long totalBytes) {}
+
+            @Override
+            public boolean isCancelled() {
+              return false;
+            }
+          });
+      fail("Upload should have been aborted");
+    } catch (IOException e) {
+      assertTrue(System.currentTimeMillis() - start < 4000);
+    }
+  }
+}
@@ -0,0 +1,596 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.plugins.cloud.presenter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.diylc.plugins.cloud.model.CommentEntity;
+import org.diylc.plugins.cloud.model.ProjectEntity;
+import org.diylc.plugins.cloud.model.UserEntity;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.json.JettisonMappedXmlDriver;
+
+/**
+ * In-memory stand-in for the DIYLC cloud server (<code>diylc-server-api/v1</code>) that can be
+ * used to test and benchmark the cloud client without network access. It implements all the
+ * endpoints of {@link org.diylc.plugins.cloud.model.IServiceAPI}, accepts multipart requests
+ * (optionally gzip compressed) and responds with the same XStream JSON the real server produces,
+ * compressed when the client asks for it. Thumbnails and project files are served from
+ * <code>/thumbnails/&lt;id&gt;.png</code> and <code>/projects/&lt;id&gt;.diy</code>.
+ * <p>
+ * Latency and server failures can be simulated with {@link #setLatency(long)} and
+ * {@link #failNext(int)}.
+ * <p>
+ * Run standalone with <code>StubCloudServer [port] [project count]</code> and point the
+ * <code>serviceUrl</code> configuration entry to the printed URL.
+ */
+public class StubCloudServer {
+
+  public static final String[] CATEGORIES = new String[] {"Amplifiers", "Amplifiers > Guitar",
+      "Amplifiers > Hi-Fi", "Effects", "Effects > Distortion", "Effects > Modulation", "Guitars", "Power Supplies",
+      "Other"};
+  public static final String[] SORTINGS = new String[] {"Newest", "Most Viewed", "Most Downloaded", "Name"};
+
+  private static final String BASE_PATH = "/diylc/api/v1/";
+  private static final String SUCCESS = "Success";
+  private static final String ERROR = "Error";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final XStream xStream;
+
+  private final Map<String, User> users = new HashMap<String, User>();
+  private final List<ProjectEntity> projects = new ArrayList<ProjectEntity>();
+  private final Map<Integer, byte[]> projectFiles = new HashMap<Integer, byte[]>();
+  private final Map<Integer, byte[]> thumbnails = new HashMap<Integer, byte[]>();
+  private final List<CommentEntity> comments = new ArrayList<CommentEntity>();
+  private final byte[] defaultThumbnail;
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+  private final AtomicInteger failures = new AtomicInteger();
+  private volatile long latency = 0;
+  private int nextId = 1;
+
+  /**
+   * Creates a server on the specified port, <code>0</code> picks a free one. The server is seeded
+   * with the given number of synthetic projects and a user <code>test</code> with password
+   * <code>test</code>.
+   * 
+   * @param port
+   * @param projectCount
+   * @throws IOException
+   */
+  public StubCloudServer(int port, int projectCount) throws IOException {
+    xStream = new XStream(new JettisonMappedXmlDriver());
+    xStream.setMode(XStream.NO_REFERENCES);
+    defaultThumbnail = createThumbnail();
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+    server.createContext("/", new HttpHandler() {
+
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          StubCloudServer.this.handle(exchange);
+        } finally {
+          exchange.close();
+        }
+      }
+    });
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    seed(projectCount);
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+    int projectCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    StubCloudServer server = new StubCloudServer(port, projectCount);
+    server.start();
+    System.out.println("Serving " + projectCount + " projects at " + server.getUrl());
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * @return base URL of the service API, to be used as <code>serviceUrl</code>
+   */
+  public String getUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + BASE_PATH;
+  }
+
+  /**
+   * @param latency delay in milliseconds added to each response
+   */
+  public void setLatency(long latency) {
+    this.latency = latency;
+  }
+
+  /**
+   * Makes the next <code>count</code> requests fail with <code>503 Service Unavailable</code>.
+   * 
+   * @param count
+   */
+  public void failNext(int count) {
+    failures.set(count);
+  }
+
+  /**
+   * @return total number of requests received so far
+   */
+  public int getRequestCount() {
+    return requestCount.get();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requestCount.incrementAndGet();
+    if (latency > 0) {
+      try {
+        Thread.sleep(latency);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    byte[] body = readBody(exchange);
+    if (shouldFail()) {
+      send(exchange, 503, "text/plain", "Service Unavailable".getBytes("UTF-8"));
+      return;
+    }
+
+    String path = exchange.getRequestURI().getPath();
+    if (path.startsWith("/thumbnails/")) {
+      byte[] data;
+      synchronized (this) {
+        data = thumbnails.get(parseId(path));
+      }
+      send(exchange, 200, "image/png", data == null ? defaultThumbnail : data);
+      return;
+    }
+    if (path.startsWith("/projects/")) {
+      byte[] data;
+      synchronized (this) {
+        data = projectFiles.get(parseId(path));
+      }
+      if (data == null) {
+        send(exchange, 404, "text/plain", "Not Found".getBytes("UTF-8"));
+      } else {
+        send(exchange, 200, "application/octet-stream", data);
+      }
+      return;
+    }
+    if (!path.startsWith(BASE_PATH) || !path.endsWith(".php")) {
+      send(exchange, 404, "text/plain", "Not Found".getBytes("UTF-8"));
+      return;
+    }
+
+    String method = path.substring(BASE_PATH.length(), path.length() - ".php".length());
+    Map<String, byte[]> params = parseMultipart(exchange.getRequestHeaders().getFirst("Content-Type"), body);
+    Object result;
+    synchronized (this) {
+      result = dispatch(method, params);
+    }
+    if (result == null) {
+      send(exchange, 404, "text/plain", ("Unknown method " + method).getBytes("UTF-8"));
+      return;
+    }
+    send(exchange, 200, "application/json", xStream.toXML(result).getBytes("UTF-8"));
+  }
+
+  private boolean shouldFail() {
+    while (true) {
+      int count = failures.get();
+      if (count <= 0) {
+        return false;
+      }
+      if (failures.compareAndSet(count, count - 1)) {
+        return true;
+      }
+    }
+  }
+
+  private Object dispatch(String method, Map<String, byte[]> params) {
+    if ("getCategories".equals(method)) {
+      return new ArrayList<String>(Arrays.asList(CATEGORIES));
+    }
+    if ("getSortings".equals(method)) {
+      return new ArrayList<String>(Arrays.asList(SORTINGS));
+    }
+    if ("createUser".equals(method)) {
+      String username = getString(params, "username");
+      if (username == null || users.containsKey(username)) {
+        return "Username already exists";
+      }
+      users.put(username, new User(getString(params, "password"), new UserEntity(username,
+          getString(params, "email"), getString(params, "website"), getString(params, "bio"))));
+      return SUCCESS;
+    }
+    if ("login".equals(method)) {
+      User user = users.get(getString(params, "username"));
+      if (user == null || !user.password.equals(getString(params, "password"))) {
+        return ERROR;
+      }
+      user.token = Long.toHexString(Double.doubleToLongBits(Math.random()));
+      return user.token;
+    }
+    if ("updatePassword".equals(method)) {
+      User user = users.get(getString(params, "username"));
+      if (user == null || !user.password.equals(getString(params, "oldPassword"))) {
+        return "Old password is not correct";
+      }
+      user.password = getString(params, "newPassword");
+      return SUCCESS;
+    }
+    if ("search".equals(method)) {
+      return search(params);
+    }
+    if ("getComments".equals(method)) {
+      int projectId = getInt(params, "projectId", 0);
+      List<CommentEntity> res = new ArrayList<CommentEntity>();
+      for (CommentEntity comment : comments) {
+        if (comment.getParentId() == projectId) {
+          res.add(comment);
+        }
+      }
+      return res;
+    }
+
+    // Everything else requires a valid token.
+    User user = authenticate(params);
+    if ("loginWithToken".equals(method)) {
+      return user == null ? ERROR : SUCCESS;
+    }
+    if (user == null) {
+      if ("getUserDetails".equals(method) || "updateUserDetails".equals(method) || "uploadProject".equals(method)
+          || "deleteProject".equals(method) || "postComment".equals(method)) {
+        return "Not logged in";
+      }
+      return null;
+    }
+    if ("getUserDetails".equals(method)) {
+      return user.details;
+    }
+    if ("updateUserDetails".equals(method)) {
+      user.details.setEmail(getString(params, "email"));
+      user.details.setWebsite(getString(params, "website"));
+      user.details.setBio(getString(params, "bio"));
+      return SUCCESS;
+    }
+    if ("uploadProject".equals(method)) {
+      return upload(user, params);
+    }
+    if ("deleteProject".equals(method)) {
+      ProjectEntity project = findProject(getInt(params, "projectId", 0));
+      if (project == null || !project.getOwner().equals(user.details.getUsername())) {
+        return "Project does not exist";
+      }
+      projects.remove(project);
+      projectFiles.remove(project.getId());
+      thumbnails.remove(project.getId());
+      return SUCCESS;
+    }
+    if ("postComment".equals(method)) {
+      ProjectEntity project = findProject(getInt(params, "projectId", 0));
+      if (project == null) {
+        return "Project does not exist";
+      }
+      CommentEntity comment = new CommentEntity();
+      comment.setId(nextId++);
+      comment.setParentId(project.getId());
+      comment.setUsername(user.details.getUsername());
+      comment.setComment(getString(params, "comment"));
+      comment.setPostedAt(now());
+      comments.add(comment);
+      project.setCommentCount(project.getCommentCount() + 1);
+      return SUCCESS;
+    }
+    return null;
+  }
+
+  private List<ProjectEntity> search(Map<String, byte[]> params) {
+    String criteria = getString(params, "criteria");
+    criteria = criteria == null ? "" : criteria.toLowerCase();
+    String category = getString(params, "category");
+    String username = getString(params, "username");
+    int projectId = getInt(params, "projectId", 0);
+    List<ProjectEntity> matches = new ArrayList<ProjectEntity>();
+    for (ProjectEntity project : projects) {
+      if (projectId > 0 && project.getId() != projectId) {
+        continue;
+      }
+      if (username != null && !username.equals(project.getOwner())) {
+        continue;
+      }
+      if (category != null && category.length() > 0 && !project.getCategory().startsWith(category)) {
+        continue;
+      }
+      if (criteria.length() > 0 && !project.getName().toLowerCase().contains(criteria)
+          && !project.getDescription().toLowerCase().contains(criteria)
+          && !project.getKeywords().toLowerCase().contains(criteria)) {
+        continue;
+      }
+      matches.add(project);
+    }
+    Collections.sort(matches, getComparator(getString(params, "sort")));
+
+    int page = Math.max(1, getInt(params, "page", 1));
+    int itemsPerPage = Math.max(1, getInt(params, "itemsPerPage", 10));
+    List<ProjectEntity> res = new ArrayList<ProjectEntity>();
+    long start = (long) (page - 1) * itemsPerPage;
+    for (long i = start; i < matches.size() && i < start + itemsPerPage; i++) {
+      res.add(matches.get((int) i));
+    }
+    return res;
+  }
+
+  private String upload(User user, Map<String, byte[]> params) {
+    ProjectEntity project;
+    int projectId = getInt(params, "projectId", 0);
+    if (projectId > 0) {
+      project = findProject(projectId);
+      if (project == null || !project.getOwner().equals(user.details.getUsername())) {
+        return "Project does not exist";
+      }
+    } else {
+      project = new ProjectEntity();
+      project.setId(nextId++);
+      project.setOwner(user.details.getUsername());
+      project.setThumbnailUrl(getRootUrl() + "thumbnails/" + project.getId() + ".png");
+      project.setDownloadUrl(getRootUrl() + "projects/" + project.getId() + ".diy");
+      projects.add(project);
+    }
+    project.setName(getString(params, "projectName"));
+    project.setCategory(getString(params, "category"));
+    project.setCategoryForDisplay(project.getCategory());
+    project.setDescription(getString(params, "description"));
+    project.setKeywords(getString(params, "keywords"));
+    project.setUpdated(now());
+    if (params.containsKey("project")) {
+      projectFiles.put(project.getId(), params.get("project"));
+    }
+    if (params.containsKey("thumbnail")) {
+      thumbnails.put(project.getId(), params.get("thumbnail"));
+    }
+    return SUCCESS;
+  }
+
+  private User authenticate(Map<String, byte[]> params) {
+    User user = users.get(getString(params, "username"));
+    String token = getString(params, "token");
+    return user == null || user.token == null || !user.token.equals(token) ? null : user;
+  }
+
+  private ProjectEntity findProject(int id) {
+    for (ProjectEntity project : projects) {
+      if (project.getId() == id) {
+        return project;
+      }
+    }
+    return null;
+  }
+
+  private void seed(int projectCount) {
+    users.put("test", new User("test", new UserEntity("test", "test@example.com", null, null)));
+    long time = System.currentTimeMillis();
+    for (int i = 0; i < projectCount; i++) {
+      ProjectEntity project = new ProjectEntity();
+      project.setId(nextId++);
+      project.setName("Project " + project.getId());
+      project.setDescription("Synthetic project number " + project.getId());
+      project.setKeywords("stub, project" + project.getId());
+      project.setOwner(i % 10 == 0 ? "test" : "user" + (i % 37));
+      project.setCategory(CATEGORIES[i % CATEGORIES.length]);
+      project.setCategoryForDisplay(project.getCategory());
+      project.setUpdated(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(time - i * 3600000L)));
+      project.setViewCount((i * 7919) % 1000);
+      project.setDownloadCount((i * 104729) % 500);
+      project.setThumbnailUrl(getRootUrl() + "thumbnails/" + project.getId() + ".png");
+      project.setDownloadUrl(getRootUrl() + "projects/" + project.getId() + ".diy");
+      projects.add(project);
+    }
+  }
+
+  private String getRootUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+  }
+
+  private Comparator<ProjectEntity> getComparator(String sort) {
+    final int index = sort == null ? 0 : Math.max(0, Arrays.asList(SORTINGS).indexOf(sort));
+    return new Comparator<ProjectEntity>() {
+
+      @Override
+      public int compare(ProjectEntity o1, ProjectEntity o2) {
+        switch (index) {
+          case 1:
+            return o2.getViewCount() - o1.getViewCount();
+          case 2:
+            return o2.getDownloadCount() - o1.getDownloadCount();
+          case 3:
+            return o1.getName().compareToIgnoreCase(o2.getName());
+          default:
+            return o2.getUpdated().compareTo(o1.getUpdated());
+        }
+      }
+    };
+  }
+
+  private static String now() {
+    return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+  }
+
+  private static int parseId(String path) {
+    String name = path.substring(path.lastIndexOf('/') + 1);
+    int dot = name.indexOf('.');
+    try {
+      return Integer.parseInt(dot < 0 ? name : name.substring(0, dot));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static String getString(Map<String, byte[]> params, String name) {
+    byte[] value = params.get(name);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return new String(value, "UTF-8");
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static int getInt(Map<String, byte[]> params, String name, int defaultValue) {
+    String value = getString(params, name);
+    try {
+      return value == null ? defaultValue : Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static byte[] readBody(HttpExchange exchange) throws IOException {
+    InputStream in = exchange.getRequestBody();
+    if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+      in = new GZIPInputStream(in);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) > 0) {
+      out.write(buffer, 0, n);
+    }
+    in.close();
+    return out.toByteArray();
+  }
+
+  private static void send(HttpExchange exchange, int status, String contentType, byte[] data) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      GZIPOutputStream gzip = new GZIPOutputStream(buffer);
+      gzip.write(data);
+      gzip.close();
+      data = buffer.toByteArray();
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+    exchange.sendResponseHeaders(status, data.length);
+    OutputStream out = exchange.getResponseBody();
+    out.write(data);
+    out.close();
+  }
+
+  /**
+   * Parses a <code>multipart/form-data</code> body into a map of part names to their raw
+   * content.
+   */
+  private static Map<String, byte[]> parseMultipart(String contentType, byte[] body) throws IOException {
+    Map<String, byte[]> params = new HashMap<String, byte[]>();
+    if (contentType == null || !contentType.contains("boundary=")) {
+      return params;
+    }
+    String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+    // ISO-8859-1 maps bytes to chars one to one, so indices can be used on the byte array.
+    String text = new String(body, "ISO-8859-1");
+    String delimiter = "--" + boundary;
+    int pos = text.indexOf(delimiter);
+    while (pos >= 0) {
+      int headerStart = pos + delimiter.length();
+      if (text.startsWith("--", headerStart)) {
+        break;
+      }
+      int headerEnd = text.indexOf("\r\n\r\n", headerStart);
+      int next = text.indexOf("\r\n" + delimiter, headerEnd);
+      if (headerEnd < 0 || next < 0) {
+        break;
+      }
+      String headers = text.substring(headerStart, headerEnd);
+      int nameStart = headers.indexOf("name=\"");
+      if (nameStart >= 0) {
+        nameStart += "name=\"".length();
+        String name = headers.substring(nameStart, headers.indexOf('"', nameStart));
+        params.put(name, Arrays.copyOfRange(body, headerEnd + 4, next));
+      }
+      pos = next + 2;
+    }
+    return params;
+  }
+
+  private static byte[] createThumbnail() throws IOException {
+    BufferedImage image = new BufferedImage(192, 192, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2d = image.createGraphics();
+    g2d.setColor(Color.white);
+    g2d.fillRect(0, 0, 192, 192);
+    g2d.setColor(Color.gray);
+    g2d.drawRect(16, 16, 160, 160);
+    g2d.dispose();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    return out.toByteArray();
+  }
+
+  private static class User {
+
+    private String password;
+    private String token;
+    private final UserEntity details;
+
+    public User(String password, UserEntity details) {
+      this.password = password;
+      this.details = details;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.diylc.core.IDIYComponent;
+import org.diylc.testcomponents.MockLeadedComponent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BulkTransformerTest {
+
+  private static final Rectangle BOUNDS = new Rectangle(0, 0, 1000, 1000);
+
+  private BulkTransformer transformer;
+  private MockLeadedComponent component;
+
+  @Before
+  public void setUp() {
+    transformer = new BulkTransformer();
+    component = new MockLeadedComponent();
+    component.setControlPoint(new Point(100, 100), 0);
+    component.setControlPoint(new Point(200, 100), 1);
+  }
+
+  @Test
+  public void testTranslate() {
+    Map<IDIYComponent<?>, Set<Integer>> controlPointMap = map(component, 0, 1);
+    AffineTransform translate = AffineTransform.getTranslateInstance(20, -40);
+    assertTrue(transformer.canTransform(controlPointMap, translate, BOUNDS));
+    transformer.transform(controlPointMap, translate);
+    assertEquals(new Point(120, 60), component.getControlPoint(0));
+    assertEquals(new Point(220, 60), component.getControlPoint(1));
+  }
+
+  @Test
+  public void testOutOfBounds() {
+    assertFalse(transformer.canTransform(map(component, 1), AffineTransform.getTranslateInstance(801, 0), BOUNDS));
+    assertTrue(transformer.canTransform(map(component, 1), AffineTransform.getTranslateInstance(800, 0), BOUNDS));
+    // Points that are not transformed are not checked.
+    assertTrue(transformer.canTransform(map(component, 1), AffineTransform.getTranslateInstance(0, 0), new Rectangle(
+        150, 0, 100, 1000)));
+  }
+
+  @Test
+  public void testCollision() {
+    AffineTransform translate = AffineTransform.getTranslateInstance(-100, 0);
+    assertFalse(transformer.canTransform(map(component, 1), translate, BOUNDS));
+    assertTrue(transformer.canTransform(map(component, 0, 1), translate, BOUNDS));
+    // Validation must not touch the component.
+    assertEquals(new Point(200, 100), component.getControlPoint(1));
+  }
+
+  private static Map<IDIYComponent<?>, Set<Integer>> map(IDIYComponent<?> component, Integer... indices) {
+    Map<IDIYComponent<?>, Set<Integer>> controlPointMap = new HashMap<IDIYComponent<?>, Set<Integer>>();
+    controlPointMap.put(component, new HashSet<Integer>(Arrays.asList(indices)));
+    return controlPointMap;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.diylc.appframework.simplemq.IMessageListener;
+import org.diylc.common.EventType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoalescingMessageDispatcherTest {
+
+  private CoalescingMessageDispatcher dispatcher;
+  private List<String> received;
+
+  @Before
+  public void setUp() {
+    // Long enough that the timer never fires during the test, events are flushed explicitly.
+    dispatcher = new CoalescingMessageDispatcher(60000);
+    received = new ArrayList<String>();
+    dispatcher.registerListener(new IMessageListener<EventType>() {
+
+      @Override
+      public EnumSet<EventType> getSubscribedEventTypes() {
+        return EnumSet.allOf(EventType.class);
+      }
+
+      @Override
+      public void processMessage(EventType eventType, Object... params) {
+        received.add(eventType + (params.length > 0 ? ":" + params[0] : ""));
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    dispatcher.dispose();
+  }
+
+  @Test
+  public void testLatestEventIsDelivered() {
+    dispatcher.dispatchMessage(EventType.MOUSE_MOVED, "a");
+    dispatcher.dispatchMessage(EventType.REPAINT);
+    dispatcher.dispatchMessage(EventType.MOUSE_MOVED, "b");
+    dispatcher.dispatchMessage(EventType.REPAINT);
+    dispatcher.dispatchMessage(EventType.STATUS_MESSAGE_CHANGED, "c");
+    assertTrue(received.isEmpty());
+
+    dispatcher.flush();
+    assertEquals(list("MOUSE_MOVED:b", "REPAINT", "STATUS_MESSAGE_CHANGED:c"), received);
+
+    dispatcher.flush();
+    assertEquals(3, received.size());
+  }
+
+  @Test
+  public void testOtherEventsKeepOrder() {
+    dispatcher.dispatchMessage(EventType.REPAINT);
+    dispatcher.dispatchMessage(EventType.PROJECT_MODIFIED, "p");
+    dispatcher.dispatchMessage(EventType.REPAINT);
+    assertEquals(list("REPAINT", "PROJECT_MODIFIED:p"), received);
+
+    dispatcher.flush();
+    assertEquals(list("REPAINT", "PROJECT_MODIFIED:p", "REPAINT"), received);
+  }
+
+  private static List<String> list(String... items) {
+    List<String> list = new ArrayList<String>();
+    for (String item : items) {
+      list.add(item);
+    }
+    return list;
+  }
+}
@@ -0,0 +1,491 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.dnd.DnDConstants;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.bench.ProjectGenerator;
+import org.diylc.common.DrawOption;
+import org.diylc.common.EventType;
+import org.diylc.common.IPlugIn;
+import org.diylc.common.IPlugInPort;
+import org.diylc.common.PropertyWrapper;
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.Project;
+import org.diylc.core.measures.Size;
+import org.diylc.core.measures.SizeUnit;
+import org.diylc.render.HeadlessView;
+
+/**
+ * Measures how responsive editing is by replaying a scripted interaction trace against a headless
+ * {@link Presenter} loaded with a synthetic project (see {@link ProjectGenerator}). The trace
+ * covers mouse sweeps, dragging, rotating and nudging a large selection, select all, duplicate,
+ * paste and property edits, and leaves the project as it found it so rounds are comparable.
+ * <p>
+ * A probe plug-in stands in for the canvas: it subscribes to all events and renders the visible
+ * part of the layout (scrolled to the first board) on every {@link EventType#REPAINT}, like the
+ * canvas does. The dispatcher is synchronous, so operation latency includes the repaints it
+ * triggers. Reports p50/p99 latency per operation and per dispatched event type.
+ * <p>
+ * Needs diylc-library on the classpath.
+ * 
+ * <pre>
+ * InteractionBenchmark [-n &lt;components&gt;] [-w &lt;rounds&gt;] [-r &lt;rounds&gt;] [-s &lt;seed&gt;]
+ *
+ *   -n  number of components in the project, defaults to 10000
+ *   -w  warmup rounds, defaults to 2
+ *   -r  measured rounds, defaults to 5
+ *   -s  project generator seed, defaults to 42
+ * </pre>
+ */
+public class InteractionBenchmark {
+
+  private static final int VIEWPORT_WIDTH = 1280;
+  private static final int VIEWPORT_HEIGHT = 800;
+  private static final int MOUSE_STEP = 40;
+  private static final int DRAG_STEPS = 20;
+  private static final Size NUDGE = new Size(0.1d, SizeUnit.in);
+
+  private final Presenter presenter;
+  private final EventProbe probe;
+  private final Map<String, Samples> operations = new LinkedHashMap<String, Samples>();
+  private final List<IDIYComponent<?>> firstTile;
+  private final List<IDIYComponent<?>> resistors;
+  private final int componentCount;
+  private final double extraSpace;
+  private final Point viewportOrigin;
+  private boolean recording;
+
+  public InteractionBenchmark(Project project) {
+    EditingView view = new EditingView();
+    presenter = new Presenter(view);
+    if (ConfigurationManager.getInstance().readBoolean(IPlugInPort.EXTRA_SPACE_KEY, true)) {
+      extraSpace = new DrawingManager(new MessageDispatcher<EventType>(true)).getExtraSpace(project);
+    } else {
+      extraSpace = 0;
+    }
+    componentCount = project.getComponents().size();
+
+    // Components up to the second board belong to the first tile.
+    firstTile = new ArrayList<IDIYComponent<?>>();
+    resistors = new ArrayList<IDIYComponent<?>>();
+    for (IDIYComponent<?> component : project.getComponents()) {
+      if (component.getClass().getSimpleName().equals("Resistor")) {
+        resistors.add(component);
+      }
+    }
+    firstTile.add(project.getComponents().get(0));
+    for (int i = 1; i < project.getComponents().size(); i++) {
+      IDIYComponent<?> component = project.getComponents().get(i);
+      if (component.getClass().getSimpleName().endsWith("Board")) {
+        break;
+      }
+      firstTile.add(component);
+    }
+
+    // Scroll the viewport to the first tile, that's where all the editing happens.
+    Point corner = toScreen(firstTile.get(0).getControlPoint(0));
+    viewportOrigin = new Point(Math.max(0, corner.x - MOUSE_STEP), Math.max(0, corner.y - MOUSE_STEP));
+    probe = new EventProbe(presenter, viewportOrigin);
+    presenter.installPlugin(probe);
+    presenter.loadProject(project, true);
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (System.getProperty("java.awt.headless") == null) {
+      System.setProperty("java.awt.headless", "true");
+    }
+    ConfigurationManager.initialize("diylc");
+
+    int size = 10000;
+    int warmupRounds = 2;
+    int rounds = 5;
+    long seed = 42;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if ("-n".equals(args[i]) && i < args.length - 1) {
+          size = Integer.parseInt(args[++i]);
+        } else if ("-w".equals(args[i]) && i < args.length - 1) {
+          warmupRounds = Integer.parseInt(args[++i]);
+        } else if ("-r".equals(args[i]) && i < args.length - 1) {
+          rounds = Integer.parseInt(args[++i]);
+        } else if ("-s".equals(args[i]) && i < args.length - 1) {
+          seed = Long.parseLong(args[++i]);
+        } else {
+          printUsage();
+          System.exit(2);
+        }
+      }
+    } catch (NumberFormatException e) {
+      printUsage();
+      System.exit(2);
+    }
+
+    System.out.println(String.format("Generating project with %d components", size));
+    InteractionBenchmark benchmark = new InteractionBenchmark(new ProjectGenerator(seed).generate(size));
+    for (int i = 0; i < warmupRounds; i++) {
+      benchmark.runRound();
+    }
+    benchmark.setRecording(true);
+    for (int i = 0; i < rounds; i++) {
+      benchmark.runRound();
+    }
+    benchmark.printReport();
+  }
+
+  private static void printUsage() {
+    System.err.println("Usage: InteractionBenchmark [-n <components>] [-w <rounds>] [-r <rounds>] [-s <seed>]");
+  }
+
+  public void setRecording(boolean recording) {
+    this.recording = recording;
+    probe.setRecording(recording);
+  }
+
+  /**
+   * Replays the whole interaction trace once.
+   */
+  public void runRound() {
+    // Hover over the visible area.
+    for (int y = 0; y < VIEWPORT_HEIGHT; y += MOUSE_STEP) {
+      for (int x = 0; x < VIEWPORT_WIDTH; x += MOUSE_STEP) {
+        final Point point = new Point(viewportOrigin.x + x, viewportOrigin.y + y);
+        measure("mouseMoved", new Runnable() {
+
+          @Override
+          public void run() {
+            presenter.mouseMoved(point, false, false, false);
+          }
+        });
+      }
+    }
+
+    measure("selectAll", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.selectAll(0);
+      }
+    });
+    // Drag everything right and back.
+    drag(DRAG_STEPS);
+    drag(-DRAG_STEPS);
+    measure("rotateSelection", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.rotateSelection(1);
+      }
+    });
+    measure("rotateSelection", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.rotateSelection(-1);
+      }
+    });
+    measure("nudgeSelection", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.nudgeSelection(NUDGE, new Size(0d, SizeUnit.in), true);
+      }
+    });
+    measure("nudgeSelection", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.nudgeSelection(new Size(-NUDGE.getValue(), NUDGE.getUnit()), new Size(0d, SizeUnit.in), true);
+      }
+    });
+
+    presenter.updateSelection(firstTile);
+    measure("duplicateSelection", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.duplicateSelection();
+      }
+    });
+    presenter.deleteSelectedComponents();
+
+    final List<IDIYComponent<?>> clipboard = new ArrayList<IDIYComponent<?>>();
+    for (IDIYComponent<?> component : firstTile) {
+      try {
+        clipboard.add(component.clone());
+      } catch (CloneNotSupportedException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    final Point pastePoint = toScreen(firstTile.get(0).getControlPoint(0));
+    presenter.mouseMoved(pastePoint, false, false, false);
+    measure("pasteComponents", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.pasteComponents(clipboard, false);
+      }
+    });
+    measure("placePasted", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.mouseClicked(pastePoint, IPlugInPort.BUTTON1, false, false, false, 1);
+      }
+    });
+    presenter.updateSelection(clipboard);
+    presenter.deleteSelectedComponents();
+
+    presenter.updateSelection(resistors);
+    measure("editSelection", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.editSelection();
+      }
+    });
+    presenter.updateSelection(Presenter.EMPTY_SELECTION);
+
+    if (presenter.getCurrentProject().getComponents().size() != componentCount) {
+      throw new IllegalStateException("Interaction trace did not leave the project intact");
+    }
+  }
+
+  /**
+   * Drags the current selection by the first tile's board, one grid step at a time.
+   */
+  private void drag(int steps) {
+    // Grab the board between holes, so we hit its body rather than a control point.
+    Point boardCorner = new Point(firstTile.get(0).getControlPoint(0));
+    int grid = (int) presenter.getCurrentProject().getGridSpacing().convertToPixels();
+    final Point start = toScreen(new Point(boardCorner.x + 10 * grid + grid / 2, boardCorner.y + 7 * grid + grid / 2));
+    presenter.mouseMoved(start, false, false, false);
+    measure("dragStarted", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.dragStarted(start, DnDConstants.ACTION_MOVE, false);
+      }
+    });
+    int step = (int) Math.signum(steps) * (int) Math.round(grid * presenter.getZoomLevel());
+    for (int i = 1; i <= Math.abs(steps); i++) {
+      final Point point = new Point(start.x + i * step, start.y);
+      measure("dragOver", new Runnable() {
+
+        @Override
+        public void run() {
+          presenter.dragOver(point);
+        }
+      });
+    }
+    final Point end = new Point(start.x + Math.abs(steps) * step, start.y);
+    measure("dragEnded", new Runnable() {
+
+      @Override
+      public void run() {
+        presenter.dragEnded(end);
+      }
+    });
+    if (firstTile.get(0).getControlPoint(0).x != boardCorner.x + steps * grid) {
+      throw new IllegalStateException("Dragging did not move the selection");
+    }
+  }
+
+  private Point toScreen(Point point) {
+    double zoom = presenter.getZoomLevel();
+    return new Point((int) Math.round((point.x + extraSpace) * zoom), (int) Math.round((point.y + extraSpace) * zoom));
+  }
+
+  private void measure(String name, Runnable operation) {
+    probe.startOperation();
+    long start = System.nanoTime();
+    operation.run();
+    long elapsed = System.nanoTime() - start;
+    if (recording) {
+      Samples samples = operations.get(name);
+      if (samples == null) {
+        samples = new Samples();
+        operations.put(name, samples);
+      }
+      samples.add(elapsed);
+      samples.events += probe.getOperationEventCount();
+    }
+  }
+
+  public void printReport() {
+    System.out.println(String.format("%-30s %8s %10s %10s %10s %10s", "Operation", "samples", "p50 ms", "p99 ms",
+        "max ms", "events/op"));
+    for (Map.Entry<String, Samples> entry : operations.entrySet()) {
+      Samples samples = entry.getValue();
+      System.out.println(String.format("%-30s %s %10.2f", entry.getKey(), samples, 1d * samples.events
+          / samples.size));
+    }
+    System.out.println();
+    System.out.println(String.format("%-30s %8s %10s %10s %10s", "Event", "samples", "p50 ms", "p99 ms", "max ms"));
+    for (Map.Entry<EventType, Samples> entry : probe.getEvents().entrySet()) {
+      System.out.println(String.format("%-30s %s", entry.getKey(), entry.getValue()));
+    }
+  }
+
+  /**
+   * Stands in for the canvas: renders the visible area on every repaint and times the handling of
+   * each event.
+   */
+  private static class EventProbe implements IPlugIn {
+
+    private final Presenter presenter;
+    private final Point origin;
+    private final BufferedImage viewport =
+        new BufferedImage(VIEWPORT_WIDTH, VIEWPORT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    private final Map<EventType, Samples> events = new LinkedHashMap<EventType, Samples>();
+    private boolean recording;
+    private int operationEventCount;
+
+    public EventProbe(Presenter presenter, Point origin) {
+      this.presenter = presenter;
+      this.origin = origin;
+    }
+
+    @Override
+    public void connect(IPlugInPort plugInPort) {}
+
+    @Override
+    public EnumSet<EventType> getSubscribedEventTypes() {
+      return EnumSet.allOf(EventType.class);
+    }
+
+    @Override
+    public void processMessage(EventType eventType, Object... params) {
+      long start = System.nanoTime();
+      if (eventType == EventType.REPAINT) {
+        Graphics2D g2d = viewport.createGraphics();
+        g2d.translate(-origin.x, -origin.y);
+        g2d.setClip(origin.x, origin.y, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+        presenter.draw(g2d, getDrawOptions(), null, null);
+        g2d.dispose();
+      }
+      long elapsed = System.nanoTime() - start;
+      operationEventCount++;
+      if (recording) {
+        Samples samples = events.get(eventType);
+        if (samples == null) {
+          samples = new Samples();
+          events.put(eventType, samples);
+        }
+        samples.add(elapsed);
+      }
+    }
+
+    // Same as the canvas.
+    private Set<DrawOption> getDrawOptions() {
+      Set<DrawOption> drawOptions = EnumSet.of(DrawOption.SELECTION, DrawOption.ZOOM, DrawOption.CONTROL_POINTS);
+      if (ConfigurationManager.getInstance().readBoolean(IPlugInPort.ANTI_ALIASING_KEY, true)) {
+        drawOptions.add(DrawOption.ANTIALIASING);
+      }
+      if (ConfigurationManager.getInstance().readBoolean(IPlugInPort.OUTLINE_KEY, false)) {
+        drawOptions.add(DrawOption.OUTLINE_MODE);
+      }
+      if (ConfigurationManager.getInstance().readBoolean(IPlugInPort.SHOW_GRID_KEY, true)) {
+        drawOptions.add(DrawOption.GRID);
+      }
+      if (ConfigurationManager.getInstance().readBoolean(IPlugInPort.EXTRA_SPACE_KEY, true)) {
+        drawOptions.add(DrawOption.EXTRA_SPACE);
+      }
+      return drawOptions;
+    }
+
+    public void setRecording(boolean recording) {
+      this.recording = recording;
+    }
+
+    public void startOperation() {
+      operationEventCount = 0;
+    }
+
+    public int getOperationEventCount() {
+      return operationEventCount;
+    }
+
+    public Map<EventType, Samples> getEvents() {
+      return events;
+    }
+  }
+
+  /**
+   * Answers property edit dialogs by flipping the first color property between two values.
+   */
+  private static class EditingView extends HeadlessView {
+
+    @Override
+    public boolean editProperties(List<PropertyWrapper> properties, Set<PropertyWrapper> defaultedProperties) {
+      for (PropertyWrapper property : properties) {
+        if (Color.class.equals(property.getType())) {
+          property.setValue(Color.red.equals(property.getValue()) ? Color.blue : Color.red);
+          property.setChanged(true);
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class Samples {
+
+    private long[] values = new long[64];
+    private int size;
+    private long events;
+
+    public void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    private double percentile(long[] sorted, double percentile) {
+      int index = (int) Math.ceil(percentile / 100 * size) - 1;
+      return sorted[Math.max(0, Math.min(size - 1, index))] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      return String.format("%8d %10.2f %10.2f %10.2f", size, percentile(sorted, 50), percentile(sorted, 99),
+          sorted[size - 1] / 1e6);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.common.EventType;
+import org.diylc.common.IPlugIn;
+import org.diylc.common.IPlugInPort;
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.Project;
+import org.diylc.core.measures.Size;
+import org.diylc.core.measures.SizeUnit;
+import org.diylc.render.HeadlessView;
+import org.diylc.testcomponents.MockLeadedComponent;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PresenterBulkEditTest {
+
+  private static final Size NUDGE = new Size(0.1d, SizeUnit.in);
+  private static final Size ZERO = new Size(0d, SizeUnit.in);
+
+  private static String userHome;
+  private static File configDir;
+
+  private Presenter presenter;
+  private List<IDIYComponent<?>> components;
+  private List<EventType> events;
+  private List<Object[]> params;
+
+  @BeforeClass
+  public static void setUpConfiguration() throws IOException {
+    // Keep the configuration in a temp directory, presenter writes to it.
+    userHome = System.getProperty("user.home");
+    File home = File.createTempFile("diylc-home", "");
+    home.delete();
+    configDir = new File(home, ".diylc-test");
+    configDir.mkdirs();
+    FileOutputStream out = new FileOutputStream(new File(configDir, "config.xml"));
+    try {
+      out.write("<map/>".getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+    System.setProperty("user.home", home.getAbsolutePath());
+    ConfigurationManager.initialize("diylc-test");
+  }
+
+  @AfterClass
+  public static void tearDownConfiguration() {
+    System.setProperty("user.home", userHome);
+    File[] files = configDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    configDir.delete();
+    configDir.getParentFile().delete();
+  }
+
+  @Before
+  public void setUp() {
+    presenter = new Presenter(new HeadlessView());
+    events = new ArrayList<EventType>();
+    params = new ArrayList<Object[]>();
+    presenter.installPlugin(new IPlugIn() {
+
+      @Override
+      public void connect(IPlugInPort plugInPort) {}
+
+      @Override
+      public EnumSet<EventType> getSubscribedEventTypes() {
+        return EnumSet.of(EventType.PROJECT_MODIFIED, EventType.SELECTION_CHANGED, EventType.REPAINT,
+            EventType.FILE_STATUS_CHANGED);
+      }
+
+      @Override
+      public void processMessage(EventType eventType, Object... eventParams) {
+        events.add(eventType);
+        params.add(eventParams);
+      }
+    });
+
+    Project project = new Project();
+    components = new ArrayList<IDIYComponent<?>>();
+    for (int i = 0; i < 2; i++) {
+      MockLeadedComponent component = new MockLeadedComponent();
+      component.setName("R" + (i + 1));
+      component.setControlPoint(new Point(200, 200 + i * 100), 0);
+      component.setControlPoint(new Point(400, 200 + i * 100), 1);
+      project.getComponents().add(component);
+      components.add(component);
+    }
+    presenter.loadProject(project, true);
+    events.clear();
+    params.clear();
+  }
+
+  @Test
+  public void testNestedBulkEdit() {
+    presenter.beginBulkEdit("Outer");
+    presenter.updateSelection(components);
+    presenter.nudgeSelection(NUDGE, ZERO, false);
+    presenter.beginBulkEdit("Inner");
+    presenter.nudgeSelection(ZERO, NUDGE, false);
+    presenter.applyPropertyToComponents(components.subList(0, 1), "Name", "R3");
+    presenter.endBulkEdit();
+    // Only the outermost bulk edit is reported.
+    assertTrue(events.isEmpty());
+    assertFalse(presenter.isProjectModified());
+    presenter.nudgeSelection(NUDGE, ZERO, false);
+    presenter.endBulkEdit();
+
+    assertEquals(1, count(EventType.PROJECT_MODIFIED));
+    assertEquals(1, count(EventType.SELECTION_CHANGED));
+    assertEquals(1, count(EventType.REPAINT));
+    assertEquals(1, count(EventType.FILE_STATUS_CHANGED));
+    Object[] modified = params.get(events.indexOf(EventType.PROJECT_MODIFIED));
+    assertEquals("Outer", modified[2]);
+    assertEquals(new Point(200, 200), ((Project) modified[0]).getComponents().get(0).getControlPoint(0));
+    assertEquals("R3", ((Project) modified[1]).getComponents().get(0).getName());
+    assertTrue(presenter.isProjectModified());
+  }
+
+  @Test
+  public void testUnchangedBulkEdit() {
+    presenter.beginBulkEdit("Nudge back and forth");
+    presenter.updateSelection(components);
+    presenter.nudgeSelection(NUDGE, ZERO, false);
+    presenter.nudgeSelection(new Size(-NUDGE.getValue(), NUDGE.getUnit()), ZERO, false);
+    presenter.applyPropertyToComponents(components.subList(0, 1), "Name", "R3");
+    presenter.applyPropertyToComponents(components.subList(0, 1), "Name", "R1");
+    presenter.updateSelection(components.subList(0, 1));
+    presenter.endBulkEdit();
+
+    assertEquals(0, count(EventType.PROJECT_MODIFIED));
+    assertEquals(0, count(EventType.FILE_STATUS_CHANGED));
+    assertEquals(1, count(EventType.SELECTION_CHANGED));
+    assertEquals(1, count(EventType.REPAINT));
+    assertFalse(presenter.isProjectModified());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnbalancedEnd() {
+    presenter.beginBulkEdit("Edit");
+    presenter.endBulkEdit();
+    presenter.endBulkEdit();
+  }
+
+  private int count(EventType eventType) {
+    int count = 0;
+    for (EventType event : events) {
+      if (event == eventType) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
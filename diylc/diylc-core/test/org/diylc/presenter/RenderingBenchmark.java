@@ -0,0 +1,246 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.presenter;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.appframework.miscutils.Utils;
+import org.diylc.bench.BenchmarkRunner;
+import org.diylc.bench.BenchmarkRunner.Result;
+import org.diylc.common.PropertyWrapper;
+import org.diylc.core.ComponentState;
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.Project;
+
+/**
+ * Measures how long it takes to draw each component type. Every concrete {@link IDIYComponent}
+ * found on the classpath under <code>org.diylc.components</code> is drawn through
+ * {@link G2DWrapper} into an offscreen image, the same way {@link DrawingManager} draws the
+ * canvas, in NORMAL, SELECTED and DRAGGING state, with and without outline mode and at several
+ * zoom levels. Each type is drawn with default properties and as a "heavy" variant with all
+ * boolean properties turned on and long text in all string properties.
+ * <p>
+ * Needs diylc-library on the classpath.
+ * 
+ * <pre>
+ * RenderingBenchmark [-w &lt;ms&gt;] [-m &lt;ms&gt;] [-i &lt;iterations&gt;] [-f &lt;regex&gt;] [-z &lt;zoom,...&gt;]
+ *                    [-csv &lt;file&gt;] [-b &lt;baseline csv&gt;] [-t &lt;percent&gt;]
+ *
+ *   -w    warmup time per benchmark, defaults to 50 ms
+ *   -m    measurement time per benchmark, defaults to 100 ms
+ *   -i    measurement iterations, defaults to 5
+ *   -f    only benchmark classes whose name matches the regex
+ *   -z    comma separated zoom levels, defaults to 0.5,1,2
+ *   -csv  write results to a CSV file
+ *   -b    compare against a CSV from a previous run, exits with 1 if anything got slower
+ *   -t    regression threshold in percent, defaults to 10
+ * </pre>
+ */
+public class RenderingBenchmark {
+
+  private static final int IMAGE_SIZE = 800;
+  private static final ComponentState[] STATES = new ComponentState[] {ComponentState.NORMAL,
+      ComponentState.SELECTED, ComponentState.DRAGGING};
+  private static final String HEAVY_TEXT =
+      "The quick brown fox jumps over the lazy dog, 0123456789 - the quick brown fox jumps over the lazy dog";
+
+  private final BenchmarkRunner runner;
+  private final double[] zoomLevels;
+  private final Project project = new Project();
+
+  public RenderingBenchmark(BenchmarkRunner runner, double[] zoomLevels) {
+    this.runner = runner;
+    this.zoomLevels = zoomLevels;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (System.getProperty("java.awt.headless") == null) {
+      System.setProperty("java.awt.headless", "true");
+    }
+    // Some components read drawing preferences from the configuration.
+    ConfigurationManager.initialize("diylc");
+    long warmup = 50;
+    long measure = 100;
+    int iterations = 5;
+    String filter = null;
+    double[] zoomLevels = new double[] {0.5, 1, 2};
+    File csv = null;
+    File baseline = null;
+    double threshold = 10;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if ("-w".equals(args[i]) && i < args.length - 1) {
+          warmup = Long.parseLong(args[++i]);
+        } else if ("-m".equals(args[i]) && i < args.length - 1) {
+          measure = Long.parseLong(args[++i]);
+        } else if ("-i".equals(args[i]) && i < args.length - 1) {
+          iterations = Integer.parseInt(args[++i]);
+        } else if ("-f".equals(args[i]) && i < args.length - 1) {
+          filter = args[++i];
+        } else if ("-z".equals(args[i]) && i < args.length - 1) {
+          String[] parts = args[++i].split(",");
+          zoomLevels = new double[parts.length];
+          for (int j = 0; j < parts.length; j++) {
+            zoomLevels[j] = Double.parseDouble(parts[j]);
+          }
+        } else if ("-csv".equals(args[i]) && i < args.length - 1) {
+          csv = new File(args[++i]);
+        } else if ("-b".equals(args[i]) && i < args.length - 1) {
+          baseline = new File(args[++i]);
+        } else if ("-t".equals(args[i]) && i < args.length - 1) {
+          threshold = Double.parseDouble(args[++i]);
+        } else {
+          printUsage();
+          System.exit(2);
+        }
+      }
+    } catch (NumberFormatException e) {
+      printUsage();
+      System.exit(2);
+    }
+
+    RenderingBenchmark benchmark =
+        new RenderingBenchmark(new BenchmarkRunner(warmup, measure, iterations), zoomLevels);
+    List<Result> results = benchmark.run(findComponentTypes(filter));
+    System.exit(BenchmarkRunner.finish(results, csv, baseline, threshold));
+  }
+
+  private static void printUsage() {
+    System.err.println("Usage: RenderingBenchmark [-w <ms>] [-m <ms>] [-i <iterations>] [-f <regex>] "
+        + "[-z <zoom,...>] [-csv <file>] [-b <baseline csv>] [-t <percent>]");
+  }
+
+  @SuppressWarnings("unchecked")
+  public static List<Class<? extends IDIYComponent<?>>> findComponentTypes(String filter) throws Exception {
+    Pattern pattern = filter == null ? null : Pattern.compile(filter);
+    List<Class<? extends IDIYComponent<?>>> types = new ArrayList<Class<? extends IDIYComponent<?>>>();
+    Set<Class<?>> classes = Utils.getClasses("org.diylc.components");
+    for (Class<?> clazz : classes) {
+      if (Modifier.isAbstract(clazz.getModifiers()) || !IDIYComponent.class.isAssignableFrom(clazz)) {
+        continue;
+      }
+      if (pattern != null && !pattern.matcher(clazz.getName()).find()) {
+        continue;
+      }
+      types.add((Class<? extends IDIYComponent<?>>) clazz);
+    }
+    Collections.sort(types, new Comparator<Class<?>>() {
+
+      @Override
+      public int compare(Class<?> o1, Class<?> o2) {
+        return o1.getName().compareTo(o2.getName());
+      }
+    });
+    return types;
+  }
+
+  public List<Result> run(List<Class<? extends IDIYComponent<?>>> types) {
+    System.out.println(String.format("Benchmarking %d component type(s)", types.size()));
+    BenchmarkRunner.printHeader(System.out);
+    List<Result> results = new ArrayList<Result>();
+    for (Class<? extends IDIYComponent<?>> type : types) {
+      IDIYComponent<?> component;
+      IDIYComponent<?> heavy;
+      try {
+        component = type.newInstance();
+        heavy = createHeavy(type);
+      } catch (Exception e) {
+        System.out.println(type.getSimpleName() + ": could not instantiate, " + e);
+        continue;
+      }
+      results.addAll(run(type.getSimpleName() + "/default", component));
+      results.addAll(run(type.getSimpleName() + "/heavy", heavy));
+    }
+    return results;
+  }
+
+  private List<Result> run(String name, final IDIYComponent<?> component) {
+    List<Result> results = new ArrayList<Result>();
+    for (double zoom : zoomLevels) {
+      BufferedImage image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g2d = image.createGraphics();
+      g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      // Components skip parts that are clipped out and expect the clip to be set, like on canvas.
+      g2d.setClip(0, 0, IMAGE_SIZE, IMAGE_SIZE);
+      final G2DWrapper g2dWrapper = new G2DWrapper(g2d, zoom);
+      if (Math.abs(1.0 - zoom) > 1e-4) {
+        g2dWrapper.scale(zoom, zoom);
+      }
+      for (final ComponentState state : STATES) {
+        for (final boolean outlineMode : new boolean[] {false, true}) {
+          String benchmarkName = name + "/" + state + (outlineMode ? "/outline" : "") + "/x" + zoom;
+          try {
+            Result result = runner.run(benchmarkName, new BenchmarkRunner.Operation() {
+
+              @Override
+              public void run() {
+                g2dWrapper.startedDrawingComponent();
+                component.draw(g2dWrapper, state, outlineMode, project, g2dWrapper);
+                g2dWrapper.finishedDrawingComponent();
+              }
+            });
+            System.out.println(result);
+            results.add(result);
+          } catch (Exception e) {
+            // Report and go on, a broken state shouldn't hide the numbers for the others.
+            System.out.println(benchmarkName + ": failed, " + e);
+          }
+        }
+      }
+      g2d.dispose();
+    }
+    return results;
+  }
+
+  private IDIYComponent<?> createHeavy(Class<? extends IDIYComponent<?>> type) throws Exception {
+    IDIYComponent<?> component = type.newInstance();
+    for (PropertyWrapper property : ComponentProcessor.getInstance().extractProperties(type)) {
+      Object value;
+      if (property.getType() == Boolean.class || property.getType() == boolean.class) {
+        value = Boolean.TRUE;
+      } else if (property.getType() == String.class) {
+        value = HEAVY_TEXT;
+      } else {
+        continue;
+      }
+      try {
+        property.setValue(value);
+        property.writeTo(component);
+      } catch (Exception e) {
+        // Not every property can take any value, keep the default.
+      }
+    }
+    return component;
+  }
+}
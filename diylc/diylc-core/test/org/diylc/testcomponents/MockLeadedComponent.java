@@ -0,0 +1,97 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.testcomponents;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+
+import org.diylc.components.AbstractComponent;
+import org.diylc.core.ComponentState;
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.IDrawingObserver;
+import org.diylc.core.Project;
+import org.diylc.core.VisibilityPolicy;
+import org.diylc.core.annotations.ComponentDescriptor;
+import org.diylc.core.annotations.EditableProperty;
+
+/**
+ * Component with two control points that may not overlap, like a resistor.
+ */
+@ComponentDescriptor(name = "Mock Leaded", author = "bancika", category = "Sample", instanceNamePrefix = "ML",
+    description = "test", zOrder = IDIYComponent.COMPONENT)
+public class MockLeadedComponent extends AbstractComponent<String> {
+
+  private static final long serialVersionUID = 1L;
+
+  private Point[] points = new Point[] {new Point(0, 0), new Point(100, 0)};
+  private String value = "";
+
+  @Override
+  public boolean canControlPointOverlap(int index) {
+    return false;
+  }
+
+  @Override
+  public int getControlPointCount() {
+    return points.length;
+  }
+
+  @Override
+  public boolean isControlPointSticky(int index) {
+    return true;
+  }
+
+  @Override
+  public VisibilityPolicy getControlPointVisibilityPolicy(int index) {
+    return VisibilityPolicy.WHEN_SELECTED;
+  }
+
+  @Override
+  public Point getControlPoint(int index) {
+    return points[index];
+  }
+
+  @Override
+  public void setControlPoint(Point point, int index) {
+    points[index].setLocation(point);
+  }
+
+  @EditableProperty
+  public String getValue() {
+    return value;
+  }
+
+  public void setValue(String value) {
+    this.value = value;
+  }
+
+  @Override
+  public void draw(Graphics2D g2d, ComponentState componentState, boolean outlineMode, Project project,
+      IDrawingObserver drawingObserver) {
+    g2d.drawLine(points[0].x, points[0].y, points[1].x, points[1].y);
+  }
+
+  @Override
+  public void drawIcon(Graphics2D g2d, int width, int height) {
+    g2d.drawString("X", 10, 10);
+  }
+}
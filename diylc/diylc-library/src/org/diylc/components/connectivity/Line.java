@@ -154,7 +154,7 @@ public class Line extends AbstractLeadedComponent<Void> {
   @EditableProperty
   public Size getThickness() {
     if (thickness == null)
-      thickness = new Size(1d, SizeUnit.px);
+      thickness = Size.valueOf(1d, SizeUnit.px);
     return thickness;
   }
   
@@ -165,7 +165,7 @@ public class Line extends AbstractLeadedComponent<Void> {
   @EditableProperty
   public Size getArrowSize() {
     if (arrowSize == null)
-      arrowSize = thickness = new Size(1d, SizeUnit.px); 
+      arrowSize = thickness = Size.valueOf(1d, SizeUnit.px); 
     return arrowSize;
   }
   
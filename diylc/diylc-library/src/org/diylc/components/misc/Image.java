@@ -41,6 +41,9 @@ import org.diylc.core.annotations.BomPolicy;
 import org.diylc.core.annotations.ComponentDescriptor;
 import org.diylc.core.annotations.EditableProperty;
 import org.diylc.core.annotations.PercentEditor;
+import org.diylc.core.images.ImageStore;
+import org.diylc.core.images.StoredImage;
+import org.diylc.core.images.StoredImageConverter;
 
 import com.thoughtworks.xstream.annotations.XStreamConverter;
 
@@ -52,6 +55,7 @@ public class Image extends AbstractTransparentComponent<Void> {
   private static final long serialVersionUID = 1L;
   public static String DEFAULT_TEXT = "Double click to edit text";
   private static ImageIcon ICON;
+  private static StoredImage ICON_IMAGE;
   private static byte DEFAULT_SCALE = 50;
 
   static {
@@ -59,17 +63,30 @@ public class Image extends AbstractTransparentComponent<Void> {
     java.net.URL imgURL = Image.class.getResource(name);
     if (imgURL != null) {
       ICON = new ImageIcon(imgURL, name);
+      ICON_IMAGE = new StoredImage(ImageStore.getInstance().put(ICON));
     }
   }
 
   private Point point = new Point(0, 0);
+  // Only used to read files that keep image pixels inline, see readResolve().
   @XStreamConverter(IconImageConverter.class)
-  private ImageIcon image = ICON;
+  private ImageIcon image;
+  @XStreamConverter(StoredImageConverter.class)
+  private StoredImage imageKey = ICON_IMAGE;
   private byte scale = DEFAULT_SCALE;
 
+  private Object readResolve() {
+    if (image != null) {
+      imageKey = new StoredImage(ImageStore.getInstance().put(image));
+      image = null;
+    }
+    return this;
+  }
+
   @Override
   public void draw(Graphics2D g2d, ComponentState componentState, boolean outlineMode, Project project,
       IDrawingObserver drawingObserver) {
+    ImageIcon image = getImage();
     double s = 1d * scale / DEFAULT_SCALE;
     Shape clip = g2d.getClip().getBounds();
     if (!clip.intersects(new Rectangle2D.Double(point.getX(), point.getY(), image.getIconWidth() * s, image
@@ -82,7 +99,18 @@ public class Image extends AbstractTransparentComponent<Void> {
     }
 
     g2d.scale(s, s);
-    g2d.drawImage(image.getImage(), (int) (point.x / s), (int) (point.y / s), null);
+    java.awt.Image pixels = null;
+    if (Boolean.TRUE.equals(g2d.getRenderingHint(ImageStore.KEY_DOWNSAMPLE)) && imageKey != null) {
+      // Pick the copy that matches the effective zoom, no point in scaling down all the pixels on
+      // every repaint.
+      double effectiveScale = Math.sqrt(Math.abs(g2d.getTransform().getDeterminant()));
+      pixels = ImageStore.getInstance().getImage(imageKey.getKey(), effectiveScale);
+    }
+    if (pixels == null) {
+      pixels = image.getImage();
+    }
+    g2d.drawImage(pixels, (int) (point.x / s), (int) (point.y / s), image.getIconWidth(), image.getIconHeight(),
+        null);
     if (componentState == ComponentState.SELECTED) {
       g2d.setComposite(oldComposite);
       g2d.scale(1 / s, 1 / s);
@@ -123,11 +151,12 @@ public class Image extends AbstractTransparentComponent<Void> {
 
   @EditableProperty(defaultable = false)
   public ImageIcon getImage() {
-    return image;
+    ImageIcon image = imageKey == null ? null : ImageStore.getInstance().getImage(imageKey.getKey());
+    return image == null ? ICON : image;
   }
 
   public void setImage(ImageIcon image) {
-    this.image = image;
+    this.imageKey = new StoredImage(ImageStore.getInstance().put(image));
   }
 
   @PercentEditor(_100PercentValue = 50)
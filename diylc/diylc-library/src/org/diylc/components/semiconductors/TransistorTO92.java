@@ -121,7 +121,7 @@ public class TransistorTO92 extends AbstractTransparentComponent<String> {
   @EditableProperty(name = "Pin spacing")
   public Size getPinSpacing() {
     if (pinSpacing == null) {
-      pinSpacing = new Size(0.1, SizeUnit.in);
+      pinSpacing = Size.valueOf(0.1, SizeUnit.in);
     }
     return pinSpacing;
   }
@@ -49,11 +49,7 @@ public class CliffJackTransformer implements IComponentTransformer {
   @Override
   public void rotate(IDIYComponent<?> component, Point center, int direction) {
     AffineTransform rotate = AffineTransform.getRotateInstance(Math.PI / 2 * direction, center.x, center.y);
-    for (int index = 0; index < component.getControlPointCount(); index++) {
-      Point p = new Point(component.getControlPoint(index));
-      rotate.transform(p, p);
-      component.setControlPoint(p, index);
-    }
+    component.transformControlPoints(rotate);
 
     CliffJack1_4 jack = (CliffJack1_4) component;
     Orientation o = jack.getOrientation();
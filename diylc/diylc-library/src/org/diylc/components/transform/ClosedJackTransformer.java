@@ -49,11 +49,7 @@ public class ClosedJackTransformer implements IComponentTransformer {
   @Override
   public void rotate(IDIYComponent<?> component, Point center, int direction) {
     AffineTransform rotate = AffineTransform.getRotateInstance(Math.PI / 2 * direction, center.x, center.y);
-    for (int index = 0; index < component.getControlPointCount(); index++) {
-      Point p = new Point(component.getControlPoint(index));
-      rotate.transform(p, p);
-      component.setControlPoint(p, index);
-    }
+    component.transformControlPoints(rotate);
 
     ClosedJack1_4 jack = (ClosedJack1_4) component;
     Orientation o = jack.getOrientation();
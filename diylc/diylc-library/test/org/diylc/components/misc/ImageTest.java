@@ -0,0 +1,73 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.components.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+
+import javax.swing.ImageIcon;
+
+import org.diylc.core.images.ImageStore;
+import org.junit.Test;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+public class ImageTest {
+
+  @Test
+  public void testPlainXStream() throws InterruptedException {
+    // Building blocks and variants are stored with an XStream that doesn't process annotations.
+    assertRoundTrip(new XStream(new DomDriver()), 7, 5);
+  }
+
+  @Test
+  public void testAnnotatedXStream() throws InterruptedException {
+    XStream xStream = new XStream(new DomDriver());
+    xStream.autodetectAnnotations(true);
+    assertRoundTrip(xStream, 5, 3);
+  }
+
+  private void assertRoundTrip(XStream xStream, int width, int height) throws InterruptedException {
+    ImageIcon icon = new ImageIcon(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    String key = new String(ImageStore.getInstance().put(icon));
+    Image image = new Image();
+    image.setImage(icon);
+    String xml = xStream.toXML(image);
+
+    // Make sure the pixels come from the document and not from the store.
+    WeakReference<Image> ref = new WeakReference<Image>(image);
+    image = null;
+    for (int i = 0; i < 50 && (ref.get() != null || ImageStore.getInstance().getData(key) != null); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(ImageStore.getInstance().getData(key));
+
+    Image copy = (Image) xStream.fromXML(xml);
+    assertEquals(width, copy.getImage().getIconWidth());
+    assertEquals(height, copy.getImage().getIconHeight());
+  }
+}
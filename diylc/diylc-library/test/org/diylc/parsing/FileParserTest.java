@@ -0,0 +1,181 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.common.EventType;
+import org.diylc.components.boards.PerfBoard;
+import org.diylc.components.connectivity.CopperTrace;
+import org.diylc.components.connectivity.Jumper;
+import org.diylc.components.connectivity.SolderPad;
+import org.diylc.components.misc.Label;
+import org.diylc.components.passive.Resistor;
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.Project;
+import org.diylc.core.measures.Size;
+import org.diylc.core.measures.SizeUnit;
+import org.diylc.presenter.ProjectFileManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Parses small V1 and V2 files through {@link ProjectFileManager} to make sure the streaming
+ * reader hands every element to the legacy parsers.
+ */
+public class FileParserTest {
+
+  private ProjectFileManager fileManager;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    ConfigurationManager.initialize("diylc");
+    fileManager = new ProjectFileManager(new MessageDispatcher<EventType>(true));
+    file = File.createTempFile("diylc-parser", ".diy");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void testV1File() throws Exception {
+    write("<Layout Project=\"Fixture\" Credits=\"Tester\" Type=\"perfboard\" Width=\"10\" Height=\"8\">",
+        "<resistor Name=\"R1\" Value=\"10K\" X1=\"1\" Y1=\"2\" X2=\"4\" Y2=\"2\"/>",
+        "<trace Name=\"T1\" Color=\"red\" X1=\"1\" Y1=\"3\" X2=\"1\" Y2=\"6\"/>",
+        "<jumper Name=\"J1\" X1=\"5\" Y1=\"5\" X2=\"7\" Y2=\"7\"/>",
+        "<text Name=\"L1\" Value=\"Label 1\" X1=\"2\" Y1=\"7\"/>", "</Layout>");
+    List<String> warnings = new ArrayList<String>();
+    Project project = fileManager.deserializeProjectFromFile(file.getAbsolutePath(), warnings);
+
+    assertTrue(warnings.isEmpty());
+    assertEquals("Fixture", project.getTitle());
+    assertEquals("Tester", project.getAuthor());
+
+    // V1 grid is 0.1in, i.e. 20px, and coordinates are relative to the top-left corner of the board.
+    PerfBoard board = find(project, PerfBoard.class, "Main board");
+    assertPoints(board, new Point(1040, 740), new Point(1260, 920));
+
+    Resistor resistor = find(project, Resistor.class, "R1");
+    assertEquals("10K", resistor.getValue().toString());
+    assertEquals(Size.valueOf(6.35d, SizeUnit.mm), resistor.getLength());
+    assertEquals(Size.valueOf(2.2d, SizeUnit.mm), resistor.getWidth());
+    assertPoints(resistor, new Point(1060, 780), new Point(1120, 780));
+
+    CopperTrace trace = find(project, CopperTrace.class, "T1");
+    assertEquals(Color.red, trace.getLeadColor());
+    assertPoints(trace, new Point(1060, 800), new Point(1060, 860));
+
+    Jumper jumper = find(project, Jumper.class, "J1");
+    assertPoints(jumper, new Point(1140, 840), new Point(1180, 880));
+
+    Label label = find(project, Label.class, "L1");
+    assertEquals("Label 1", label.getValue());
+    assertPoints(label, new Point(1080, 880));
+  }
+
+  @Test
+  public void testV2File() throws Exception {
+    write("<layout formatVersion=\"2.0\" projectName=\"Fixture\" credits=\"Tester\" width=\"29cm\" height=\"21cm\">",
+        "<component name=\"Resistor\">", "<properties>", "<property name=\"Name\" value=\"R1\"/>",
+        "<property name=\"Value\" value=\"10K\"/>", "<property name=\"Diameter\" value=\"2mm\"/>",
+        "<property name=\"Length\" value=\"6mm\"/>", "</properties>", "<points>", "<point x=\"100\" y=\"200\"/>",
+        "<point x=\"300\" y=\"200\"/>", "</points>", "</component>", "<component name=\"Copper Trace\">",
+        "<properties>", "<property name=\"Name\" value=\"T1\"/>", "<property name=\"Thickness\" value=\"1mm\"/>",
+        "</properties>", "<points>", "<point x=\"100\" y=\"300\"/>", "<point x=\"100\" y=\"500\"/>", "</points>",
+        "</component>", "<component name=\"Solder pad\">", "<properties>", "<property name=\"Name\" value=\"P1\"/>",
+        "<property name=\"Size\" value=\"2mm\"/>", "<property name=\"Shape\" value=\"square\"/>", "</properties>",
+        "<points>", "<point x=\"400\" y=\"400\"/>", "</points>", "</component>", "</layout>");
+    List<String> warnings = new ArrayList<String>();
+    Project project = fileManager.deserializeProjectFromFile(file.getAbsolutePath(), warnings);
+
+    assertTrue(warnings.isEmpty());
+    assertEquals("Fixture", project.getTitle());
+    assertEquals("Tester", project.getAuthor());
+    assertEquals(3, project.getComponents().size());
+
+    Resistor resistor = find(project, Resistor.class, "R1");
+    assertEquals("10K", resistor.getValue().toString());
+    assertSize(2, resistor.getWidth());
+    assertSize(6, resistor.getLength());
+    assertPoints(resistor, new Point(100, 200), new Point(300, 200));
+
+    CopperTrace trace = find(project, CopperTrace.class, "T1");
+    assertSize(1, trace.getThickness());
+    assertPoints(trace, new Point(100, 300), new Point(100, 500));
+
+    SolderPad pad = find(project, SolderPad.class, "P1");
+    assertSize(2, pad.getSize());
+    assertEquals(SolderPad.Type.SQUARE, pad.getType());
+    assertPoints(pad, new Point(400, 400));
+  }
+
+  private void write(String... lines) throws IOException {
+    PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    try {
+      out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+      // V2 parser relies on whitespace between elements, keep one element per line.
+      for (String line : lines) {
+        out.println(line);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private <T extends IDIYComponent<?>> T find(Project project, Class<T> type, String name) {
+    for (IDIYComponent<?> component : project.getComponents()) {
+      if (type.isInstance(component) && name.equals(component.getName())) {
+        return type.cast(component);
+      }
+    }
+    throw new AssertionError("Could not find " + type.getSimpleName() + " " + name);
+  }
+
+  private void assertPoints(IDIYComponent<?> component, Point... points) {
+    assertEquals(points.length, component.getControlPointCount());
+    for (int i = 0; i < points.length; i++) {
+      assertEquals(points[i], component.getControlPoint(i));
+    }
+  }
+
+  private void assertSize(double mm, Size size) {
+    assertEquals(SizeUnit.mm, size.getUnit());
+    assertEquals(mm, size.getValue(), 1e-3);
+  }
+}
@@ -68,6 +68,10 @@ import org.diylc.swing.plugins.config.ConfigPlugin;
 import org.diylc.swing.plugins.edit.ComponentTransferable;
 import org.diylc.swing.plugins.file.BomDialog;
 import org.diylc.swing.plugins.file.FileFilterEnum;
+import org.diylc.swing.plugins.file.GerberExporter;
+import org.diylc.swing.plugins.file.PDFExporter;
+import org.diylc.swing.plugins.file.SVGExporter;
+import org.diylc.swing.plugins.file.TiledPNGExporter;
 import org.diylc.swingframework.ButtonDialog;
 import org.diylc.swingframework.CheckBoxListDialog;
 import org.diylc.swingframework.IDrawingProvider;
@@ -126,6 +130,14 @@ public class ActionFactory {
     return new ExportPNGAction(plugInPort, drawingProvider, swingUI, defaultSuffix);
   }
 
+  public ExportSVGAction createExportSVGAction(IPlugInPort plugInPort, IDrawingProvider drawingProvider, ISwingUI swingUI, String defaultSuffix) {
+    return new ExportSVGAction(plugInPort, drawingProvider, swingUI, defaultSuffix);
+  }
+
+  public ExportGerberAction createExportGerberAction(IPlugInPort plugInPort, ISwingUI swingUI) {
+    return new ExportGerberAction(plugInPort, swingUI);
+  }
+
   public PrintAction createPrintAction(IDrawingProvider drawingProvider, int keyModifiers) {
     return new PrintAction(drawingProvider, keyModifiers);
   }
@@ -594,7 +606,7 @@ public class ActionFactory {
           @Override
           public Void doInBackground() throws Exception {
             LOG.debug("Exporting to " + file.getAbsolutePath());
-            DrawingExporter.getInstance().exportPDF(ExportPDFAction.this.drawingProvider, file);
+            PDFExporter.getInstance().exportPDF(ExportPDFAction.this.drawingProvider, file);
             return null;
           }
 
@@ -650,7 +662,8 @@ public class ActionFactory {
           @Override
           public Void doInBackground() throws Exception {
             LOG.debug("Exporting to " + file.getAbsolutePath());
-            DrawingExporter.getInstance().exportPNG(ExportPNGAction.this.drawingProvider, file);
+            TiledPNGExporter.getInstance().exportPNG(ExportPNGAction.this.drawingProvider, file,
+                TiledPNGExporter.DEFAULT_DPI);
             return null;
           }
 
@@ -666,6 +679,120 @@ public class ActionFactory {
     }
   }
 
+  public static class ExportSVGAction extends AbstractAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private IDrawingProvider drawingProvider;
+    private ISwingUI swingUI;
+    private IPlugInPort plugInPort;
+    private String defaultSuffix;
+
+    public ExportSVGAction(IPlugInPort plugInPort, IDrawingProvider drawingProvider, ISwingUI swingUI, String defaultSuffix) {
+      super();
+      this.plugInPort = plugInPort;
+      this.drawingProvider = drawingProvider;
+      this.swingUI = swingUI;
+      this.defaultSuffix = defaultSuffix;
+      putValue(AbstractAction.NAME, "Export to SVG");
+      putValue(AbstractAction.SMALL_ICON, IconLoader.Pens.getIcon());
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+      LOG.info("ExportSVGAction triggered");
+
+      File initialFile = null;
+      String currentFile = plugInPort.getCurrentFileName();
+      if (currentFile != null) {
+        File cFile = new File(currentFile);
+        initialFile = new File(cFile.getName().replaceAll("(?i)\\.diy", "") + defaultSuffix + ".svg");
+      }
+
+      final File file =
+          DialogFactory.getInstance().showSaveDialog(swingUI.getOwnerFrame(), FileFilterEnum.SVG.getFilter(), initialFile,
+              FileFilterEnum.SVG.getExtensions()[0], null);
+      if (file != null) {
+        swingUI.executeBackgroundTask(new ITask<Void>() {
+
+          @Override
+          public Void doInBackground() throws Exception {
+            LOG.debug("Exporting to " + file.getAbsolutePath());
+            SVGExporter.getInstance().exportSVG(ExportSVGAction.this.drawingProvider, file);
+            return null;
+          }
+
+          @Override
+          public void complete(Void result) {}
+
+          @Override
+          public void failed(Exception e) {
+            swingUI.showMessage("Could not export to SVG. " + e.getMessage(), "Error", ISwingUI.ERROR_MESSAGE);
+          }
+        }, true);
+      }
+    }
+  }
+
+  public static class ExportGerberAction extends AbstractAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private ISwingUI swingUI;
+    private IPlugInPort plugInPort;
+
+    public ExportGerberAction(IPlugInPort plugInPort, ISwingUI swingUI) {
+      super();
+      this.plugInPort = plugInPort;
+      this.swingUI = swingUI;
+      putValue(AbstractAction.NAME, "Export to Gerber");
+      putValue(AbstractAction.SMALL_ICON, IconLoader.Wrench.getIcon());
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+      LOG.info("ExportGerberAction triggered");
+
+      File initialFile = null;
+      String currentFile = plugInPort.getCurrentFileName();
+      if (currentFile != null) {
+        File cFile = new File(currentFile);
+        initialFile = new File(cFile.getName().replaceAll("(?i)\\.diy", "") + ".gbr");
+      }
+
+      final File file =
+          DialogFactory.getInstance().showSaveDialog(swingUI.getOwnerFrame(), FileFilterEnum.GERBER.getFilter(),
+              initialFile, FileFilterEnum.GERBER.getExtensions()[0], null);
+      if (file != null) {
+        swingUI.executeBackgroundTask(new ITask<List<File>>() {
+
+          @Override
+          public List<File> doInBackground() throws Exception {
+            LOG.debug("Exporting to " + file.getAbsolutePath());
+            double tolerance =
+                ConfigurationManager.getInstance().readDouble(GerberExporter.TOLERANCE_KEY,
+                    GerberExporter.DEFAULT_TOLERANCE);
+            return GerberExporter.getInstance().exportGerber(plugInPort, file, tolerance);
+          }
+
+          @Override
+          public void complete(List<File> result) {
+            StringBuilder message = new StringBuilder("Exported fabrication files:");
+            for (File f : result) {
+              message.append("\n").append(f.getName());
+            }
+            swingUI.showMessage(message.toString(), "Export to Gerber", ISwingUI.INFORMATION_MESSAGE);
+          }
+
+          @Override
+          public void failed(Exception e) {
+            swingUI.showMessage("Could not export to Gerber. " + e.getMessage(), "Error", ISwingUI.ERROR_MESSAGE);
+          }
+        }, true);
+      }
+    }
+  }
+
   public static class PrintAction extends AbstractAction {
 
     private static final long serialVersionUID = 1L;
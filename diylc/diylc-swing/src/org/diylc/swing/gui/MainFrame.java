@@ -115,7 +115,7 @@ public class MainFrame extends JFrame implements ISwingUI {
         IconLoader.IconLarge.getImage()));
     DialogFactory.getInstance().initialize(this);
 
-    this.presenter = new Presenter(this);
+    this.presenter = new Presenter(this, true);
 
     canvasPlugin = new CanvasPlugin(this);
 
@@ -0,0 +1,253 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.autosave;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.common.EventType;
+import org.diylc.core.Project;
+import org.diylc.presenter.PointConverter;
+import org.diylc.presenter.ProjectFileManager;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.CompactWriter;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+/**
+ * Keeps the auto-saved project as a full snapshot plus an append-only journal of
+ * {@link JournalEntry} records, one per line. The first line of the journal holds the checksum of
+ * the snapshot it was started for, so a journal that doesn't belong to the snapshot is ignored
+ * during recovery.
+ */
+public class AutoSaveJournal {
+
+  private static final Logger LOG = Logger.getLogger(AutoSaveJournal.class);
+
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private File snapshotFile;
+  private File journalFile;
+
+  private XStream xStream;
+  private ProjectFileManager projectFileManager;
+
+  private Writer journalWriter;
+  // Stream under journalWriter, used to force appended entries to the disk.
+  private FileOutputStream journalStream;
+
+  public AutoSaveJournal(String snapshotFileName) {
+    this.snapshotFile = new File(snapshotFileName);
+    this.journalFile = new File(snapshotFileName + JOURNAL_SUFFIX);
+    this.xStream = new XStream(new DomDriver("UTF-8"));
+    xStream.autodetectAnnotations(true);
+    xStream.registerConverter(new PointConverter());
+    this.projectFileManager = new ProjectFileManager(new MessageDispatcher<EventType>(true));
+  }
+
+  public boolean exists() {
+    return snapshotFile.exists();
+  }
+
+  /**
+   * Writes a full snapshot of the project and starts a new, empty journal for it.
+   * 
+   * @param project
+   * @throws IOException
+   */
+  public synchronized void writeSnapshot(Project project) throws IOException {
+    closeJournal();
+
+    File tempSnapshotFile = new File(snapshotFile.getAbsolutePath() + TEMP_SUFFIX);
+    projectFileManager.serializeProjectToFile(project, tempSnapshotFile.getAbsolutePath(), true);
+    sync(tempSnapshotFile);
+
+    File tempJournalFile = new File(journalFile.getAbsolutePath() + TEMP_SUFFIX);
+    FileOutputStream out = new FileOutputStream(tempJournalFile);
+    Writer writer = new OutputStreamWriter(out, "UTF-8");
+    try {
+      writer.write(Long.toString(checksum(tempSnapshotFile)));
+      writer.write('\n');
+      writer.flush();
+      out.getFD().sync();
+    } finally {
+      writer.close();
+    }
+
+    // Replace the snapshot first. If we crash before the journal is replaced too, the old journal
+    // won't match the new snapshot and will be ignored.
+    replaceFile(tempSnapshotFile, snapshotFile);
+    replaceFile(tempJournalFile, journalFile);
+
+    journalStream = new FileOutputStream(journalFile, true);
+    journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, "UTF-8"));
+  }
+
+  /**
+   * Appends a single entry to the journal and forces it to the disk, so it survives a crash of the
+   * application or the OS.
+   * 
+   * @param entry
+   * @throws IOException
+   */
+  public synchronized void append(JournalEntry entry) throws IOException {
+    if (journalWriter == null) {
+      throw new IllegalStateException("Journal is not started, snapshot must be written first");
+    }
+    StringWriter buffer = new StringWriter();
+    xStream.marshal(entry, new CompactWriter(buffer));
+    // Keep each entry on a single line.
+    journalWriter.write(buffer.toString().replace("\r", "&#13;").replace("\n", "&#10;"));
+    journalWriter.write('\n');
+    journalWriter.flush();
+    journalStream.getFD().sync();
+  }
+
+  /**
+   * Loads the snapshot and replays all the journal entries that belong to it. Entries after the
+   * first one that cannot be read, e.g. because it was not written completely, are ignored.
+   * 
+   * @return recovered project or null if there's nothing to recover
+   */
+  public synchronized Project recover() {
+    if (!snapshotFile.exists()) {
+      return null;
+    }
+    Project project;
+    try {
+      project = projectFileManager.deserializeProjectFromFile(snapshotFile.getAbsolutePath(), new ArrayList<String>());
+    } catch (Exception e) {
+      LOG.error("Could not read auto-save snapshot", e);
+      return null;
+    }
+    if (!journalFile.exists()) {
+      return project;
+    }
+    try {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), "UTF-8"));
+      try {
+        String header = reader.readLine();
+        if (header == null || !header.equals(Long.toString(checksum(snapshotFile)))) {
+          LOG.warn("Auto-save journal does not match the snapshot, ignoring it");
+          return project;
+        }
+        List<JournalEntry> entries = new ArrayList<JournalEntry>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+          try {
+            entries.add((JournalEntry) xStream.fromXML(line));
+          } catch (Exception e) {
+            LOG.warn("Could not read auto-save journal entry, skipping the rest of the journal", e);
+            break;
+          }
+        }
+        int replayed = 0;
+        for (JournalEntry entry : entries) {
+          try {
+            entry.applyTo(project);
+          } catch (Exception e) {
+            LOG.warn("Could not apply auto-save journal entry, skipping the rest of the journal", e);
+            break;
+          }
+          replayed++;
+        }
+        LOG.info(String.format("Replayed %d auto-save journal entries", replayed));
+      } finally {
+        reader.close();
+      }
+    } catch (IOException e) {
+      LOG.error("Could not read auto-save journal", e);
+    }
+    return project;
+  }
+
+  /**
+   * Deletes both the snapshot and the journal.
+   */
+  public synchronized void delete() {
+    closeJournal();
+    snapshotFile.delete();
+    journalFile.delete();
+  }
+
+  private void closeJournal() {
+    if (journalWriter != null) {
+      try {
+        journalWriter.close();
+      } catch (IOException e) {
+        LOG.warn("Could not close auto-save journal", e);
+      }
+      journalWriter = null;
+      journalStream = null;
+    }
+  }
+
+  private static void sync(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.getFD().sync();
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static long checksum(File file) throws IOException {
+    CRC32 crc = new CRC32();
+    InputStream in = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        crc.update(buffer, 0, read);
+      }
+    } finally {
+      in.close();
+    }
+    return crc.getValue();
+  }
+
+  private static void replaceFile(File source, File target) throws IOException {
+    if (!source.renameTo(target)) {
+      // Some platforms won't rename over an existing file.
+      target.delete();
+      if (!source.renameTo(target)) {
+        throw new IOException("Could not rename " + source + " to " + target);
+      }
+    }
+  }
+}
@@ -21,7 +21,7 @@
 */
 package org.diylc.swing.plugins.autosave;
 
-import java.io.File;
+import java.io.IOException;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.concurrent.ExecutorService;
@@ -29,30 +29,47 @@ import java.util.concurrent.Executors;
 
 import javax.swing.SwingUtilities;
 
+import org.apache.log4j.Logger;
 import org.diylc.appframework.miscutils.ConfigurationManager;
 import org.diylc.appframework.miscutils.Utils;
 import org.diylc.common.EventType;
 import org.diylc.common.IPlugIn;
 import org.diylc.common.IPlugInPort;
 import org.diylc.core.IView;
-import org.diylc.presenter.Presenter;
-import org.diylc.swing.gui.DummyView;
-
+import org.diylc.core.Project;
+
+/**
+ * Keeps an auto-saved copy of the current project. Each modification is appended to
+ * {@link AutoSaveJournal} as a small {@link JournalEntry} and the journal is periodically compacted
+ * into a full snapshot.
+ * 
+ * @author Branislav Stojkovic
+ */
 public class AutoSavePlugin implements IPlugIn {
 
+  private static final Logger LOG = Logger.getLogger(AutoSavePlugin.class);
+
   private static final String AUTO_SAVE_FILE_NAME = Utils.getUserDataDirectory("diylc") + "autoSave.diy";
 
   protected static final long autoSaveFrequency = 60 * 1000;
+  // Maximum number of journal entries before we write a full snapshot.
+  protected static final int maxJournalEntries = 100;
 
   private ExecutorService executor;
 
   private IPlugInPort plugInPort;
   private IView view;
+  private AutoSaveJournal journal;
   private long lastSave = 0;
+  private int journalEntries = 0;
+  // Set when the journal doesn't follow the current project anymore, e.g. when a project is loaded
+  // or undo/redo happens. The next change will be saved as a full snapshot.
+  private volatile boolean snapshotNeeded = true;
 
   public AutoSavePlugin(IView view) {
     this.view = view;
     executor = Executors.newSingleThreadExecutor();
+    journal = new AutoSaveJournal(AUTO_SAVE_FILE_NAME);
   }
 
   @Override
@@ -65,25 +82,23 @@ public class AutoSavePlugin implements IPlugIn {
         boolean wasAbnormal = ConfigurationManager.getInstance().readBoolean(IPlugInPort.ABNORMAL_EXIT_KEY, false);
         Date lastHeartbeat = (Date) ConfigurationManager.getInstance().readObject(IPlugInPort.HEARTBEAT, new Date());
         long msSinceHeartbeat = new Date().getTime() - lastHeartbeat.getTime();
-        File autoSaved = new File(AUTO_SAVE_FILE_NAME);
-        if (autoSaved.exists())
+        if (journal.exists())
           // try to figure out if another instance is running. Only pull auto-saved file if there's no recent heartbeat 
           if (wasAbnormal && msSinceHeartbeat > autoSaveFrequency) {
-            IPlugInPort testPresenter = new Presenter(new DummyView());
-            testPresenter.loadProjectFromFile(AUTO_SAVE_FILE_NAME);
+            Project recovered = journal.recover();
             // Only prompt if there is something saved in the
             // auto-saved file.
-            if (!testPresenter.getCurrentProject().getComponents().isEmpty()) {
+            if (recovered != null && !recovered.getComponents().isEmpty()) {
               int decision =
                   view.showConfirmDialog(
                       "It appears that application was not closed normally in the previous session. Do you want to open the last auto-saved file?",
                       "Auto-Save", IView.YES_NO_OPTION, IView.QUESTION_MESSAGE);
               if (decision == IView.YES_OPTION) {
-                AutoSavePlugin.this.plugInPort.loadProjectFromFile(AUTO_SAVE_FILE_NAME);
+                AutoSavePlugin.this.plugInPort.loadProject(recovered, true);
               }
             }
           } else
-            autoSaved.delete();
+            journal.delete();
         // Set abnormal flag to true, GUI side of the app must flip to
         // false when app closes regularly.
         ConfigurationManager.getInstance().writeValue(IPlugInPort.ABNORMAL_EXIT_KEY, true);
@@ -105,24 +120,66 @@ public class AutoSavePlugin implements IPlugIn {
 
   @Override
   public EnumSet<EventType> getSubscribedEventTypes() {
-    return EnumSet.of(EventType.PROJECT_MODIFIED);
+    return EnumSet.of(EventType.PROJECT_MODIFIED, EventType.PROJECT_LOADED);
   }
 
   @Override
   public void processMessage(EventType eventType, Object... params) {
-    if (eventType == EventType.PROJECT_MODIFIED) {
-      if (System.currentTimeMillis() - lastSave > autoSaveFrequency) {
-        executor.execute(new Runnable() {
-
-          @Override
-          public void run() {
-            Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
-
-            lastSave = System.currentTimeMillis();
-            plugInPort.saveProjectToFile(AUTO_SAVE_FILE_NAME, true);
-          }
-        });
+    if (eventType == EventType.PROJECT_LOADED) {
+      snapshotNeeded = true;
+    } else if (eventType == EventType.PROJECT_MODIFIED) {
+      Project oldProject = (Project) params[0];
+      Project newProject = (Project) params[1];
+      if (snapshotNeeded || journalEntries >= maxJournalEntries
+          || System.currentTimeMillis() - lastSave > autoSaveFrequency) {
+        saveSnapshot(newProject);
+      } else {
+        try {
+          // Diff right away, the projects may be reused by undo/redo later on.
+          appendToJournal(JournalEntry.diff(oldProject, newProject));
+        } catch (CloneNotSupportedException e) {
+          LOG.error("Could not create auto-save journal entry", e);
+          saveSnapshot(newProject);
+        }
       }
     }
   }
+
+  private void saveSnapshot(Project project) {
+    final Project snapshot = project.clone();
+    snapshot.setFileVersion(plugInPort.getCurrentVersionNumber());
+    snapshotNeeded = false;
+    lastSave = System.currentTimeMillis();
+    journalEntries = 0;
+    executor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+        try {
+          journal.writeSnapshot(snapshot);
+        } catch (IOException e) {
+          LOG.error("Could not auto-save the project", e);
+          snapshotNeeded = true;
+        }
+      }
+    });
+  }
+
+  private void appendToJournal(final JournalEntry entry) {
+    journalEntries++;
+    executor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+        try {
+          journal.append(entry);
+        } catch (Exception e) {
+          LOG.error("Could not write to the auto-save journal", e);
+          snapshotNeeded = true;
+        }
+      }
+    });
+  }
 }
@@ -0,0 +1,184 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.autosave;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.diylc.core.IDIYComponent;
+import org.diylc.core.Project;
+
+/**
+ * A single record of the auto-save journal. Describes the difference between two consecutive
+ * project states as a range of components that got replaced, plus project-level properties and
+ * groups when needed.
+ */
+public class JournalEntry implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private int start;
+  private int removeCount;
+  private List<IDIYComponent<?>> components;
+  // Groups are stored as lists of component indices because components do not have a stable
+  // identity across serialization.
+  private List<List<Integer>> groups;
+  // Component-less copy of the project that carries project-level properties, null if they did not
+  // change.
+  private Project properties;
+
+  /**
+   * Creates an entry that transforms <code>oldProject</code> into <code>newProject</code>.
+   * Components that are included in the entry are cloned, so it's safe to serialize the entry
+   * later, even if the source projects change in the meantime.
+   * 
+   * @param oldProject
+   * @param newProject
+   * @return
+   * @throws CloneNotSupportedException
+   */
+  public static JournalEntry diff(Project oldProject, Project newProject) throws CloneNotSupportedException {
+    JournalEntry entry = new JournalEntry();
+    List<IDIYComponent<?>> oldComponents = oldProject.getComponents();
+    List<IDIYComponent<?>> newComponents = newProject.getComponents();
+
+    // Skip the components that didn't change at both ends of the list.
+    int prefix = 0;
+    int maxCommon = Math.min(oldComponents.size(), newComponents.size());
+    while (prefix < maxCommon && oldComponents.get(prefix).equalsTo(newComponents.get(prefix))) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < maxCommon - prefix
+        && oldComponents.get(oldComponents.size() - 1 - suffix).equalsTo(
+            newComponents.get(newComponents.size() - 1 - suffix))) {
+      suffix++;
+    }
+
+    entry.start = prefix;
+    entry.removeCount = oldComponents.size() - suffix - prefix;
+    entry.components = new ArrayList<IDIYComponent<?>>();
+    for (int i = prefix; i < newComponents.size() - suffix; i++) {
+      entry.components.add(newComponents.get(i).clone());
+    }
+
+    entry.groups = new ArrayList<List<Integer>>();
+    if (!newProject.getGroups().isEmpty()) {
+      Map<IDIYComponent<?>, Integer> indexMap = new IdentityHashMap<IDIYComponent<?>, Integer>();
+      for (int i = 0; i < newComponents.size(); i++) {
+        indexMap.put(newComponents.get(i), i);
+      }
+      for (Set<IDIYComponent<?>> group : newProject.getGroups()) {
+        List<Integer> indices = new ArrayList<Integer>();
+        for (IDIYComponent<?> component : group) {
+          Integer index = indexMap.get(component);
+          if (index != null) {
+            indices.add(index);
+          }
+        }
+        entry.groups.add(indices);
+      }
+    }
+
+    if (!propertiesEqual(oldProject, newProject)) {
+      entry.properties = copyProperties(newProject);
+    }
+    return entry;
+  }
+
+  /**
+   * Applies the change to the specified project. The project is left untouched if the entry does
+   * not match it.
+   * 
+   * @param project
+   */
+  public void applyTo(Project project) {
+    List<IDIYComponent<?>> projectComponents = project.getComponents();
+    if (start + removeCount > projectComponents.size()) {
+      throw new IllegalStateException("Journal entry does not match the project");
+    }
+    int newSize = projectComponents.size() - removeCount + components.size();
+    for (List<Integer> indices : groups) {
+      for (Integer index : indices) {
+        if (index >= newSize) {
+          throw new IllegalStateException("Journal entry does not match the project");
+        }
+      }
+    }
+    projectComponents.subList(start, start + removeCount).clear();
+    projectComponents.addAll(start, components);
+
+    project.getGroups().clear();
+    for (List<Integer> indices : groups) {
+      Set<IDIYComponent<?>> group = new HashSet<IDIYComponent<?>>();
+      for (Integer index : indices) {
+        group.add(projectComponents.get(index));
+      }
+      project.getGroups().add(group);
+    }
+
+    if (properties != null) {
+      project.setTitle(properties.getTitle());
+      project.setAuthor(properties.getAuthor());
+      project.setDescription(properties.getDescription());
+      project.setWidth(properties.getWidth());
+      project.setHeight(properties.getHeight());
+      project.setGridSpacing(properties.getGridSpacing());
+      project.setFont(properties.getFont());
+      project.getLockedLayers().clear();
+      project.getLockedLayers().addAll(properties.getLockedLayers());
+      project.getHiddenLayers().clear();
+      project.getHiddenLayers().addAll(properties.getHiddenLayers());
+    }
+  }
+
+  private static boolean propertiesEqual(Project p1, Project p2) {
+    return equal(p1.getTitle(), p2.getTitle()) && equal(p1.getAuthor(), p2.getAuthor())
+        && equal(p1.getDescription(), p2.getDescription()) && equal(p1.getWidth(), p2.getWidth())
+        && equal(p1.getHeight(), p2.getHeight()) && equal(p1.getGridSpacing(), p2.getGridSpacing())
+        && equal(p1.getFont(), p2.getFont()) && p1.getLockedLayers().equals(p2.getLockedLayers())
+        && p1.getHiddenLayers().equals(p2.getHiddenLayers());
+  }
+
+  private static Project copyProperties(Project project) {
+    Project copy = new Project();
+    copy.setTitle(project.getTitle());
+    copy.setAuthor(project.getAuthor());
+    copy.setDescription(project.getDescription());
+    copy.setWidth(project.getWidth());
+    copy.setHeight(project.getHeight());
+    copy.setGridSpacing(project.getGridSpacing());
+    copy.setFont(project.getFont());
+    copy.getLockedLayers().addAll(project.getLockedLayers());
+    copy.getHiddenLayers().addAll(project.getHiddenLayers());
+    return copy;
+  }
+
+  private static boolean equal(Object o1, Object o2) {
+    return o1 == null ? o2 == null : o1.equals(o2);
+  }
+}
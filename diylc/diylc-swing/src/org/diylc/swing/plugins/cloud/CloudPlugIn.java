@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.CancellationException;
 
 import javax.imageio.ImageIO;
 import javax.swing.AbstractAction;
@@ -40,6 +41,7 @@ import org.diylc.core.IView;
 import org.diylc.images.IconLoader;
 import org.diylc.plugins.cloud.presenter.CloudException;
 import org.diylc.plugins.cloud.presenter.CloudPresenter;
+import org.diylc.plugins.cloud.presenter.SearchSession;
 import org.diylc.presenter.Presenter;
 import org.diylc.swing.ISwingUI;
 import org.diylc.swing.gui.DialogFactory;
@@ -47,6 +49,7 @@ import org.diylc.swing.gui.DummyView;
 import org.diylc.swing.plugins.cloud.view.ChangePasswordDialog;
 import org.diylc.swing.plugins.cloud.view.LoginDialog;
 import org.diylc.swing.plugins.cloud.view.UploadDialog;
+import org.diylc.swing.plugins.cloud.view.UploadProgressMonitor;
 import org.diylc.swing.plugins.cloud.view.UserEditDialog;
 import org.diylc.swing.plugins.cloud.view.browser.CloudBrowserFrame;
 import org.diylc.swing.plugins.cloud.view.browser.UploadManagerFrame;
@@ -441,23 +444,33 @@ public class CloudPlugIn implements IPlugIn {
                 try {
                   final File thumbnailFile = File.createTempFile("upload-thumbnail", ".png");
                   if (ImageIO.write(dialog.getThumbnail(), "png", thumbnailFile)) {
+                    final UploadProgressMonitor progress =
+                        UploadProgressMonitor.start(swingUI.getOwnerFrame(), dialog.getName());
                     swingUI.executeBackgroundTask(new ITask<Void>() {
 
                       @Override
                       public Void doInBackground() throws Exception {
-                        CloudPresenter.Instance.uploadProject(dialog.getName(), dialog.getCategory(), dialog
-                            .getDescription(), dialog.getKeywords(), plugInPort.getCurrentVersionNumber().toString(),
-                            thumbnailFile, file, null);
+                        try {
+                          CloudPresenter.Instance.uploadProject(dialog.getName(), dialog.getCategory(), dialog
+                              .getDescription(), dialog.getKeywords(), plugInPort.getCurrentVersionNumber()
+                              .toString(), thumbnailFile, file, null);
+                        } finally {
+                          progress.close();
+                        }
                         return null;
                       }
 
                       @Override
                       public void failed(Exception e) {
+                        if (e.getCause() instanceof CancellationException) {
+                          return;
+                        }
                         swingUI.showMessage(e.getMessage(), "Upload Error", IView.ERROR_MESSAGE);
                       }
 
                       @Override
                       public void complete(Void result) {
+                        SearchSession.clearCache();
                         swingUI
                             .showMessage(
                                 "The project has been uploaded to the cloud successfully. Thank you for your contribution!",
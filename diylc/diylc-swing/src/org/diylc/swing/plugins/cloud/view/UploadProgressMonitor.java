@@ -0,0 +1,113 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.cloud.view;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.diylc.plugins.cloud.presenter.CloudListener;
+import org.diylc.plugins.cloud.presenter.CloudPresenter;
+
+/**
+ * Shows upload progress reported by {@link CloudPresenter} in a {@link ProgressMonitor} and
+ * cancels the upload when the user presses Cancel. The dialog pops up only if the upload takes
+ * a while. Cancel is polled on a timer rather than on progress updates, so it works even when the
+ * upload is stuck and no progress is reported.
+ */
+public class UploadProgressMonitor implements CloudListener {
+
+  private static final int SCALE = 1000;
+  private static final int CANCEL_POLL_MILLIS = 200;
+
+  private final ProgressMonitor monitor;
+  private final Timer cancelTimer;
+
+  private UploadProgressMonitor(Component parent, String projectName) {
+    monitor = new ProgressMonitor(parent, "Uploading " + projectName, "", 0, SCALE);
+    cancelTimer = new Timer(CANCEL_POLL_MILLIS, new ActionListener() {
+
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        if (monitor.isCanceled()) {
+          cancelTimer.stop();
+          CloudPresenter.Instance.cancelUpload();
+        }
+      }
+    });
+  }
+
+  /**
+   * Creates a monitor and starts listening to upload progress. Must be called on the EDT and
+   * followed by {@link #close()} once the upload is done.
+   * 
+   * @param parent
+   * @param projectName
+   * @return
+   */
+  public static UploadProgressMonitor start(Component parent, String projectName) {
+    UploadProgressMonitor monitor = new UploadProgressMonitor(parent, projectName);
+    CloudPresenter.Instance.addCloudListener(monitor);
+    monitor.cancelTimer.start();
+    return monitor;
+  }
+
+  /**
+   * Stops listening and hides the dialog. Can be called from any thread.
+   */
+  public void close() {
+    CloudPresenter.Instance.removeCloudListener(this);
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        cancelTimer.stop();
+        monitor.close();
+      }
+    });
+  }
+
+  @Override
+  public void uploadProgress(String projectName, final long bytesSent, final long totalBytes) {
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        if (monitor.isCanceled()) {
+          return;
+        }
+        monitor.setNote(String.format("%d of %d KB", bytesSent / 1024, totalBytes / 1024));
+        monitor.setProgress(totalBytes == 0 ? SCALE : (int) (SCALE * bytesSent / totalBytes));
+      }
+    });
+  }
+
+  @Override
+  public void loggedIn() {}
+
+  @Override
+  public void loggedOut() {}
+}
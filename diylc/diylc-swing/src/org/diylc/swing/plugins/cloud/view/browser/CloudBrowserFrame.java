@@ -29,6 +29,7 @@ import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
 import javax.swing.JFrame;
@@ -86,6 +87,16 @@ public class CloudBrowserFrame extends JFrame implements ISimpleView {
     this.setPreferredSize(new Dimension(700, 640));
     this.plugInPort = plugInPort;
     this.searchSession = new SearchSession();
+    // Start loading thumbnails of the next page before the user scrolls down to it.
+    this.searchSession.setPrefetchListener(new SearchSession.IPrefetchListener() {
+
+      @Override
+      public void pagePrefetched(List<ProjectEntity> projects) {
+        for (ProjectEntity project : projects) {
+          ThumbnailLoader.getInstance().prefetch(project);
+        }
+      }
+    });
 
     setContentPane(getSearchPanel());
     this.pack();
@@ -217,6 +228,10 @@ public class CloudBrowserFrame extends JFrame implements ISimpleView {
 
       @Override
       public void failed(Exception e) {
+        if (e.getCause() instanceof CancellationException) {
+          // Superseded by a newer search.
+          return;
+        }
         showMessage("Search failed! Detailed message is in the logs. Please report to the author.", "Search Failed",
             IView.ERROR_MESSAGE);
       }
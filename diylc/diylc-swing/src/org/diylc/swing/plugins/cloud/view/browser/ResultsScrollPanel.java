@@ -23,6 +23,7 @@ package org.diylc.swing.plugins.cloud.view.browser;
 
 import java.awt.Color;
 import java.awt.Cursor;
+import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Graphics;
 import java.awt.GridBagConstraints;
@@ -31,13 +32,14 @@ import java.awt.Insets;
 import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.net.URL;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.imageio.ImageIO;
 import javax.swing.Icon;
@@ -73,6 +75,7 @@ import org.diylc.swing.gui.components.HTMLTextArea;
 import org.diylc.swing.gui.editor.PropertyEditorDialog;
 import org.diylc.swing.plugins.cloud.view.CommentDialog;
 import org.diylc.swing.plugins.cloud.view.UploadDialog;
+import org.diylc.swing.plugins.cloud.view.UploadProgressMonitor;
 import org.diylc.swing.plugins.file.FileFilterEnum;
 import org.diylc.swingframework.ButtonDialog;
 
@@ -90,6 +93,9 @@ public class ResultsScrollPanel extends JScrollPane {
 
   private static final Logger LOG = Logger.getLogger(ResultsScrollPanel.class);
 
+  // Cloud thumbnails fit into a square of this size.
+  private static final int THUMBNAIL_SIZE = 192;
+
   private JPanel resultsPanel;
   /**
    * This label goes at the end of the page. When it gets rendered we know that we need to request
@@ -210,7 +216,23 @@ public class ResultsScrollPanel extends JScrollPane {
   }
 
   private JComponent addProjectToDisplay(final ProjectEntity project) {
-    final JLabel thumbnailLabel = new JLabel(loadImage(project.getThumbnailUrl()));
+    final JLabel thumbnailLabel = new JLabel();
+    // Reserve the space up front so rows don't jump around as thumbnails come in.
+    thumbnailLabel.setPreferredSize(new Dimension(THUMBNAIL_SIZE, THUMBNAIL_SIZE));
+    thumbnailLabel.setVerticalAlignment(SwingConstants.TOP);
+    Icon thumbnail = ThumbnailLoader.getInstance().getCached(project);
+    if (thumbnail == null) {
+      thumbnailLabel.setIcon(IconLoader.CloudWait.getIcon());
+      ThumbnailLoader.getInstance().request(project, new ThumbnailLoader.IThumbnailListener() {
+
+        @Override
+        public void thumbnailLoaded(ProjectEntity project, Icon thumbnail) {
+          thumbnailLabel.setIcon(thumbnail);
+        }
+      });
+    } else {
+      thumbnailLabel.setIcon(thumbnail);
+    }
     final JLabel nameLabel = new JLabel("<html><b>" + project.getName() + "</b></html>");
     nameLabel.setFont(nameLabel.getFont().deriveFont(12f));
 
@@ -378,6 +400,7 @@ public class ResultsScrollPanel extends JScrollPane {
 
             @Override
             public void complete(ProjectEntity result) {
+              SearchSession.clearCache();
               nameLabel.setText("<html><b>" + project.getName() + "</b></html>");
               descriptionArea.setText(result.getDescription());
               categoryLabel.setText("<html>Category: <b>" + result.getCategory() + "</b></html>");
@@ -427,23 +450,33 @@ public class ResultsScrollPanel extends JScrollPane {
                   try {
                     final File thumbnailFile = File.createTempFile("upload-thumbnail", ".png");
                     if (ImageIO.write(dialog.getThumbnail(), "png", thumbnailFile)) {
+                      final UploadProgressMonitor progress =
+                          UploadProgressMonitor.start(cloudUI.getOwnerFrame(), dialog.getName());
                       cloudUI.executeBackgroundTask(new ITask<ProjectEntity>() {
 
                         @Override
                         public ProjectEntity doInBackground() throws Exception {
-                          CloudPresenter.Instance.uploadProject(dialog.getName(), dialog.getCategory(), dialog
-                              .getDescription(), dialog.getKeywords(), plugInPort.getCurrentVersionNumber().toString(),
-                              thumbnailFile, file, project.getId());
+                          try {
+                            CloudPresenter.Instance.uploadProject(dialog.getName(), dialog.getCategory(), dialog
+                                .getDescription(), dialog.getKeywords(), plugInPort.getCurrentVersionNumber()
+                                .toString(), thumbnailFile, file, project.getId());
+                          } finally {
+                            progress.close();
+                          }
                           return CloudPresenter.Instance.fetchUserUploads(project.getId()).get(0);
                         }
 
                         @Override
                         public void failed(Exception e) {
+                          if (e.getCause() instanceof CancellationException) {
+                            return;
+                          }
                           cloudUI.showMessage(e.getMessage(), "Upload Error", IView.ERROR_MESSAGE);
                         }
 
                         @Override
                         public void complete(ProjectEntity result) {
+                          SearchSession.clearCache();
                           nameLabel.setText("<html><b>" + project.getName() + "</b></html>");
                           descriptionArea.setText(result.getDescription());
                           categoryLabel.setText("<html>Category: <b>" + result.getCategory() + "</b></html>");
@@ -500,6 +533,7 @@ public class ResultsScrollPanel extends JScrollPane {
 
             @Override
             public void complete(Void result) {
+              SearchSession.clearCache();
               getResultsPanel().remove(thumbnailLabel);
               getResultsPanel().remove(nameLabel);
               getResultsPanel().remove(spacerLabel);
@@ -642,6 +676,13 @@ public class ResultsScrollPanel extends JScrollPane {
                 try {
                   List<ProjectEntity> newResults = get();
                   addData(newResults);
+                } catch (ExecutionException e) {
+                  if (e.getCause() instanceof CancellationException) {
+                    LOG.info("Dropping results of a previous search");
+                    return;
+                  }
+                  cloudUI.showMessage("Search failed! Detailed message is in the logs.", "Search Failed",
+                      IView.ERROR_MESSAGE);
                 } catch (Exception e) {
                   cloudUI.showMessage("Search failed! Detailed message is in the logs.", "Search Failed",
                       IView.ERROR_MESSAGE);
@@ -665,13 +706,4 @@ public class ResultsScrollPanel extends JScrollPane {
     }
     return resultsPanel;
   }
-
-  private Icon loadImage(String imageFile) {
-    try {
-      BufferedImage img = ImageIO.read(new File(imageFile));
-      return new ImageIcon(img);
-    } catch (Exception e) {
-      return IconLoader.MissingImage.getIcon();
-    }
-  }
 }
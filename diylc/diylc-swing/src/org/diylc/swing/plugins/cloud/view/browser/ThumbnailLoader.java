@@ -0,0 +1,271 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.cloud.view.browser;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+import org.apache.log4j.Logger;
+import org.diylc.appframework.miscutils.Utils;
+import org.diylc.images.IconLoader;
+import org.diylc.plugins.cloud.model.ProjectEntity;
+
+/**
+ * Loads cloud project thumbnails in background. Decoded thumbnails are kept in a memory LRU cache
+ * and downloaded images are kept on disk, both keyed by project id and the time it was last
+ * updated, so a thumbnail is downloaded again only after the project changes.
+ */
+public class ThumbnailLoader {
+
+  private static final Logger LOG = Logger.getLogger(ThumbnailLoader.class);
+
+  private static final String CACHE_DIR = Utils.getUserDataDirectory("diylc") + "cloud-thumbnails";
+  private static final String EXTENSION = ".png";
+  private static final int THREAD_COUNT = 4;
+  private static final int MAX_MEMORY_ENTRIES = 200;
+  private static final int MAX_DISK_ENTRIES = 2000;
+  private static final int TIMEOUT = 15000;
+
+  private static ThumbnailLoader instance;
+
+  public static synchronized ThumbnailLoader getInstance() {
+    if (instance == null) {
+      instance = new ThumbnailLoader();
+    }
+    return instance;
+  }
+
+  private final Map<String, Icon> memoryCache = new LinkedHashMap<String, Icon>(16, 0.75f, true) {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Icon> eldest) {
+      return size() > MAX_MEMORY_ENTRIES;
+    }
+  };
+
+  // Listeners waiting for each thumbnail that is being loaded, so it's loaded only once.
+  private final Map<String, List<IThumbnailListener>> pending = new HashMap<String, List<IThumbnailListener>>();
+
+  private final ExecutorService executor;
+
+  private ThumbnailLoader() {
+    executor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Cloud thumbnail loader " + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        pruneDiskCache();
+      }
+    });
+  }
+
+  /**
+   * @param project
+   * @return thumbnail if it's available in memory, <code>null</code> otherwise
+   */
+  public synchronized Icon getCached(ProjectEntity project) {
+    return memoryCache.get(getKey(project));
+  }
+
+  /**
+   * Loads the thumbnail from disk or downloads it in background and notifies the listener on the
+   * EDT. If the thumbnail cannot be loaded, the listener receives a placeholder icon.
+   *
+   * @param project
+   * @param listener
+   */
+  public void request(final ProjectEntity project, IThumbnailListener listener) {
+    final String key = getKey(project);
+    synchronized (this) {
+      List<IThumbnailListener> listeners = pending.get(key);
+      if (listeners != null) {
+        listeners.add(listener);
+        return;
+      }
+      listeners = new ArrayList<IThumbnailListener>();
+      listeners.add(listener);
+      pending.put(key, listeners);
+    }
+    executor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        final Icon icon = load(key, project.getThumbnailUrl());
+        final List<IThumbnailListener> listeners;
+        synchronized (ThumbnailLoader.this) {
+          listeners = pending.remove(key);
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+
+          @Override
+          public void run() {
+            for (IThumbnailListener listener : listeners) {
+              if (listener != null) {
+                listener.thumbnailLoaded(project, icon);
+              }
+            }
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Loads the thumbnail into the cache in background, if it's not already there.
+   *
+   * @param project
+   */
+  public void prefetch(ProjectEntity project) {
+    if (getCached(project) == null) {
+      request(project, null);
+    }
+  }
+
+  private Icon load(String key, String url) {
+    File cacheFile = new File(CACHE_DIR, key + EXTENSION);
+    BufferedImage image = null;
+    if (cacheFile.exists()) {
+      try {
+        image = ImageIO.read(cacheFile);
+        // Mark as recently used.
+        cacheFile.setLastModified(System.currentTimeMillis());
+      } catch (IOException e) {
+        LOG.debug("Could not read thumbnail " + cacheFile.getAbsolutePath(), e);
+      }
+    }
+    if (image == null && url != null) {
+      try {
+        download(url, cacheFile);
+        image = ImageIO.read(cacheFile);
+      } catch (IOException e) {
+        LOG.debug("Could not download thumbnail " + url, e);
+        cacheFile.delete();
+      }
+    }
+    if (image == null) {
+      // Not cached, try again next time.
+      return IconLoader.MissingImage.getIcon();
+    }
+    Icon icon = new ImageIcon(image);
+    synchronized (this) {
+      memoryCache.put(key, icon);
+    }
+    return icon;
+  }
+
+  private void download(String url, File cacheFile) throws IOException {
+    File dir = cacheFile.getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Could not create thumbnail cache directory " + dir.getAbsolutePath());
+    }
+    URLConnection connection = new URL(url).openConnection();
+    connection.setConnectTimeout(TIMEOUT);
+    connection.setReadTimeout(TIMEOUT);
+    // Write to a temp file first so a half downloaded thumbnail is never picked up.
+    File tempFile = new File(dir, cacheFile.getName() + "." + Thread.currentThread().getId() + ".tmp");
+    InputStream in = connection.getInputStream();
+    try {
+      OutputStream out = new FileOutputStream(tempFile);
+      try {
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+          out.write(buffer, 0, count);
+        }
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      tempFile.delete();
+      throw e;
+    } finally {
+      in.close();
+    }
+    cacheFile.delete();
+    if (!tempFile.renameTo(cacheFile)) {
+      tempFile.delete();
+      throw new IOException("Could not write thumbnail " + cacheFile.getAbsolutePath());
+    }
+  }
+
+  private void pruneDiskCache() {
+    File[] files = new File(CACHE_DIR).listFiles();
+    if (files == null || files.length <= MAX_DISK_ENTRIES) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+
+      @Override
+      public int compare(File o1, File o2) {
+        return Long.valueOf(o1.lastModified()).compareTo(o2.lastModified());
+      }
+    });
+    for (int i = 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+      files[i].delete();
+    }
+    LOG.debug("Pruned " + (files.length - MAX_DISK_ENTRIES) + " cloud thumbnails");
+  }
+
+  private static String getKey(ProjectEntity project) {
+    String updated = project.getUpdated() == null ? "" : project.getUpdated();
+    return project.getId() + "-" + Integer.toHexString(updated.hashCode());
+  }
+
+  public interface IThumbnailListener {
+
+    void thumbnailLoaded(ProjectEntity project, Icon thumbnail);
+  }
+}
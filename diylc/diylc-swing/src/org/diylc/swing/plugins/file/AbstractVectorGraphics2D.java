@@ -0,0 +1,596 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * Base for {@link Graphics2D} implementations that don't rasterize but pass the drawing on
+ * somewhere else, e.g. to a file. Keeps track of the graphics state and reduces all the drawing
+ * methods to {@link #draw(Shape)}, {@link #fill(Shape)}, {@link #drawString(String, float, float)}
+ * and {@link #drawImage(Image, AffineTransform, ImageObserver)}.
+ * <br>
+ * Clip is kept in device space, so it's not affected by later transform changes.
+ */
+public abstract class AbstractVectorGraphics2D extends Graphics2D {
+
+  // Used to measure text. Vector output is not snapped to pixels, so use fractional metrics.
+  private static final Graphics2D SCRATCH_GRAPHICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
+      .createGraphics();
+
+  static {
+    SCRATCH_GRAPHICS.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+        RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+  }
+
+  protected AffineTransform transform;
+  protected Shape clip;
+  protected Paint paint;
+  protected Color color;
+  protected Color background;
+  protected Stroke stroke;
+  protected Font font;
+  protected Composite composite;
+  protected RenderingHints hints;
+
+  protected AbstractVectorGraphics2D() {
+    this.transform = new AffineTransform();
+    this.clip = null;
+    this.color = Color.black;
+    this.paint = color;
+    this.background = Color.white;
+    this.stroke = new BasicStroke();
+    this.font = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    this.composite = AlphaComposite.SrcOver;
+    this.hints = new RenderingHints(null);
+  }
+
+  /**
+   * Creates a copy with the same graphics state as the source.
+   *
+   * @param source
+   */
+  protected AbstractVectorGraphics2D(AbstractVectorGraphics2D source) {
+    this.transform = new AffineTransform(source.transform);
+    this.clip = source.clip;
+    this.color = source.color;
+    this.paint = source.paint;
+    this.background = source.background;
+    this.stroke = source.stroke;
+    this.font = source.font;
+    this.composite = source.composite;
+    this.hints = (RenderingHints) source.hints.clone();
+  }
+
+  @Override
+  public void drawString(String str, int x, int y) {
+    drawString(str, (float) x, (float) y);
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+    if (iterator.getBeginIndex() == iterator.getEndIndex()) {
+      return;
+    }
+    fill(new TextLayout(iterator, getFontRenderContext()).getOutline(AffineTransform.getTranslateInstance(x, y)));
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+    drawString(iterator, (float) x, (float) y);
+  }
+
+  @Override
+  public void drawGlyphVector(GlyphVector g, float x, float y) {
+    fill(g.getOutline(x, y));
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+    return drawImage(img, AffineTransform.getTranslateInstance(x, y), observer);
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+    return drawImage(img, x, y, img.getWidth(observer), img.getHeight(observer), bgcolor, observer);
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+    int imageWidth = img.getWidth(observer);
+    int imageHeight = img.getHeight(observer);
+    if (imageWidth <= 0 || imageHeight <= 0) {
+      return false;
+    }
+    AffineTransform tx = AffineTransform.getTranslateInstance(x, y);
+    tx.scale(1d * width / imageWidth, 1d * height / imageHeight);
+    return drawImage(img, tx, observer);
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor, ImageObserver observer) {
+    fillBackground(bgcolor, new Rectangle(x, y, width, height));
+    return drawImage(img, x, y, width, height, observer);
+  }
+
+  @Override
+  public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+      ImageObserver observer) {
+    BufferedImage image = toBufferedImage(img, observer);
+    if (image == null) {
+      return false;
+    }
+    int x = Math.max(0, Math.min(sx1, sx2));
+    int y = Math.max(0, Math.min(sy1, sy2));
+    int width = Math.min(image.getWidth(), Math.max(sx1, sx2)) - x;
+    int height = Math.min(image.getHeight(), Math.max(sy1, sy2)) - y;
+    if (width <= 0 || height <= 0) {
+      return true;
+    }
+    // Map the source rectangle onto the destination one, flipping if needed.
+    AffineTransform tx = AffineTransform.getTranslateInstance(dx1, dy1);
+    tx.scale(1d * (dx2 - dx1) / (sx2 - sx1), 1d * (dy2 - dy1) / (sy2 - sy1));
+    tx.translate(x - sx1, y - sy1);
+    return drawImage(image.getSubimage(x, y, width, height), tx, observer);
+  }
+
+  @Override
+  public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+      Color bgcolor, ImageObserver observer) {
+    fillBackground(bgcolor, new Rectangle(Math.min(dx1, dx2), Math.min(dy1, dy2), Math.abs(dx2 - dx1), Math
+        .abs(dy2 - dy1)));
+    return drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+  }
+
+  @Override
+  public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {
+    drawImage(op == null ? img : op.filter(img, null), x, y, null);
+  }
+
+  @Override
+  public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+    if (img instanceof BufferedImage) {
+      drawImage((BufferedImage) img, xform, null);
+      return;
+    }
+    ColorModel colorModel = img.getColorModel();
+    WritableRaster raster = colorModel.createCompatibleWritableRaster(img.getWidth(), img.getHeight());
+    img.copyData(raster);
+    drawImage(new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(),
+        new Hashtable<String, Object>()), xform, null);
+  }
+
+  @Override
+  public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+    drawRenderedImage(img.createDefaultRendering(), xform);
+  }
+
+  protected void fillBackground(Color bgcolor, Shape s) {
+    if (bgcolor == null) {
+      return;
+    }
+    Paint oldPaint = paint;
+    paint = bgcolor;
+    fill(s);
+    paint = oldPaint;
+  }
+
+  protected BufferedImage toBufferedImage(Image img, ImageObserver observer) {
+    if (img == null) {
+      return null;
+    }
+    if (img instanceof BufferedImage) {
+      return (BufferedImage) img;
+    }
+    int width = img.getWidth(observer);
+    int height = img.getHeight(observer);
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g2d = image.createGraphics();
+    g2d.drawImage(img, 0, 0, observer);
+    g2d.dispose();
+    return image;
+  }
+
+  // Shape helpers from java.awt.Graphics
+
+  @Override
+  public void drawLine(int x1, int y1, int x2, int y2) {
+    draw(new Line2D.Float(x1, y1, x2, y2));
+  }
+
+  @Override
+  public void fillRect(int x, int y, int width, int height) {
+    fill(new Rectangle(x, y, width, height));
+  }
+
+  @Override
+  public void clearRect(int x, int y, int width, int height) {
+    Composite oldComposite = composite;
+    composite = AlphaComposite.Src;
+    fillBackground(background, new Rectangle(x, y, width, height));
+    composite = oldComposite;
+  }
+
+  @Override
+  public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    draw(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  @Override
+  public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    fill(new RoundRectangle2D.Float(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  @Override
+  public void drawOval(int x, int y, int width, int height) {
+    draw(new Ellipse2D.Float(x, y, width, height));
+  }
+
+  @Override
+  public void fillOval(int x, int y, int width, int height) {
+    fill(new Ellipse2D.Float(x, y, width, height));
+  }
+
+  @Override
+  public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    draw(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+  }
+
+  @Override
+  public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    fill(new Arc2D.Float(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+  }
+
+  @Override
+  public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+    if (nPoints < 2) {
+      return;
+    }
+    Path2D path = new Path2D.Float();
+    path.moveTo(xPoints[0], yPoints[0]);
+    for (int i = 1; i < nPoints; i++) {
+      path.lineTo(xPoints[i], yPoints[i]);
+    }
+    draw(path);
+  }
+
+  @Override
+  public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    draw(new Polygon(xPoints, yPoints, nPoints));
+  }
+
+  @Override
+  public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    fill(new Polygon(xPoints, yPoints, nPoints));
+  }
+
+  @Override
+  public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    // There's nothing to copy from in a vector document.
+  }
+
+  @Override
+  public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+    if (onStroke) {
+      s = stroke.createStrokedShape(s);
+    }
+    return transform.createTransformedShape(s).intersects(rect);
+  }
+
+  // State
+
+  @Override
+  public void dispose() {}
+
+  @Override
+  public GraphicsConfiguration getDeviceConfiguration() {
+    return SCRATCH_GRAPHICS.getDeviceConfiguration();
+  }
+
+  @Override
+  public FontRenderContext getFontRenderContext() {
+    return new FontRenderContext(null, RenderingHints.VALUE_TEXT_ANTIALIAS_ON.equals(hints
+        .get(RenderingHints.KEY_TEXT_ANTIALIASING)), RenderingHints.VALUE_FRACTIONALMETRICS_ON.equals(hints
+        .get(RenderingHints.KEY_FRACTIONALMETRICS)));
+  }
+
+  @Override
+  public FontMetrics getFontMetrics(Font f) {
+    synchronized (SCRATCH_GRAPHICS) {
+      return SCRATCH_GRAPHICS.getFontMetrics(f);
+    }
+  }
+
+  @Override
+  public Font getFont() {
+    return font;
+  }
+
+  @Override
+  public void setFont(Font font) {
+    if (font != null) {
+      this.font = font;
+    }
+  }
+
+  @Override
+  public Color getColor() {
+    return color;
+  }
+
+  @Override
+  public void setColor(Color c) {
+    if (c != null) {
+      this.color = c;
+      this.paint = c;
+    }
+  }
+
+  @Override
+  public Paint getPaint() {
+    return paint;
+  }
+
+  @Override
+  public void setPaint(Paint paint) {
+    if (paint instanceof Color) {
+      setColor((Color) paint);
+    } else if (paint != null) {
+      this.paint = paint;
+    }
+  }
+
+  @Override
+  public void setPaintMode() {}
+
+  @Override
+  public void setXORMode(Color c1) {
+    // XOR has no meaning in SVG, keep painting normally.
+  }
+
+  @Override
+  public Color getBackground() {
+    return background;
+  }
+
+  @Override
+  public void setBackground(Color color) {
+    this.background = color;
+  }
+
+  @Override
+  public Composite getComposite() {
+    return composite;
+  }
+
+  @Override
+  public void setComposite(Composite comp) {
+    if (comp != null) {
+      this.composite = comp;
+    }
+  }
+
+  @Override
+  public Stroke getStroke() {
+    return stroke;
+  }
+
+  @Override
+  public void setStroke(Stroke s) {
+    if (s != null) {
+      this.stroke = s;
+    }
+  }
+
+  @Override
+  public Object getRenderingHint(RenderingHints.Key hintKey) {
+    return hints.get(hintKey);
+  }
+
+  @Override
+  public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+    hints.put(hintKey, hintValue);
+  }
+
+  @Override
+  public RenderingHints getRenderingHints() {
+    return (RenderingHints) hints.clone();
+  }
+
+  @Override
+  public void setRenderingHints(Map<?, ?> hints) {
+    this.hints.clear();
+    this.hints.putAll(hints);
+  }
+
+  @Override
+  public void addRenderingHints(Map<?, ?> hints) {
+    this.hints.putAll(hints);
+  }
+
+  // Transform
+
+  @Override
+  public AffineTransform getTransform() {
+    return new AffineTransform(transform);
+  }
+
+  @Override
+  public void setTransform(AffineTransform tx) {
+    transform = new AffineTransform(tx);
+  }
+
+  @Override
+  public void transform(AffineTransform tx) {
+    transform.concatenate(tx);
+  }
+
+  @Override
+  public void translate(int x, int y) {
+    transform.translate(x, y);
+  }
+
+  @Override
+  public void translate(double tx, double ty) {
+    transform.translate(tx, ty);
+  }
+
+  @Override
+  public void rotate(double theta) {
+    transform.rotate(theta);
+  }
+
+  @Override
+  public void rotate(double theta, double x, double y) {
+    transform.rotate(theta, x, y);
+  }
+
+  @Override
+  public void scale(double sx, double sy) {
+    transform.scale(sx, sy);
+  }
+
+  @Override
+  public void shear(double shx, double shy) {
+    transform.shear(shx, shy);
+  }
+
+  // Clip, kept in device space
+
+  @Override
+  public Shape getClip() {
+    if (clip == null) {
+      return null;
+    }
+    try {
+      return transform.createInverse().createTransformedShape(clip);
+    } catch (NoninvertibleTransformException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Rectangle getClipBounds() {
+    Shape userClip = getClip();
+    return userClip == null ? null : userClip.getBounds();
+  }
+
+  @Override
+  public void setClip(Shape clip) {
+    this.clip = clip == null ? null : toDeviceClip(clip);
+  }
+
+  @Override
+  public void setClip(int x, int y, int width, int height) {
+    setClip(new Rectangle(x, y, width, height));
+  }
+
+  @Override
+  public void clip(Shape s) {
+    if (s == null) {
+      clip = null;
+      return;
+    }
+    Shape deviceClip = toDeviceClip(s);
+    if (clip == null) {
+      clip = deviceClip;
+    } else if (clip instanceof Rectangle2D && deviceClip instanceof Rectangle2D) {
+      Rectangle2D intersection = new Rectangle2D.Double();
+      Rectangle2D.intersect((Rectangle2D) clip, (Rectangle2D) deviceClip, intersection);
+      clip = intersection;
+    } else {
+      Area area = new Area(clip);
+      area.intersect(new Area(deviceClip));
+      clip = area;
+    }
+  }
+
+  @Override
+  public void clipRect(int x, int y, int width, int height) {
+    clip(new Rectangle(x, y, width, height));
+  }
+
+  private Shape toDeviceClip(Shape s) {
+    if (s instanceof Rectangle2D && transform.getShearX() == 0 && transform.getShearY() == 0) {
+      return transform.createTransformedShape(s).getBounds2D();
+    }
+    return transform.createTransformedShape(s);
+  }
+
+  protected boolean isClippedOut(Rectangle2D deviceBounds) {
+    return clip != null && !clip.intersects(deviceBounds);
+  }
+
+  /**
+   * @param tx
+   * @return true if the transform scales equally in all directions, so strokes keep their shape
+   */
+  protected static boolean isConformal(AffineTransform tx) {
+    double m00 = tx.getScaleX();
+    double m10 = tx.getShearY();
+    double m01 = tx.getShearX();
+    double m11 = tx.getScaleY();
+    double scale = Math.max(Math.abs(m00) + Math.abs(m10), Math.abs(m01) + Math.abs(m11));
+    double epsilon = 1e-6 * Math.max(scale * scale, 1e-12);
+    return Math.abs(m00 * m01 + m10 * m11) < epsilon
+        && Math.abs(m00 * m00 + m10 * m10 - m01 * m01 - m11 * m11) < epsilon;
+  }
+}
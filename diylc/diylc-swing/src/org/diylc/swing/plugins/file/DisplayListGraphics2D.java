@@ -0,0 +1,278 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.RectangularShape;
+import java.awt.image.ImageObserver;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Graphics2D} that records the drawing into a display list instead of rendering it. The
+ * list can later be replayed onto any other {@link Graphics2D}, on any thread, which allows
+ * drawing to be done in parallel and rendering in order.
+ * <br>
+ * Consecutive operations that are drawn with the same graphics state share one snapshot of it, so
+ * the list stays compact and replaying only touches the target state when it really changes.
+ */
+public class DisplayListGraphics2D extends AbstractVectorGraphics2D {
+
+  private final List<Operation> operations;
+  private State state;
+
+  public DisplayListGraphics2D() {
+    super();
+    this.operations = new ArrayList<Operation>();
+  }
+
+  private DisplayListGraphics2D(DisplayListGraphics2D source) {
+    super(source);
+    this.operations = source.operations;
+  }
+
+  /**
+   * @return number of recorded drawing operations
+   */
+  public int size() {
+    return operations.size();
+  }
+
+  /**
+   * Draws everything that has been recorded onto the specified graphics, on top of its current
+   * transform.
+   *
+   * @param g2d
+   */
+  public void replay(Graphics2D g2d) {
+    AffineTransform baseTx = g2d.getTransform();
+    State applied = null;
+    for (Operation operation : operations) {
+      if (operation.state != applied) {
+        operation.state.apply(g2d, baseTx, applied);
+        applied = operation.state;
+      }
+      operation.replay(g2d);
+    }
+  }
+
+  @Override
+  public void draw(Shape s) {
+    operations.add(new ShapeOperation(getState(), copy(s), false));
+  }
+
+  @Override
+  public void fill(Shape s) {
+    operations.add(new ShapeOperation(getState(), copy(s), true));
+  }
+
+  @Override
+  public void drawString(String str, float x, float y) {
+    if (str != null && str.length() > 0) {
+      operations.add(new TextOperation(getState(), str, x, y));
+    }
+  }
+
+  @Override
+  public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+    if (img == null) {
+      return false;
+    }
+    operations.add(new ImageOperation(getState(), img, xform == null ? new AffineTransform()
+        : new AffineTransform(xform)));
+    return true;
+  }
+
+  @Override
+  public Graphics create() {
+    return new DisplayListGraphics2D(this);
+  }
+
+  /**
+   * Copies simple shapes that are commonly reused and modified by the caller between drawing
+   * calls. Paths and areas are kept as they are, copying those would be expensive.
+   */
+  private static Shape copy(Shape s) {
+    if (s instanceof RectangularShape) {
+      return (Shape) ((RectangularShape) s).clone();
+    }
+    if (s instanceof Line2D) {
+      return (Shape) ((Line2D) s).clone();
+    }
+    if (s instanceof Polygon) {
+      Polygon polygon = (Polygon) s;
+      return new Polygon(polygon.xpoints, polygon.ypoints, polygon.npoints);
+    }
+    return s;
+  }
+
+  private State getState() {
+    if (state == null || !state.matches(this)) {
+      state = new State(this);
+    }
+    return state;
+  }
+
+  /**
+   * Snapshot of the graphics state shared by consecutive operations.
+   */
+  private static class State {
+
+    private final AffineTransform transform;
+    private final Shape clip;
+    private final Paint paint;
+    private final Color background;
+    private final Stroke stroke;
+    private final Font font;
+    private final Composite composite;
+    private final RenderingHints hints;
+
+    public State(AbstractVectorGraphics2D g2d) {
+      this.transform = new AffineTransform(g2d.transform);
+      this.clip = g2d.clip;
+      this.paint = g2d.paint;
+      this.background = g2d.background;
+      this.stroke = g2d.stroke;
+      this.font = g2d.font;
+      this.composite = g2d.composite;
+      this.hints = (RenderingHints) g2d.hints.clone();
+    }
+
+    public boolean matches(AbstractVectorGraphics2D g2d) {
+      return clip == g2d.clip && paint == g2d.paint && background == g2d.background && stroke == g2d.stroke
+          && font == g2d.font && composite == g2d.composite && transform.equals(g2d.transform)
+          && hints.equals(g2d.hints);
+    }
+
+    public void apply(Graphics2D g2d, AffineTransform baseTx, State previous) {
+      boolean clipChanged = previous == null || clip != previous.clip;
+      if (clipChanged) {
+        // Clip is recorded in device space.
+        g2d.setTransform(baseTx);
+        g2d.setClip(clip);
+      }
+      if (clipChanged || !transform.equals(previous.transform)) {
+        AffineTransform tx = new AffineTransform(baseTx);
+        tx.concatenate(transform);
+        g2d.setTransform(tx);
+      }
+      if (previous == null || paint != previous.paint) {
+        g2d.setPaint(paint);
+      }
+      if (previous == null || background != previous.background) {
+        g2d.setBackground(background);
+      }
+      if (previous == null || stroke != previous.stroke) {
+        g2d.setStroke(stroke);
+      }
+      if (previous == null || font != previous.font) {
+        g2d.setFont(font);
+      }
+      if (previous == null || composite != previous.composite) {
+        g2d.setComposite(composite);
+      }
+      if (previous == null || !hints.equals(previous.hints)) {
+        g2d.setRenderingHints(hints);
+      }
+    }
+  }
+
+  private abstract static class Operation {
+
+    protected final State state;
+
+    public Operation(State state) {
+      this.state = state;
+    }
+
+    public abstract void replay(Graphics2D g2d);
+  }
+
+  private static class ShapeOperation extends Operation {
+
+    private final Shape shape;
+    private final boolean fill;
+
+    public ShapeOperation(State state, Shape shape, boolean fill) {
+      super(state);
+      this.shape = shape;
+      this.fill = fill;
+    }
+
+    @Override
+    public void replay(Graphics2D g2d) {
+      if (fill) {
+        g2d.fill(shape);
+      } else {
+        g2d.draw(shape);
+      }
+    }
+  }
+
+  private static class TextOperation extends Operation {
+
+    private final String text;
+    private final float x;
+    private final float y;
+
+    public TextOperation(State state, String text, float x, float y) {
+      super(state);
+      this.text = text;
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public void replay(Graphics2D g2d) {
+      g2d.drawString(text, x, y);
+    }
+  }
+
+  private static class ImageOperation extends Operation {
+
+    private final Image image;
+    private final AffineTransform xform;
+
+    public ImageOperation(State state, Image image, AffineTransform xform) {
+      super(state);
+      this.image = image;
+      this.xform = xform;
+    }
+
+    @Override
+    public void replay(Graphics2D g2d) {
+      g2d.drawImage(image, xform, null);
+    }
+  }
+}
@@ -27,9 +27,9 @@ import javax.swing.filechooser.FileFilter;
 
 public enum FileFilterEnum {
 
-  PNG("PNG Images (*.png)", "png"), PDF("PDF Files (*.pdf)", "pdf"), DIY("DIY Project Files (*.diy)", "diy"), EXCEL(
+  PNG("PNG Images (*.png)", "png"), PDF("PDF Files (*.pdf)", "pdf"), SVG("SVG Images (*.svg)", "svg"), DIY("DIY Project Files (*.diy)", "diy"), EXCEL(
       "Excel Workbooks (*.xls)", "xls"), CSV("Comma Separated Files (*.csv)", "csv"), HTML("HTML Files (*.html)",
-      "html"), IMAGES("Image Files (*.png, *.jpg, *.gif)", "png", "jpg", "gif"), XML("XML Files (*.xml)", "xml");
+      "html"), GERBER("Gerber Files (*.gbr)", "gbr"), IMAGES("Image Files (*.png, *.jpg, *.gif)", "png", "jpg", "gif"), XML("XML Files (*.xml)", "xml");
 
   FileFilter filter;
   String[] extensions;
@@ -0,0 +1,176 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.Dimension;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+import org.diylc.common.IPlugInPort;
+import org.diylc.swing.plugins.file.GerberGraphics2D.Hole;
+import org.diylc.utils.Constants;
+
+/**
+ * Exports PCB layers of the project as fabrication files: one Gerber RS-274X file per copper layer
+ * and an Excellon file with all the drilled holes. Geometry is taken straight from the drawing
+ * code through {@link GerberGraphics2D}, nothing is rasterized on the way.
+ */
+public class GerberExporter {
+
+  private static final Logger LOG = Logger.getLogger(GerberExporter.class);
+
+  public static final String TOLERANCE_KEY = "gerberTolerance";
+  /**
+   * Default curve flattening tolerance in millimeters, well below what board houses can etch.
+   */
+  public static final double DEFAULT_TOLERANCE = 0.01;
+
+  private static GerberExporter instance;
+
+  public static synchronized GerberExporter getInstance() {
+    if (instance == null) {
+      instance = new GerberExporter();
+    }
+    return instance;
+  }
+
+  private GerberExporter() {}
+
+  /**
+   * Writes <code>&lt;name&gt;_L&lt;layer&gt;.gbr</code> for each used copper layer and
+   * <code>&lt;name&gt;.drl</code> if there are any holes, next to the specified file.
+   *
+   * @param plugInPort
+   * @param file
+   * @param tolerance maximum deviation of flattened curves, in millimeters
+   * @return files that were written
+   * @throws IOException
+   */
+  public List<File> exportGerber(IPlugInPort plugInPort, File file, double tolerance) throws IOException {
+    TraceMaskDrawingProvider provider = new TraceMaskDrawingProvider(plugInPort);
+    int pageCount = provider.getPageCount();
+    if (pageCount == 0) {
+      throw new IOException("The project has no copper layers");
+    }
+    // Draw in project pixels rather than screen pixels.
+    double zoom = Constants.PIXEL_SIZE;
+    Dimension size = provider.getSize();
+    double height = size.getHeight() * zoom;
+    String baseName = file.getAbsolutePath().replaceAll("(?i)\\.(gbr|drl)$", "");
+    long start = System.currentTimeMillis();
+
+    List<File> files = new ArrayList<File>();
+    List<Hole> holes = new ArrayList<Hole>();
+    for (int i = 0; i < pageCount; i++) {
+      GerberGraphics2D g2d =
+          new GerberGraphics2D(height, Constants.PIXELS_PER_INCH, tolerance, plugInPort.getSelectedTheme()
+              .getBgColor(), Constants.CANVAS_COLOR);
+      provider.draw(i, g2d, zoom);
+      holes.addAll(g2d.getHoles());
+      if (g2d.isEmpty()) {
+        continue;
+      }
+      String layer = provider.getLayer(i).toString();
+      File layerFile = new File(baseName + "_L" + layer + ".gbr");
+      Writer out = createWriter(layerFile);
+      try {
+        g2d.writeGerber(out, "DIYLC copper layer " + layer);
+      } finally {
+        out.close();
+      }
+      files.add(layerFile);
+    }
+    if (!holes.isEmpty()) {
+      File drillFile = new File(baseName + ".drl");
+      Writer out = createWriter(drillFile);
+      try {
+        writeExcellon(out, holes, height, tolerance);
+      } finally {
+        out.close();
+      }
+      files.add(drillFile);
+    }
+    LOG.info(String.format("Exported %d fabrication file(s) in %d ms", files.size(), System.currentTimeMillis()
+        - start));
+    return files;
+  }
+
+  private Writer createWriter(File file) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "US-ASCII"));
+  }
+
+  private void writeExcellon(Writer out, List<Hole> holes, double height, double tolerance) throws IOException {
+    double mmPerUnit = 25.4 / Constants.PIXELS_PER_INCH;
+    // Group hits by drill size, a hole shared by pads on several layers is drilled only once.
+    Map<Double, List<double[]>> tools = new TreeMap<Double, List<double[]>>();
+    for (Hole hole : holes) {
+      double diameter = Math.round(hole.getDiameter() * mmPerUnit * 1000) / 1000d;
+      double x = hole.getX() * mmPerUnit;
+      double y = (height - hole.getY()) * mmPerUnit;
+      List<double[]> hits = tools.get(diameter);
+      if (hits == null) {
+        hits = new ArrayList<double[]>();
+        tools.put(diameter, hits);
+      }
+      boolean duplicate = false;
+      for (double[] hit : hits) {
+        if (Math.abs(hit[0] - x) <= tolerance && Math.abs(hit[1] - y) <= tolerance) {
+          duplicate = true;
+          break;
+        }
+      }
+      if (!duplicate) {
+        hits.add(new double[] {x, y});
+      }
+    }
+
+    out.write("M48\n");
+    out.write("; DIYLC drill file\n");
+    out.write("FMAT,2\n");
+    out.write("METRIC,TZ\n");
+    int tool = 1;
+    for (Double diameter : tools.keySet()) {
+      out.write(String.format(Locale.US, "T%dC%.3f\n", tool++, diameter));
+    }
+    out.write("%\n");
+    out.write("G90\n");
+    out.write("G05\n");
+    tool = 1;
+    for (List<double[]> hits : tools.values()) {
+      out.write("T" + tool++ + "\n");
+      for (double[] hit : hits) {
+        out.write(String.format(Locale.US, "X%.3fY%.3f\n", hit[0], hit[1]));
+      }
+    }
+    out.write("M30\n");
+  }
+}
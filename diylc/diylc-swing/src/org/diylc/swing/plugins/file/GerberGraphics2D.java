@@ -0,0 +1,591 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.ImageObserver;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link Graphics2D} implementation that records copper geometry of a single PCB layer and writes
+ * it as a Gerber RS-274X file.
+ * <br>
+ * Round-capped strokes become tracks drawn with a circular aperture, filled circles and axis
+ * aligned rectangles become pad flashes and everything else becomes a region, with curves
+ * flattened to the configured tolerance. Identical apertures share a single definition and a pad
+ * flashed more than once at the same spot is written only once.
+ * <br>
+ * Shapes filled with one of the clear colors (i.e. the canvas color) remove copper drawn before
+ * them. Clear circles are drilled holes, they are reported through {@link #getHoles()} and left
+ * out of the copper, just like on a fabricated board.
+ */
+public class GerberGraphics2D extends AbstractVectorGraphics2D {
+
+  private static final double MM_PER_INCH = 25.4;
+
+  private final Recording recording;
+
+  /**
+   * @param height drawing height in user units, needed to flip the Y axis
+   * @param unitsPerInch number of user units in an inch
+   * @param tolerance maximum distance between a curve and the line segments that replace it, in
+   *        millimeters
+   * @param clearColors colors that remove copper instead of adding it
+   */
+  public GerberGraphics2D(double height, double unitsPerInch, double tolerance, Color... clearColors) {
+    super();
+    this.recording = new Recording(height, unitsPerInch, tolerance * unitsPerInch / MM_PER_INCH, clearColors);
+  }
+
+  private GerberGraphics2D(GerberGraphics2D source) {
+    super(source);
+    this.recording = source.recording;
+  }
+
+  @Override
+  public Graphics create() {
+    return new GerberGraphics2D(this);
+  }
+
+  // Drawing
+
+  @Override
+  public void draw(Shape s) {
+    if (!(stroke instanceof BasicStroke) || !isConformal(transform)) {
+      fill(stroke.createStrokedShape(s));
+      return;
+    }
+    BasicStroke basicStroke = (BasicStroke) stroke;
+    if (basicStroke.getEndCap() != BasicStroke.CAP_ROUND || basicStroke.getLineJoin() != BasicStroke.JOIN_ROUND
+        || basicStroke.getDashArray() != null || basicStroke.getLineWidth() <= 0) {
+      // Only round strokes can be drawn with a circular aperture.
+      fill(stroke.createStrokedShape(s));
+      return;
+    }
+    Boolean clear = getPolarity();
+    if (clear == null) {
+      return;
+    }
+    double width = basicStroke.getLineWidth() * getScale(transform);
+    Rectangle2D bounds = transform.createTransformedShape(s.getBounds2D()).getBounds2D();
+    bounds.setRect(bounds.getX() - width, bounds.getY() - width, bounds.getWidth() + 2 * width, bounds.getHeight()
+        + 2 * width);
+    if (isClippedOut(bounds)) {
+      return;
+    }
+    List<double[]> polylines = flatten(s.getPathIterator(transform), false);
+    if (!polylines.isEmpty()) {
+      recording.add(new Track(clear, new Aperture('C', width, width), polylines));
+    }
+  }
+
+  @Override
+  public void fill(Shape s) {
+    Boolean clear = getPolarity();
+    if (clear == null) {
+      return;
+    }
+    Rectangle2D bounds = transform.createTransformedShape(s.getBounds2D()).getBounds2D();
+    if (isClippedOut(bounds)) {
+      return;
+    }
+    if (s instanceof Ellipse2D && isConformal(transform)) {
+      Ellipse2D ellipse = (Ellipse2D) s;
+      if (Math.abs(ellipse.getWidth() - ellipse.getHeight()) < 1e-6 * ellipse.getWidth()) {
+        Point2D center = transform.transform(new Point2D.Double(ellipse.getCenterX(), ellipse.getCenterY()), null);
+        double diameter = ellipse.getWidth() * getScale(transform);
+        if (clear) {
+          recording.holes.add(new Hole(center.getX(), center.getY(), diameter));
+        } else {
+          recording.add(new Flash(false, new Aperture('C', diameter, diameter), center.getX(), center.getY()));
+        }
+        return;
+      }
+    }
+    if (s instanceof Rectangle2D && isAxisAligned(transform)) {
+      recording.add(new Flash(clear, new Aperture('R', bounds.getWidth(), bounds.getHeight()), bounds.getCenterX(),
+          bounds.getCenterY()));
+      return;
+    }
+    List<double[]> contours = flatten(s.getPathIterator(transform), true);
+    if (contours.size() > 1) {
+      // Gerber regions have no winding rules, so overlaps and holes have to be resolved first.
+      contours = cutIn(flatten(new Area(transform.createTransformedShape(s)).getPathIterator(null), true));
+    }
+    if (!contours.isEmpty()) {
+      recording.add(new Region(clear, contours));
+    }
+  }
+
+  @Override
+  public void drawString(String str, float x, float y) {
+    if (str == null || str.length() == 0) {
+      return;
+    }
+    fill(font.createGlyphVector(getFontRenderContext(), str).getOutline(x, y));
+  }
+
+  @Override
+  public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+    // Images can't be made of copper.
+    return true;
+  }
+
+  /**
+   * @return polarity of the current paint, <code>true</code> for clear, or <code>null</code> if
+   *         there is nothing to draw
+   */
+  private Boolean getPolarity() {
+    if (!(paint instanceof Color)) {
+      recording.empty = false;
+      return false;
+    }
+    Color c = (Color) paint;
+    if (c.getAlpha() == 0) {
+      return null;
+    }
+    for (Color clearColor : recording.clearColors) {
+      if ((c.getRGB() & 0xffffff) == (clearColor.getRGB() & 0xffffff)) {
+        // Clearing an empty layer is just the background being painted.
+        return recording.empty ? null : true;
+      }
+    }
+    recording.empty = false;
+    return false;
+  }
+
+  private List<double[]> flatten(PathIterator iterator, boolean closed) {
+    List<double[]> result = new ArrayList<double[]>();
+    double[] coords = new double[6];
+    double[] points = new double[16];
+    int size = 0;
+    for (PathIterator i = new FlatteningPathIterator(iterator, recording.flatness); !i.isDone(); i.next()) {
+      int type = i.currentSegment(coords);
+      if (type == PathIterator.SEG_MOVETO) {
+        addContour(result, points, size, closed);
+        size = 0;
+      }
+      if (type == PathIterator.SEG_CLOSE) {
+        if (!closed && size >= 4) {
+          coords[0] = points[0];
+          coords[1] = points[1];
+        } else {
+          continue;
+        }
+      }
+      if (size == points.length) {
+        points = Arrays.copyOf(points, size * 2);
+      }
+      points[size++] = coords[0];
+      points[size++] = coords[1];
+    }
+    addContour(result, points, size, closed);
+    return result;
+  }
+
+  private static void addContour(List<double[]> result, double[] points, int size, boolean closed) {
+    if (closed) {
+      // Drop the closing point, it's implied.
+      if (size >= 4 && points[0] == points[size - 2] && points[1] == points[size - 1]) {
+        size -= 2;
+      }
+      if (size >= 6) {
+        result.add(Arrays.copyOf(points, size));
+      }
+    } else if (size >= 2) {
+      result.add(Arrays.copyOf(points, size));
+    }
+  }
+
+  /**
+   * Joins each hole contour to the outline that contains it through a zero width cut-in, so every
+   * island ends up described by a single contour.
+   */
+  private static List<double[]> cutIn(List<double[]> contours) {
+    if (contours.size() < 2) {
+      return contours;
+    }
+    // Area makes outlines and holes run in opposite directions, the largest contour is an outline.
+    double[] areas = new double[contours.size()];
+    int largest = 0;
+    for (int i = 0; i < contours.size(); i++) {
+      areas[i] = getSignedArea(contours.get(i));
+      if (Math.abs(areas[i]) > Math.abs(areas[largest])) {
+        largest = i;
+      }
+    }
+    double outlineSign = Math.signum(areas[largest]);
+    List<Integer> outlines = new ArrayList<Integer>();
+    List<Integer> holes = new ArrayList<Integer>();
+    for (int i = 0; i < contours.size(); i++) {
+      (Math.signum(areas[i]) == outlineSign ? outlines : holes).add(i);
+    }
+    double[][] merged = new double[contours.size()][];
+    for (int i : outlines) {
+      merged[i] = contours.get(i);
+    }
+    for (int hole : holes) {
+      double[] points = contours.get(hole);
+      int parent = -1;
+      for (int i : outlines) {
+        if (contains(contours.get(i), points[0], points[1])
+            && (parent < 0 || Math.abs(areas[i]) < Math.abs(areas[parent]))) {
+          parent = i;
+        }
+      }
+      if (parent < 0) {
+        continue;
+      }
+      merged[parent] = join(merged[parent], points);
+    }
+    List<double[]> result = new ArrayList<double[]>();
+    for (int i : outlines) {
+      result.add(merged[i]);
+    }
+    return result;
+  }
+
+  private static double[] join(double[] outline, double[] hole) {
+    int bestOutline = 0;
+    int bestHole = 0;
+    double bestDistance = Double.MAX_VALUE;
+    for (int i = 0; i < outline.length; i += 2) {
+      for (int j = 0; j < hole.length; j += 2) {
+        double dx = outline[i] - hole[j];
+        double dy = outline[i + 1] - hole[j + 1];
+        double distance = dx * dx + dy * dy;
+        if (distance < bestDistance) {
+          bestDistance = distance;
+          bestOutline = i;
+          bestHole = j;
+        }
+      }
+    }
+    // Outline up to the bridge, around the hole back to where it was entered, then out again.
+    double[] result = new double[outline.length + hole.length + 4];
+    int size = 0;
+    System.arraycopy(outline, 0, result, size, bestOutline + 2);
+    size += bestOutline + 2;
+    System.arraycopy(hole, bestHole, result, size, hole.length - bestHole);
+    size += hole.length - bestHole;
+    System.arraycopy(hole, 0, result, size, bestHole + 2);
+    size += bestHole + 2;
+    System.arraycopy(outline, bestOutline, result, size, outline.length - bestOutline);
+    return result;
+  }
+
+  private static double getSignedArea(double[] points) {
+    double area = 0;
+    for (int i = 0; i < points.length; i += 2) {
+      int j = (i + 2) % points.length;
+      area += points[i] * points[j + 1] - points[j] * points[i + 1];
+    }
+    return area / 2;
+  }
+
+  private static boolean contains(double[] points, double x, double y) {
+    boolean inside = false;
+    for (int i = 0, j = points.length - 2; i < points.length; j = i, i += 2) {
+      if ((points[i + 1] > y) != (points[j + 1] > y)
+          && x < (points[j] - points[i]) * (y - points[i + 1]) / (points[j + 1] - points[i + 1]) + points[i]) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+
+  private static double getScale(AffineTransform tx) {
+    return Math.sqrt(Math.abs(tx.getDeterminant()));
+  }
+
+  private static boolean isAxisAligned(AffineTransform tx) {
+    return (tx.getShearX() == 0 && tx.getShearY() == 0) || (tx.getScaleX() == 0 && tx.getScaleY() == 0);
+  }
+
+  // Output
+
+  /**
+   * @return <code>true</code> if nothing but background has been drawn
+   */
+  public boolean isEmpty() {
+    return recording.primitives.isEmpty();
+  }
+
+  /**
+   * @return drilled holes found in the drawing, in user units with the Y axis pointing down
+   */
+  public List<Hole> getHoles() {
+    return Collections.unmodifiableList(recording.holes);
+  }
+
+  /**
+   * Writes the recorded copper as a Gerber RS-274X file. The writer is flushed, but not closed.
+   *
+   * @param out
+   * @param comment written to the file header, e.g. layer name
+   * @throws IOException
+   */
+  public void writeGerber(Writer out, String comment) throws IOException {
+    Map<String, Integer> apertures = new LinkedHashMap<String, Integer>();
+    for (Primitive primitive : recording.primitives) {
+      Aperture aperture = primitive.getAperture();
+      if (aperture != null) {
+        String definition = recording.getDefinition(aperture);
+        if (!apertures.containsKey(definition)) {
+          apertures.put(definition, 10 + apertures.size());
+        }
+      }
+    }
+    out.write("G04 " + comment.replaceAll("[*%]", "") + "*\n");
+    out.write("%FSLAX46Y46*%\n");
+    out.write("%MOMM*%\n");
+    out.write("%LPD*%\n");
+    for (Map.Entry<String, Integer> entry : apertures.entrySet()) {
+      out.write("%ADD" + entry.getValue() + entry.getKey() + "*%\n");
+    }
+    out.write("G01*\n");
+
+    boolean clear = false;
+    int currentAperture = -1;
+    // Flashes written since copper was last cleared, repeating any of them changes nothing.
+    Set<String> flashes = new HashSet<String>();
+    StringBuilder builder = new StringBuilder();
+    for (Primitive primitive : recording.primitives) {
+      if (primitive.clear != clear) {
+        clear = primitive.clear;
+        out.write(clear ? "%LPC*%\n" : "%LPD*%\n");
+        flashes.clear();
+      }
+      Aperture aperture = primitive.getAperture();
+      int code = aperture == null ? -1 : apertures.get(recording.getDefinition(aperture));
+      builder.setLength(0);
+      if (primitive instanceof Flash) {
+        Flash flash = (Flash) primitive;
+        appendCoordinates(builder, flash.x, flash.y);
+        if (!clear && !flashes.add(code + builder.toString())) {
+          continue;
+        }
+        builder.append("D03*\n");
+      } else if (primitive instanceof Track) {
+        for (double[] points : ((Track) primitive).polylines) {
+          appendCoordinates(builder, points[0], points[1]);
+          if (points.length == 2) {
+            builder.append("D03*\n");
+            continue;
+          }
+          builder.append("D02*\n");
+          for (int i = 2; i < points.length; i += 2) {
+            appendCoordinates(builder, points[i], points[i + 1]);
+            builder.append("D01*\n");
+          }
+        }
+      } else if (primitive instanceof Region) {
+        builder.append("G36*\n");
+        for (double[] points : ((Region) primitive).contours) {
+          appendCoordinates(builder, points[0], points[1]);
+          builder.append("D02*\n");
+          for (int i = 2; i < points.length; i += 2) {
+            appendCoordinates(builder, points[i], points[i + 1]);
+            builder.append("D01*\n");
+          }
+          appendCoordinates(builder, points[0], points[1]);
+          builder.append("D01*\n");
+        }
+        builder.append("G37*\n");
+      }
+      if (code >= 0 && code != currentAperture) {
+        currentAperture = code;
+        out.write("D" + code + "*\n");
+      }
+      out.append(builder);
+    }
+    out.write("M02*\n");
+    out.flush();
+  }
+
+  private void appendCoordinates(StringBuilder builder, double x, double y) {
+    builder.append('X').append(Math.round(recording.toMillimeters(x) * 1e6)).append('Y')
+        .append(Math.round(recording.toMillimeters(recording.height - y) * 1e6));
+  }
+
+  /**
+   * State shared by the graphics object and all the copies created from it.
+   */
+  private static class Recording {
+
+    private final double height;
+    private final double unitsPerInch;
+    private final double flatness;
+    private final Color[] clearColors;
+    private final List<Primitive> primitives = new ArrayList<Primitive>();
+    private final List<Hole> holes = new ArrayList<Hole>();
+    private boolean empty = true;
+
+    public Recording(double height, double unitsPerInch, double flatness, Color[] clearColors) {
+      this.height = height;
+      this.unitsPerInch = unitsPerInch;
+      this.flatness = flatness;
+      this.clearColors = clearColors;
+    }
+
+    public void add(Primitive primitive) {
+      primitives.add(primitive);
+    }
+
+    public double toMillimeters(double units) {
+      return units * MM_PER_INCH / unitsPerInch;
+    }
+
+    /**
+     * Apertures that come out the same at the file resolution are the same aperture.
+     */
+    public String getDefinition(Aperture aperture) {
+      if (aperture.type == 'C') {
+        return String.format(Locale.US, "C,%.6f", toMillimeters(aperture.width));
+      }
+      return String.format(Locale.US, "%c,%.6fX%.6f", aperture.type, toMillimeters(aperture.width),
+          toMillimeters(aperture.height));
+    }
+  }
+
+  private static class Aperture {
+
+    private final char type;
+    private final double width;
+    private final double height;
+
+    public Aperture(char type, double width, double height) {
+      this.type = type;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  private static abstract class Primitive {
+
+    protected final boolean clear;
+
+    protected Primitive(boolean clear) {
+      this.clear = clear;
+    }
+
+    public Aperture getAperture() {
+      return null;
+    }
+  }
+
+  private static class Flash extends Primitive {
+
+    private final Aperture aperture;
+    private final double x;
+    private final double y;
+
+    public Flash(boolean clear, Aperture aperture, double x, double y) {
+      super(clear);
+      this.aperture = aperture;
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public Aperture getAperture() {
+      return aperture;
+    }
+  }
+
+  private static class Track extends Primitive {
+
+    private final Aperture aperture;
+    private final List<double[]> polylines;
+
+    public Track(boolean clear, Aperture aperture, List<double[]> polylines) {
+      super(clear);
+      this.aperture = aperture;
+      this.polylines = polylines;
+    }
+
+    @Override
+    public Aperture getAperture() {
+      return aperture;
+    }
+  }
+
+  private static class Region extends Primitive {
+
+    private final List<double[]> contours;
+
+    public Region(boolean clear, List<double[]> contours) {
+      super(clear);
+      this.contours = contours;
+    }
+  }
+
+  /**
+   * Drilled hole, position and diameter are in user units.
+   */
+  public static class Hole {
+
+    private final double x;
+    private final double y;
+    private final double diameter;
+
+    public Hole(double x, double y, double diameter) {
+      this.x = x;
+      this.y = y;
+      this.diameter = diameter;
+    }
+
+    public double getX() {
+      return x;
+    }
+
+    public double getY() {
+      return y;
+    }
+
+    public double getDiameter() {
+      return diameter;
+    }
+  }
+}
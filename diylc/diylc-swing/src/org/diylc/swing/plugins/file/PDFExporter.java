@@ -0,0 +1,253 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.diylc.appframework.miscutils.Utils;
+import org.diylc.swingframework.IDrawingProvider;
+import org.diylc.utils.Constants;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.DefaultFontMapper;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfTemplate;
+import com.lowagie.text.pdf.PdfWriter;
+
+/**
+ * Exports drawings to PDF, drawing the pages in parallel. Each page is drawn into a
+ * {@link DisplayListGraphics2D} on a worker thread and the recorded pages are then written to the
+ * document in order as soon as they are ready. Multi-page drawings, like trace masks with several
+ * layers, or several drawings exported into a single document take about as long as the slowest
+ * page.
+ * <br>
+ * Pages are drawn in parallel only when the drawing provider implements
+ * {@link IParallelDrawingProvider}, pages of other providers are drawn one at a time.
+ */
+public class PDFExporter {
+
+  private static final Logger LOG = Logger.getLogger(PDFExporter.class);
+
+  private static final int PDF_RESOLUTION = 72;
+
+  private static PDFExporter instance;
+
+  public static synchronized PDFExporter getInstance() {
+    if (instance == null) {
+      instance = new PDFExporter();
+    }
+    return instance;
+  }
+
+  private PDFExporter() {}
+
+  /**
+   * Exports all pages of the drawing to a single PDF document.
+   *
+   * @param provider
+   * @param file
+   * @throws IOException
+   * @throws DocumentException
+   */
+  public void exportPDF(IDrawingProvider provider, File file) throws IOException, DocumentException {
+    exportPDF(Collections.singletonList(provider), file);
+  }
+
+  /**
+   * Exports all pages of all the drawings to a single PDF document, in the order they are
+   * specified. Each page gets the size of its drawing.
+   *
+   * @param providers
+   * @param file
+   * @throws IOException
+   * @throws DocumentException
+   */
+  public void exportPDF(List<? extends IDrawingProvider> providers, File file) throws IOException,
+      DocumentException {
+    long start = System.currentTimeMillis();
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+    try {
+      exportPDF(providers, out);
+    } finally {
+      out.close();
+    }
+    LOG.info(String.format("Exported %s in %d ms", file.getName(), System.currentTimeMillis() - start));
+  }
+
+  /**
+   * Same as {@link #exportPDF(List, File)}, but writes the document to a stream. The stream is not
+   * closed.
+   *
+   * @param providers
+   * @param out
+   * @throws IOException
+   * @throws DocumentException
+   */
+  public void exportPDF(List<? extends IDrawingProvider> providers, OutputStream out) throws IOException,
+      DocumentException {
+    final double zoom = PDF_RESOLUTION * Constants.PIXEL_SIZE / Constants.PIXELS_PER_INCH;
+    List<Page> pages = new ArrayList<Page>();
+    // Each worker thread draws through its own copy of a provider.
+    final Map<IDrawingProvider, ThreadLocal<IDrawingProvider>> workerProviders =
+        new HashMap<IDrawingProvider, ThreadLocal<IDrawingProvider>>();
+    for (final IDrawingProvider provider : providers) {
+      Dimension size = provider.getSize();
+      for (int i = 0; i < provider.getPageCount(); i++) {
+        pages.add(new Page(provider, i, (float) (zoom * size.getWidth()), (float) (zoom * size.getHeight())));
+      }
+      if (provider instanceof IParallelDrawingProvider && !workerProviders.containsKey(provider)) {
+        workerProviders.put(provider, new ThreadLocal<IDrawingProvider>() {
+
+          @Override
+          protected IDrawingProvider initialValue() {
+            return ((IParallelDrawingProvider) provider).createWorkerCopy();
+          }
+        });
+      }
+    }
+    if (pages.isEmpty()) {
+      throw new IOException("Nothing to export");
+    }
+    int threadCount = Math.min(pages.size(), Runtime.getRuntime().availableProcessors());
+    LOG.info(String.format("Exporting %d page(s) to PDF using %d thread(s)", pages.size(), threadCount));
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    Document document = new Document(new Rectangle(pages.get(0).width, pages.get(0).height));
+    try {
+      PdfWriter writer = PdfWriter.getInstance(document, out);
+      // Leave the stream open for the caller.
+      writer.setCloseStream(false);
+      document.open();
+      DefaultFontMapper mapper = createFontMapper();
+
+      // Keep a limited number of recorded pages in flight so they don't pile up in memory while
+      // waiting for a slow one before them.
+      LinkedList<Future<DisplayListGraphics2D>> pending = new LinkedList<Future<DisplayListGraphics2D>>();
+      int nextPage = 0;
+      for (int i = 0; i < pages.size(); i++) {
+        while (nextPage < pages.size() && pending.size() < threadCount * 2) {
+          final Page page = pages.get(nextPage);
+          final ThreadLocal<IDrawingProvider> workerProvider = workerProviders.get(page.provider);
+          pending.add(executor.submit(new Callable<DisplayListGraphics2D>() {
+
+            @Override
+            public DisplayListGraphics2D call() throws Exception {
+              DisplayListGraphics2D displayList = new DisplayListGraphics2D();
+              if (workerProvider == null) {
+                // Not safe to draw from several threads at once.
+                synchronized (page.provider) {
+                  page.provider.draw(page.index, displayList, zoom);
+                }
+              } else {
+                workerProvider.get().draw(page.index, displayList, zoom);
+              }
+              return displayList;
+            }
+          }));
+          nextPage++;
+        }
+        DisplayListGraphics2D displayList = pending.removeFirst().get();
+        Page page = pages.get(i);
+        if (i > 0) {
+          document.setPageSize(new Rectangle(page.width, page.height));
+          document.newPage();
+        }
+        PdfContentByte contentByte = writer.getDirectContent();
+        PdfTemplate template = contentByte.createTemplate(page.width, page.height);
+        Graphics2D g2d = template.createGraphics(page.width, page.height, mapper);
+        displayList.replay(g2d);
+        g2d.dispose();
+        contentByte.addTemplate(template, 0, 0);
+      }
+      document.close();
+    } catch (InterruptedException e) {
+      throw new IOException("Export interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException("Could not draw the page", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private DefaultFontMapper createFontMapper() {
+    DefaultFontMapper mapper = new DefaultFontMapper() {
+
+      @Override
+      public BaseFontParameters getBaseFontParameters(String name) {
+        BaseFontParameters params = super.getBaseFontParameters(name);
+        if (params != null) {
+          params.encoding = "Identity-H";
+        }
+        return params;
+      }
+    };
+    if (Utils.isWindows()) {
+      mapper.insertDirectory(System.getenv("windir") + "\\Fonts");
+    } else if (Utils.isMac()) {
+      mapper.insertDirectory("$HOME/Library/Fonts");
+    } else if (Utils.isUnix()) {
+      mapper.insertDirectory("/usr/share/fonts/truetype/");
+    }
+    return mapper;
+  }
+
+  private static class Page {
+
+    private final IDrawingProvider provider;
+    private final int index;
+    private final float width;
+    private final float height;
+
+    public Page(IDrawingProvider provider, int index, float width, float height) {
+      this.provider = provider;
+      this.index = index;
+      this.width = width;
+      this.height = height;
+    }
+  }
+}
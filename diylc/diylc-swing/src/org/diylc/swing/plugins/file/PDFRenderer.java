@@ -0,0 +1,52 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import org.diylc.presenter.Presenter;
+import org.diylc.render.IRenderer;
+import org.diylc.render.RenderService;
+
+/**
+ * Renders all pages of the project to a PDF document for {@link RenderService}.
+ */
+public class PDFRenderer implements IRenderer {
+
+  @Override
+  public String getFormat() {
+    return "pdf";
+  }
+
+  @Override
+  public String getContentType() {
+    return "application/pdf";
+  }
+
+  @Override
+  public void render(Presenter presenter, Map<String, String> options, OutputStream out) throws Exception {
+    ProjectDrawingProvider provider = new ProjectDrawingProvider(presenter, false, true, false);
+    PDFExporter.getInstance().exportPDF(Collections.singletonList(provider), out);
+  }
+}
@@ -29,6 +29,8 @@ import java.util.EnumSet;
 import org.diylc.appframework.miscutils.ConfigurationManager;
 import org.diylc.common.DrawOption;
 import org.diylc.common.IPlugInPort;
+import org.diylc.presenter.Presenter;
+import org.diylc.swing.gui.DummyView;
 import org.diylc.swingframework.IDrawingProvider;
 
 /**
@@ -37,7 +39,7 @@ import org.diylc.swingframework.IDrawingProvider;
  * 
  * @author Branislav Stojkovic
  */
-public class ProjectDrawingProvider implements IDrawingProvider {
+public class ProjectDrawingProvider implements IParallelDrawingProvider {
 
   private IPlugInPort plugInPort;
   private boolean useZoom;
@@ -79,4 +81,12 @@ public class ProjectDrawingProvider implements IDrawingProvider {
   public int getPageCount() {
     return 1;
   }
+
+  @Override
+  public IDrawingProvider createWorkerCopy() {
+    Presenter presenter = new Presenter(new DummyView());
+    presenter.loadProject(plugInPort.getCurrentProject().clone(), true);
+    presenter.setZoomLevel(plugInPort.getZoomLevel());
+    return new ProjectDrawingProvider(presenter, useZoom, showGridWhenNeeded, includeExtraSpace);
+  }
 }
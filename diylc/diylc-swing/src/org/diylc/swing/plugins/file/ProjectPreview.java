@@ -21,58 +21,43 @@
 */
 package org.diylc.swing.plugins.file;
 
-import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
-import java.io.FileInputStream;
-import java.util.EnumSet;
 
 import javax.swing.JComponent;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
-import org.diylc.common.DrawOption;
-import org.diylc.common.IPlugInPort;
-import org.diylc.core.Project;
-import org.diylc.presenter.Presenter;
-import org.diylc.swing.gui.DummyView;
+import org.diylc.swing.plugins.file.ThumbnailCache.IThumbnailListener;
+import org.diylc.swing.plugins.file.ThumbnailCache.Thumbnail;
 import org.diylc.swingframework.IFileChooserAccessory;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
-
 /**
  * {@link JComponent} that shows preview of the selected project in {@link JFileChooser}. It's
  * hooked onto {@link JFileChooser} as {@link PropertyChangeListener} and refreshes when file is
- * selected.
+ * selected. Previews come from {@link ThumbnailCache}, so the file is parsed and rendered in
+ * background only the first time it's selected.
  * 
  * @author Branislav Stojkovic
  */
-public class ProjectPreview extends JPanel implements PropertyChangeListener, IFileChooserAccessory {
+public class ProjectPreview extends JPanel implements PropertyChangeListener, IFileChooserAccessory,
+    IThumbnailListener {
 
   private static final long serialVersionUID = 1L;
 
-  private IPlugInPort presenter;
-  private XStream xStream;
-  private Project emptyProject;
   private RenderComponent renderComponent;
   private JLabel nameLabel;
+  private File selectedFile;
+  private Thumbnail thumbnail;
 
   public ProjectPreview() {
     super();
 
     setPreferredSize(new Dimension(140, 128));
-    presenter = new Presenter(new DummyView());
-    xStream = new XStream(new DomDriver());
-
-    emptyProject = new Project();
-    emptyProject.setTitle("");
 
     renderComponent = new RenderComponent();
     nameLabel = new JLabel();
@@ -86,30 +71,40 @@ public class ProjectPreview extends JPanel implements PropertyChangeListener, IF
 
   @Override
   public void propertyChange(PropertyChangeEvent evt) {
-    boolean update = false;
     String prop = evt.getPropertyName();
 
-    Project selectedProject = emptyProject;
     if (JFileChooser.DIRECTORY_CHANGED_PROPERTY.equals(prop)) {
-      update = true;
+      show(null, null);
     } else if (JFileChooser.SELECTED_FILE_CHANGED_PROPERTY.equals(prop)) {
-      File selectedFile = (File) evt.getNewValue();
-      try {
-        FileInputStream in = new FileInputStream(selectedFile);
-        selectedProject = (Project) xStream.fromXML(in);
-        in.close();
-      } catch (Exception e) {
+      File file = (File) evt.getNewValue();
+      if (file == null || !file.isFile()) {
+        show(null, null);
+        return;
+      }
+      Thumbnail cached = ThumbnailCache.getInstance().getCached(file);
+      show(file, cached);
+      if (cached == null) {
+        ThumbnailCache.getInstance().request(file, this);
       }
-      update = true;
     }
+  }
 
-    nameLabel.setText(selectedProject.getTitle());
-    presenter.loadProject(selectedProject, true);
+  // IThumbnailListener
 
-    if (update) {
-      if (renderComponent.isShowing()) {
-        renderComponent.repaint();
-      }
+  @Override
+  public void thumbnailLoaded(File file, Thumbnail thumbnail) {
+    // Ignore results that arrive after the selection has moved on.
+    if (file.equals(selectedFile)) {
+      show(file, thumbnail);
+    }
+  }
+
+  private void show(File file, Thumbnail thumbnail) {
+    this.selectedFile = file;
+    this.thumbnail = thumbnail;
+    nameLabel.setText(thumbnail == null ? "" : thumbnail.getTitle());
+    if (renderComponent.isShowing()) {
+      renderComponent.repaint();
     }
   }
 
@@ -118,7 +113,7 @@ public class ProjectPreview extends JPanel implements PropertyChangeListener, IF
     private static final long serialVersionUID = 1L;
 
     public RenderComponent() {
-      setPreferredSize(new Dimension(128, 96));
+      setPreferredSize(new Dimension(ThumbnailCache.WIDTH, ThumbnailCache.HEIGHT));
       // setBorder(BorderFactory.createEmptyBorder(0, 4, 0, 4));
     }
 
@@ -126,32 +121,9 @@ public class ProjectPreview extends JPanel implements PropertyChangeListener, IF
     public void paint(Graphics g) {
       super.paint(g);
 
-      Graphics2D g2d = (Graphics2D) g;
-      Dimension d = presenter.getCanvasDimensions(false, false);
-      // System.out.println(d);
-      Rectangle rect = getBounds();
-      // System.out.println(rect);
-
-      double projectRatio = d.getWidth() / d.getHeight();
-      double actualRatio = rect.getWidth() / rect.getHeight();
-      double zoomRatio;
-      if (projectRatio > actualRatio) {
-        zoomRatio = rect.getWidth() / d.getWidth();
-      } else {
-        zoomRatio = rect.getHeight() / d.getHeight();
+      if (thumbnail != null && thumbnail.getImage() != null) {
+        g.drawImage(thumbnail.getImage(), 0, 0, null);
       }
-      // d.setSize(d.getWidth() * zoomRatio, d.getHeight() * zoomRatio);
-      // int x = (int) (rect.getWidth() - d.getWidth() * zoomRatio) / 2;
-      // int y = (int) (rect.getHeight() - d.getHeight() * zoomRatio) / 2;
-
-      // System.out.println(x + "," + y);
-
-      // g2d.translate(x, y);
-//      g2d.scale(zoomRatio, zoomRatio);
-      presenter.draw(g2d, EnumSet.noneOf(DrawOption.class), null, zoomRatio);
-
-      g2d.setColor(Color.black);
-      g2d.drawRect(0, 0, d.width - (int) (1 / zoomRatio), d.height - (int) (1 / zoomRatio));
     }
   }
 
@@ -0,0 +1,104 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.Dimension;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.apache.log4j.Logger;
+import org.diylc.swingframework.IDrawingProvider;
+import org.diylc.utils.Constants;
+
+/**
+ * Exports drawings to SVG using {@link SVGGraphics2D}. The drawing is streamed to the file as it is
+ * drawn, so memory use doesn't depend on the size of the project. Documents are written at their
+ * real size, one user unit being one project pixel, which makes the output usable as a template
+ * for cutting or drilling.
+ */
+public class SVGExporter {
+
+  private static final Logger LOG = Logger.getLogger(SVGExporter.class);
+
+  private static SVGExporter instance;
+
+  public static synchronized SVGExporter getInstance() {
+    if (instance == null) {
+      instance = new SVGExporter();
+    }
+    return instance;
+  }
+
+  private SVGExporter() {}
+
+  /**
+   * Exports all pages of the drawing. Multi-page drawings are exported to one file per page, with
+   * page number appended to the file name.
+   *
+   * @param provider
+   * @param file
+   * @throws IOException
+   */
+  public void exportSVG(IDrawingProvider provider, File file) throws IOException {
+    int pageCount = provider.getPageCount();
+    for (int i = 0; i < pageCount; i++) {
+      File pageFile =
+          pageCount == 1 ? file : new File(file.getAbsolutePath().replaceAll("(?i)\\.svg$", "") + "_" + (i + 1)
+              + ".svg");
+      exportPage(provider, i, pageFile);
+    }
+  }
+
+  private void exportPage(IDrawingProvider provider, int page, File file) throws IOException {
+    long start = System.currentTimeMillis();
+    Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 1 << 16);
+    try {
+      exportSVG(provider, page, out);
+    } finally {
+      out.close();
+    }
+    LOG.info(String.format("Exported %s in %d ms", file.getName(), System.currentTimeMillis() - start));
+  }
+
+  /**
+   * Writes a single page of the drawing as a SVG document. The writer is flushed, but not closed.
+   *
+   * @param provider
+   * @param page
+   * @param out
+   * @throws IOException
+   */
+  public void exportSVG(IDrawingProvider provider, int page, Writer out) throws IOException {
+    // Draw in project pixels rather than screen pixels.
+    double zoom = Constants.PIXEL_SIZE;
+    Dimension size = provider.getSize();
+    SVGGraphics2D g2d =
+        new SVGGraphics2D(out, size.getWidth() * zoom, size.getHeight() * zoom, Constants.PIXELS_PER_INCH);
+    provider.draw(page, g2d, zoom);
+    g2d.finish();
+    out.flush();
+  }
+}
@@ -0,0 +1,818 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.LinearGradientPaint;
+import java.awt.MultipleGradientPaint;
+import java.awt.Paint;
+import java.awt.PaintContext;
+import java.awt.RadialGradientPaint;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ImageObserver;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * {@link Graphics2D} implementation that writes SVG markup straight to a {@link Writer} as the
+ * drawing calls come in. Nothing is buffered apart from the element being written, so drawings of
+ * any size are exported in a single pass.
+ * <br>
+ * All geometry is written in device space, i.e. with the current transform already applied, which
+ * keeps the output flat and friendly to CAM and laser software. Strokes are written as SVG strokes
+ * as long as the transform preserves their shape, otherwise the stroke outline is filled instead.
+ * Styles, gradients and clip paths are written to <code>&lt;defs&gt;</code> the first time they
+ * are used and referenced from all subsequent elements that share them.
+ * <br>
+ * Write errors do not surface from the drawing methods, they are reported by {@link #finish()}.
+ */
+public class SVGGraphics2D extends AbstractVectorGraphics2D {
+
+  // Keep the number of remembered definitions bounded, a forgotten definition is simply written
+  // again when it comes up next.
+  private static final int MAX_DEFINITIONS = 4096;
+
+  private final Document document;
+
+  /**
+   * Creates a graphics object that writes a new SVG document of the specified size to the writer.
+   * Call {@link #finish()} when done drawing to close the document.
+   *
+   * @param out
+   * @param width width in user units
+   * @param height height in user units
+   * @param unitsPerInch number of user units in an inch, used to give the document its physical size
+   * @throws IOException
+   */
+  public SVGGraphics2D(Writer out, double width, double height, double unitsPerInch) throws IOException {
+    super();
+    this.document = new Document(out);
+    document.writeHeader(width, height, unitsPerInch);
+  }
+
+  private SVGGraphics2D(SVGGraphics2D source) {
+    super(source);
+    this.document = source.document;
+  }
+
+  /**
+   * Closes the document and flushes the writer. The writer itself is left open.
+   *
+   * @throws IOException if writing failed at any point while drawing
+   */
+  public void finish() throws IOException {
+    document.writeFooter();
+    document.checkError();
+  }
+
+  // Drawing
+
+  @Override
+  public void draw(Shape s) {
+    if (!(stroke instanceof BasicStroke) || !isConformal(transform)) {
+      fill(stroke.createStrokedShape(s));
+      return;
+    }
+    BasicStroke basicStroke = (BasicStroke) stroke;
+    double scale = Math.sqrt(Math.abs(transform.getDeterminant()));
+    Rectangle2D bounds = transform.createTransformedShape(s.getBounds2D()).getBounds2D();
+    double margin = basicStroke.getLineWidth() * scale;
+    bounds.setRect(bounds.getX() - margin, bounds.getY() - margin, bounds.getWidth() + 2 * margin, bounds
+        .getHeight() + 2 * margin);
+    if (isClippedOut(bounds)) {
+      return;
+    }
+    StringBuilder style = new StringBuilder("fill:none;stroke:");
+    appendPaint(style, bounds);
+    appendOpacity(style, "stroke-opacity");
+    style.append(";stroke-width:");
+    appendNumber(style, basicStroke.getLineWidth() * scale);
+    if (basicStroke.getEndCap() != BasicStroke.CAP_BUTT) {
+      style.append(";stroke-linecap:").append(basicStroke.getEndCap() == BasicStroke.CAP_ROUND ? "round" : "square");
+    }
+    if (basicStroke.getLineJoin() != BasicStroke.JOIN_MITER) {
+      style.append(";stroke-linejoin:").append(basicStroke.getLineJoin() == BasicStroke.JOIN_ROUND ? "round" : "bevel");
+    } else if (basicStroke.getMiterLimit() != 4f) {
+      style.append(";stroke-miterlimit:");
+      appendNumber(style, basicStroke.getMiterLimit());
+    }
+    float[] dash = basicStroke.getDashArray();
+    if (dash != null && dash.length > 0) {
+      style.append(";stroke-dasharray:");
+      for (int i = 0; i < dash.length; i++) {
+        if (i > 0) {
+          style.append(',');
+        }
+        appendNumber(style, dash[i] * scale);
+      }
+      if (basicStroke.getDashPhase() != 0) {
+        style.append(";stroke-dashoffset:");
+        appendNumber(style, basicStroke.getDashPhase() * scale);
+      }
+    }
+    writePath(s, style.toString());
+  }
+
+  @Override
+  public void fill(Shape s) {
+    Rectangle2D bounds = transform.createTransformedShape(s.getBounds2D()).getBounds2D();
+    if (isClippedOut(bounds)) {
+      return;
+    }
+    StringBuilder style = new StringBuilder("fill:");
+    appendPaint(style, bounds);
+    appendOpacity(style, "fill-opacity");
+    if (s.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD) {
+      style.append(";fill-rule:evenodd");
+    }
+    style.append(";stroke:none");
+    writePath(s, style.toString());
+  }
+
+  private void writePath(Shape s, String style) {
+    StringBuilder data = new StringBuilder();
+    double[] coords = new double[6];
+    boolean empty = true;
+    for (PathIterator i = s.getPathIterator(transform); !i.isDone(); i.next()) {
+      int type = i.currentSegment(coords);
+      switch (type) {
+        case PathIterator.SEG_MOVETO:
+          data.append('M');
+          appendPoints(data, coords, 1);
+          break;
+        case PathIterator.SEG_LINETO:
+          data.append('L');
+          appendPoints(data, coords, 1);
+          empty = false;
+          break;
+        case PathIterator.SEG_QUADTO:
+          data.append('Q');
+          appendPoints(data, coords, 2);
+          empty = false;
+          break;
+        case PathIterator.SEG_CUBICTO:
+          data.append('C');
+          appendPoints(data, coords, 3);
+          empty = false;
+          break;
+        case PathIterator.SEG_CLOSE:
+          data.append('Z');
+          break;
+      }
+    }
+    if (empty) {
+      return;
+    }
+    String styleClass = document.getStyleClass(style);
+    document.enterClip(getClipId());
+    document.write("<path class=\"").write(styleClass).write("\" d=\"").write(data).write("\"/>\n");
+  }
+
+  @Override
+  public void drawString(String str, float x, float y) {
+    if (str == null || str.length() == 0) {
+      return;
+    }
+    if (font.isTransformed() || !(paint instanceof Color)) {
+      fill(font.createGlyphVector(getFontRenderContext(), str).getOutline(x, y));
+      return;
+    }
+    StringBuilder style = new StringBuilder("fill:");
+    appendPaint(style, null);
+    appendOpacity(style, "fill-opacity");
+    style.append(";stroke:none;font-family:");
+    String family = font.getFamily();
+    if (Font.DIALOG.equals(family) || Font.SANS_SERIF.equals(family)) {
+      style.append("sans-serif");
+    } else if (Font.SERIF.equals(family)) {
+      style.append("serif");
+    } else if (Font.MONOSPACED.equals(family) || Font.DIALOG_INPUT.equals(family)) {
+      style.append("monospace");
+    } else {
+      style.append('\'').append(family.replace("'", "")).append("',sans-serif");
+    }
+    style.append(";font-size:");
+    appendNumber(style, font.getSize2D());
+    style.append("px");
+    if (font.isBold()) {
+      style.append(";font-weight:bold");
+    }
+    if (font.isItalic()) {
+      style.append(";font-style:italic");
+    }
+    String styleClass = document.getStyleClass(style.toString());
+    StringBuilder element = new StringBuilder("<text class=\"").append(styleClass).append("\" x=\"");
+    appendNumber(element, x);
+    element.append("\" y=\"");
+    appendNumber(element, y);
+    element.append('"');
+    appendTransform(element, transform);
+    element.append(" xml:space=\"preserve\">");
+    appendEscaped(element, str);
+    element.append("</text>\n");
+    document.enterClip(getClipId());
+    document.write(element);
+  }
+
+  @Override
+  public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+    BufferedImage image = toBufferedImage(img, obs);
+    if (image == null) {
+      return false;
+    }
+    AffineTransform tx = new AffineTransform(transform);
+    if (xform != null) {
+      tx.concatenate(xform);
+    }
+    Rectangle2D bounds =
+        tx.createTransformedShape(new Rectangle(0, 0, image.getWidth(), image.getHeight())).getBounds2D();
+    if (isClippedOut(bounds)) {
+      return true;
+    }
+    StringBuilder element = new StringBuilder("<image x=\"0\" y=\"0\" width=\"");
+    element.append(image.getWidth()).append("\" height=\"").append(image.getHeight()).append('"');
+    appendTransform(element, tx);
+    float alpha = getAlpha();
+    if (alpha < 1) {
+      element.append(" opacity=\"");
+      appendNumber(element, alpha);
+      element.append('"');
+    }
+    element.append(" preserveAspectRatio=\"none\" xlink:href=\"data:image/png;base64,");
+    document.enterClip(getClipId());
+    document.write(element);
+    document.writeImage(image);
+    document.write("\"/>\n");
+    return true;
+  }
+
+  @Override
+  public Graphics create() {
+    return new SVGGraphics2D(this);
+  }
+
+  private String getClipId() {
+    if (clip == null) {
+      return null;
+    }
+    StringBuilder data = new StringBuilder();
+    if (clip instanceof Rectangle2D) {
+      Rectangle2D r = (Rectangle2D) clip;
+      data.append("<rect x=\"");
+      appendNumber(data, r.getX());
+      data.append("\" y=\"");
+      appendNumber(data, r.getY());
+      data.append("\" width=\"");
+      appendNumber(data, r.getWidth());
+      data.append("\" height=\"");
+      appendNumber(data, r.getHeight());
+      data.append("\"/>");
+    } else {
+      data.append("<path d=\"");
+      double[] coords = new double[6];
+      PathIterator i = clip.getPathIterator(null);
+      int windingRule = i.getWindingRule();
+      for (; !i.isDone(); i.next()) {
+        switch (i.currentSegment(coords)) {
+          case PathIterator.SEG_MOVETO:
+            data.append('M');
+            appendPoints(data, coords, 1);
+            break;
+          case PathIterator.SEG_LINETO:
+            data.append('L');
+            appendPoints(data, coords, 1);
+            break;
+          case PathIterator.SEG_QUADTO:
+            data.append('Q');
+            appendPoints(data, coords, 2);
+            break;
+          case PathIterator.SEG_CUBICTO:
+            data.append('C');
+            appendPoints(data, coords, 3);
+            break;
+          case PathIterator.SEG_CLOSE:
+            data.append('Z');
+            break;
+        }
+      }
+      data.append('"');
+      if (windingRule == PathIterator.WIND_EVEN_ODD) {
+        data.append(" clip-rule=\"evenodd\"");
+      }
+      data.append("/>");
+    }
+    return document.getClipId(data.toString());
+  }
+
+  // Paint and style
+
+  private float getAlpha() {
+    if (composite instanceof AlphaComposite) {
+      AlphaComposite alphaComposite = (AlphaComposite) composite;
+      if (alphaComposite.getRule() == AlphaComposite.SRC_OVER || alphaComposite.getRule() == AlphaComposite.SRC) {
+        return alphaComposite.getAlpha();
+      }
+    }
+    return 1f;
+  }
+
+  private void appendOpacity(StringBuilder style, String property) {
+    float alpha = getAlpha();
+    if (paint instanceof Color) {
+      alpha *= ((Color) paint).getAlpha() / 255f;
+    }
+    if (alpha < 1) {
+      style.append(';').append(property).append(':');
+      appendNumber(style, alpha);
+    }
+  }
+
+  /**
+   * Appends the SVG paint value for the current paint. Gradients are written to the document as
+   * definitions and referenced by id.
+   *
+   * @param style
+   * @param deviceBounds bounds of the shape being painted, used to sample paints that have no SVG
+   *        counterpart
+   */
+  private void appendPaint(StringBuilder style, Rectangle2D deviceBounds) {
+    if (paint instanceof Color) {
+      appendColor(style, (Color) paint);
+      return;
+    }
+    StringBuilder gradient = new StringBuilder();
+    if (paint instanceof GradientPaint) {
+      GradientPaint gradientPaint = (GradientPaint) paint;
+      Point2D p1 = transform.transform(gradientPaint.getPoint1(), null);
+      Point2D p2 = transform.transform(gradientPaint.getPoint2(), null);
+      gradient.append("<linearGradient id=\"%s\" gradientUnits=\"userSpaceOnUse\"");
+      appendLine(gradient, p1, p2);
+      if (gradientPaint.isCyclic()) {
+        gradient.append(" spreadMethod=\"reflect\"");
+      }
+      gradient.append('>');
+      appendStop(gradient, 0, gradientPaint.getColor1());
+      appendStop(gradient, 1, gradientPaint.getColor2());
+      gradient.append("</linearGradient>");
+    } else if (paint instanceof LinearGradientPaint) {
+      LinearGradientPaint gradientPaint = (LinearGradientPaint) paint;
+      gradient.append("<linearGradient id=\"%s\" gradientUnits=\"userSpaceOnUse\"");
+      appendLine(gradient, gradientPaint.getStartPoint(), gradientPaint.getEndPoint());
+      appendGradientAttributes(gradient, gradientPaint);
+      gradient.append("</linearGradient>");
+    } else if (paint instanceof RadialGradientPaint) {
+      RadialGradientPaint gradientPaint = (RadialGradientPaint) paint;
+      gradient.append("<radialGradient id=\"%s\" gradientUnits=\"userSpaceOnUse\" cx=\"");
+      appendNumber(gradient, gradientPaint.getCenterPoint().getX());
+      gradient.append("\" cy=\"");
+      appendNumber(gradient, gradientPaint.getCenterPoint().getY());
+      gradient.append("\" r=\"");
+      appendNumber(gradient, gradientPaint.getRadius());
+      gradient.append("\" fx=\"");
+      appendNumber(gradient, gradientPaint.getFocusPoint().getX());
+      gradient.append("\" fy=\"");
+      appendNumber(gradient, gradientPaint.getFocusPoint().getY());
+      gradient.append('"');
+      appendGradientAttributes(gradient, gradientPaint);
+      gradient.append("</radialGradient>");
+    } else if (deviceBounds != null && !deviceBounds.isEmpty()) {
+      appendSampledGradient(gradient, deviceBounds);
+    } else {
+      appendColor(style, color);
+      return;
+    }
+    style.append("url(#").append(document.getGradientId(gradient.toString())).append(')');
+  }
+
+  private void appendGradientAttributes(StringBuilder gradient, MultipleGradientPaint gradientPaint) {
+    AffineTransform tx = new AffineTransform(transform);
+    tx.concatenate(gradientPaint.getTransform());
+    if (!tx.isIdentity()) {
+      gradient.append(" gradientTransform=\"");
+      appendMatrix(gradient, tx);
+      gradient.append('"');
+    }
+    if (gradientPaint.getCycleMethod() == MultipleGradientPaint.CycleMethod.REFLECT) {
+      gradient.append(" spreadMethod=\"reflect\"");
+    } else if (gradientPaint.getCycleMethod() == MultipleGradientPaint.CycleMethod.REPEAT) {
+      gradient.append(" spreadMethod=\"repeat\"");
+    }
+    gradient.append('>');
+    float[] fractions = gradientPaint.getFractions();
+    Color[] colors = gradientPaint.getColors();
+    for (int i = 0; i < fractions.length; i++) {
+      appendStop(gradient, fractions[i], colors[i]);
+    }
+  }
+
+  /**
+   * Approximates a custom paint (e.g. the shading on leaded component bodies) with a linear
+   * gradient by sampling it across the longer axis of the painted area, in whichever direction the
+   * color changes the most.
+   */
+  private void appendSampledGradient(StringBuilder gradient, Rectangle2D deviceBounds) {
+    final int samples = 9;
+    Rectangle bounds = deviceBounds.getBounds();
+    PaintContext context =
+        paint.createContext(ColorModel.getRGBdefault(), bounds, deviceBounds, transform, hints);
+    Raster raster = context.getRaster(bounds.x, bounds.y, bounds.width, bounds.height);
+    ColorModel colorModel = context.getColorModel();
+    Color[] horizontal = new Color[samples];
+    Color[] vertical = new Color[samples];
+    long horizontalSpread = 0;
+    long verticalSpread = 0;
+    for (int i = 0; i < samples; i++) {
+      int x = (raster.getWidth() - 1) * i / (samples - 1);
+      int y = (raster.getHeight() - 1) * i / (samples - 1);
+      horizontal[i] = new Color(colorModel.getRGB(raster.getDataElements(x, raster.getHeight() / 2, null)), true);
+      vertical[i] = new Color(colorModel.getRGB(raster.getDataElements(raster.getWidth() / 2, y, null)), true);
+      if (i > 0) {
+        horizontalSpread += colorDistance(horizontal[i], horizontal[i - 1]);
+        verticalSpread += colorDistance(vertical[i], vertical[i - 1]);
+      }
+    }
+    context.dispose();
+    boolean useHorizontal = horizontalSpread >= verticalSpread;
+    gradient.append("<linearGradient id=\"%s\" gradientUnits=\"userSpaceOnUse\"");
+    double cx = deviceBounds.getCenterX();
+    double cy = deviceBounds.getCenterY();
+    if (useHorizontal) {
+      appendLine(gradient, new Point2D.Double(deviceBounds.getMinX(), cy), new Point2D.Double(deviceBounds.getMaxX(),
+          cy));
+    } else {
+      appendLine(gradient, new Point2D.Double(cx, deviceBounds.getMinY()), new Point2D.Double(cx, deviceBounds
+          .getMaxY()));
+    }
+    gradient.append('>');
+    Color[] colors = useHorizontal ? horizontal : vertical;
+    for (int i = 0; i < samples; i++) {
+      appendStop(gradient, 1f * i / (samples - 1), colors[i]);
+    }
+    gradient.append("</linearGradient>");
+  }
+
+  private static int colorDistance(Color c1, Color c2) {
+    return Math.abs(c1.getRed() - c2.getRed()) + Math.abs(c1.getGreen() - c2.getGreen())
+        + Math.abs(c1.getBlue() - c2.getBlue());
+  }
+
+  private static void appendLine(StringBuilder gradient, Point2D p1, Point2D p2) {
+    gradient.append(" x1=\"");
+    appendNumber(gradient, p1.getX());
+    gradient.append("\" y1=\"");
+    appendNumber(gradient, p1.getY());
+    gradient.append("\" x2=\"");
+    appendNumber(gradient, p2.getX());
+    gradient.append("\" y2=\"");
+    appendNumber(gradient, p2.getY());
+    gradient.append('"');
+  }
+
+  private static void appendStop(StringBuilder gradient, float offset, Color color) {
+    gradient.append("<stop offset=\"");
+    appendNumber(gradient, offset);
+    gradient.append("\" stop-color=\"");
+    appendColor(gradient, color);
+    gradient.append('"');
+    if (color.getAlpha() < 255) {
+      gradient.append(" stop-opacity=\"");
+      appendNumber(gradient, color.getAlpha() / 255d);
+      gradient.append('"');
+    }
+    gradient.append("/>");
+  }
+
+  // Formatting
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static void appendColor(StringBuilder builder, Color color) {
+    int rgb = color.getRGB();
+    builder.append('#');
+    for (int shift = 20; shift >= 0; shift -= 4) {
+      builder.append(HEX[(rgb >> shift) & 0xf]);
+    }
+  }
+
+  private static void appendPoints(StringBuilder builder, double[] coords, int count) {
+    for (int i = 0; i < count * 2; i++) {
+      if (i > 0) {
+        builder.append(i % 2 == 0 ? ' ' : ',');
+      }
+      appendNumber(builder, coords[i]);
+    }
+  }
+
+  private static void appendTransform(StringBuilder builder, AffineTransform tx) {
+    if (!tx.isIdentity()) {
+      builder.append(" transform=\"");
+      appendMatrix(builder, tx);
+      builder.append('"');
+    }
+  }
+
+  private static void appendMatrix(StringBuilder builder, AffineTransform tx) {
+    builder.append("matrix(");
+    appendNumber(builder, tx.getScaleX());
+    builder.append(' ');
+    appendNumber(builder, tx.getShearY());
+    builder.append(' ');
+    appendNumber(builder, tx.getShearX());
+    builder.append(' ');
+    appendNumber(builder, tx.getScaleY());
+    builder.append(' ');
+    appendNumber(builder, tx.getTranslateX());
+    builder.append(' ');
+    appendNumber(builder, tx.getTranslateY());
+    builder.append(')');
+  }
+
+  /**
+   * Appends the number rounded to three decimals, without going through {@link String#format}
+   * which is far too slow for the amount of coordinates we write.
+   */
+  static void appendNumber(StringBuilder builder, double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      builder.append('0');
+      return;
+    }
+    long scaled = Math.round(value * 1000);
+    if (scaled < 0) {
+      builder.append('-');
+      scaled = -scaled;
+    }
+    builder.append(scaled / 1000);
+    int fraction = (int) (scaled % 1000);
+    if (fraction != 0) {
+      builder.append('.');
+      int digits = 3;
+      while (fraction % 10 == 0) {
+        fraction /= 10;
+        digits--;
+      }
+      String text = Integer.toString(fraction);
+      for (int i = text.length(); i < digits; i++) {
+        builder.append('0');
+      }
+      builder.append(text);
+    }
+  }
+
+  private static void appendEscaped(StringBuilder builder, String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '<':
+          builder.append("&lt;");
+          break;
+        case '>':
+          builder.append("&gt;");
+          break;
+        case '&':
+          builder.append("&amp;");
+          break;
+        case '"':
+          builder.append("&quot;");
+          break;
+        default:
+          if (c >= 0x20 || c == '\t') {
+            builder.append(c);
+          }
+      }
+    }
+  }
+
+  /**
+   * Output shared by a graphics object and all of its copies.
+   */
+  private static class Document {
+
+    private final Writer out;
+    private IOException error;
+    private String openClipId;
+    private boolean finished;
+    private int nextId = 1;
+
+    private final Map<String, String> styleClasses = createDefinitionMap();
+    private final Map<String, String> gradientIds = createDefinitionMap();
+    private final Map<String, String> clipIds = createDefinitionMap();
+
+    public Document(Writer out) {
+      this.out = out;
+    }
+
+    private static Map<String, String> createDefinitionMap() {
+      return new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > MAX_DEFINITIONS;
+        }
+      };
+    }
+
+    public void writeHeader(double width, double height, double unitsPerInch) throws IOException {
+      StringBuilder header = new StringBuilder();
+      header.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      header.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"");
+      header.append(" version=\"1.1\" width=\"");
+      appendNumber(header, width / unitsPerInch);
+      header.append("in\" height=\"");
+      appendNumber(header, height / unitsPerInch);
+      header.append("in\" viewBox=\"0 0 ");
+      appendNumber(header, width);
+      header.append(' ');
+      appendNumber(header, height);
+      header.append("\">\n");
+      write(header);
+      checkError();
+    }
+
+    public void writeFooter() {
+      if (finished) {
+        return;
+      }
+      enterClip(null);
+      write("</svg>\n");
+      finished = true;
+      if (error == null) {
+        try {
+          out.flush();
+        } catch (IOException e) {
+          error = e;
+        }
+      }
+    }
+
+    public void checkError() throws IOException {
+      if (error != null) {
+        throw error;
+      }
+    }
+
+    public String getStyleClass(String style) {
+      String id = styleClasses.get(style);
+      if (id == null) {
+        id = "c" + nextId++;
+        styleClasses.put(style, id);
+        writeDefinition("<style type=\"text/css\"><![CDATA[." + id + "{" + style + "}]]></style>");
+      }
+      return id;
+    }
+
+    /**
+     * @param gradient gradient definition with <code>%s</code> in place of its id
+     * @return id of the gradient
+     */
+    public String getGradientId(String gradient) {
+      String id = gradientIds.get(gradient);
+      if (id == null) {
+        id = "g" + nextId++;
+        gradientIds.put(gradient, id);
+        writeDefinition(gradient.replace("%s", id));
+      }
+      return id;
+    }
+
+    public String getClipId(String clipShape) {
+      String id = clipIds.get(clipShape);
+      if (id == null) {
+        id = "p" + nextId++;
+        clipIds.put(clipShape, id);
+        writeDefinition("<clipPath id=\"" + id + "\" clipPathUnits=\"userSpaceOnUse\">" + clipShape + "</clipPath>");
+      }
+      return id;
+    }
+
+    private void writeDefinition(String definition) {
+      write("<defs>").write(definition).write("</defs>\n");
+    }
+
+    /**
+     * Makes sure that what's written next is inside a group clipped by the specified clip path.
+     * Consecutive elements with the same clip share one group.
+     */
+    public void enterClip(String clipId) {
+      if (clipId == null ? openClipId == null : clipId.equals(openClipId)) {
+        return;
+      }
+      if (openClipId != null) {
+        write("</g>\n");
+      }
+      if (clipId != null) {
+        write("<g clip-path=\"url(#").write(clipId).write(")\">\n");
+      }
+      openClipId = clipId;
+    }
+
+    public Document write(CharSequence text) {
+      if (error == null && !finished) {
+        try {
+          out.append(text);
+        } catch (IOException e) {
+          error = e;
+        }
+      }
+      return this;
+    }
+
+    public void writeImage(BufferedImage image) {
+      if (error != null || finished) {
+        return;
+      }
+      OutputStream base64 = new Base64OutputStream(out);
+      try {
+        ImageIO.write(image, "png", base64);
+        base64.close();
+      } catch (IOException e) {
+        error = e;
+      }
+    }
+  }
+
+  /**
+   * Writes Base64 encoded bytes to a writer as they come, without line breaks. Closing the stream
+   * writes the padding but leaves the writer open.
+   */
+  private static class Base64OutputStream extends OutputStream {
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+        .toCharArray();
+
+    private final Writer out;
+    private final char[] chars = new char[4];
+    private int buffer;
+    private int count;
+
+    public Base64OutputStream(Writer out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      buffer = (buffer << 8) | (b & 0xff);
+      if (++count == 3) {
+        flushBuffer();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (count > 0) {
+        buffer <<= 8 * (3 - count);
+        flushBuffer();
+      }
+    }
+
+    private void flushBuffer() throws IOException {
+      chars[0] = ALPHABET[(buffer >> 18) & 0x3f];
+      chars[1] = ALPHABET[(buffer >> 12) & 0x3f];
+      chars[2] = count > 1 ? ALPHABET[(buffer >> 6) & 0x3f] : '=';
+      chars[3] = count > 2 ? ALPHABET[buffer & 0x3f] : '=';
+      out.write(chars);
+      buffer = 0;
+      count = 0;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+import org.diylc.presenter.Presenter;
+import org.diylc.render.IRenderer;
+import org.diylc.render.RenderService;
+
+/**
+ * Renders the project to a SVG document for {@link RenderService}. Drawings with more than one
+ * page accept a <code>page</code> option, starting from 1.
+ */
+public class SVGRenderer implements IRenderer {
+
+  @Override
+  public String getFormat() {
+    return "svg";
+  }
+
+  @Override
+  public String getContentType() {
+    return "image/svg+xml";
+  }
+
+  @Override
+  public void render(Presenter presenter, Map<String, String> options, OutputStream out) throws Exception {
+    ProjectDrawingProvider provider = new ProjectDrawingProvider(presenter, false, true, false);
+    int page = RenderService.getIntOption(options, "page", 1);
+    if (page < 1 || page > provider.getPageCount()) {
+      throw new IllegalArgumentException("Page must be between 1 and " + provider.getPageCount());
+    }
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), 1 << 16);
+    SVGExporter.getInstance().exportSVG(provider, page - 1, writer);
+  }
+}
@@ -0,0 +1,316 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+import org.apache.log4j.Logger;
+import org.diylc.appframework.miscutils.Utils;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.common.DrawOption;
+import org.diylc.common.EventType;
+import org.diylc.core.Project;
+import org.diylc.presenter.Presenter;
+import org.diylc.presenter.ProjectFileManager;
+import org.diylc.swing.gui.DummyView;
+
+/**
+ * Two level (memory and disk) cache of project thumbnails used by {@link ProjectPreview}. Entries
+ * are keyed by file path, modification time and size, so a thumbnail is rebuilt as soon as the
+ * file changes. Missing thumbnails are rendered on a background thread.
+ */
+public class ThumbnailCache {
+
+  private static final Logger LOG = Logger.getLogger(ThumbnailCache.class);
+
+  public static final int WIDTH = 128;
+  public static final int HEIGHT = 96;
+
+  private static final String CACHE_DIR = Utils.getUserDataDirectory("diylc") + "thumbnails";
+  private static final String EXTENSION = ".thumb";
+  private static final int MAX_MEMORY_ENTRIES = 100;
+  private static final int MAX_DISK_ENTRIES = 1000;
+
+  private static ThumbnailCache instance;
+
+  public static synchronized ThumbnailCache getInstance() {
+    if (instance == null) {
+      instance = new ThumbnailCache();
+    }
+    return instance;
+  }
+
+  private final Map<String, Thumbnail> memoryCache = new LinkedHashMap<String, Thumbnail>(16, 0.75f, true) {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Thumbnail> eldest) {
+      return size() > MAX_MEMORY_ENTRIES;
+    }
+  };
+
+  private final ExecutorService executor;
+  private volatile File lastRequested;
+
+  // Used only from the worker thread.
+  private Presenter presenter;
+  private ProjectFileManager fileManager;
+
+  private ThumbnailCache() {
+    executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Thumbnail renderer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      }
+    });
+    executor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        pruneDiskCache();
+      }
+    });
+  }
+
+  /**
+   * @param file
+   * @return thumbnail if it's available in memory, <code>null</code> otherwise
+   */
+  public synchronized Thumbnail getCached(File file) {
+    return memoryCache.get(getKey(file));
+  }
+
+  /**
+   * Loads the thumbnail from disk or renders it in background and notifies the listener on the
+   * EDT. Only the most recent request is served, older ones are dropped when the worker gets to
+   * them, so quickly moving through files does not queue up work.
+   *
+   * @param file
+   * @param listener
+   */
+  public void request(final File file, final IThumbnailListener listener) {
+    lastRequested = file;
+    executor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        if (file != lastRequested) {
+          return;
+        }
+        final Thumbnail thumbnail = load(file);
+        SwingUtilities.invokeLater(new Runnable() {
+
+          @Override
+          public void run() {
+            listener.thumbnailLoaded(file, thumbnail);
+          }
+        });
+      }
+    });
+  }
+
+  private Thumbnail load(File file) {
+    String key = getKey(file);
+    synchronized (this) {
+      Thumbnail thumbnail = memoryCache.get(key);
+      if (thumbnail != null) {
+        return thumbnail;
+      }
+    }
+    File cacheFile = new File(CACHE_DIR, key + EXTENSION);
+    Thumbnail thumbnail = readFromDisk(cacheFile);
+    if (thumbnail == null) {
+      thumbnail = render(file);
+      if (thumbnail.getImage() != null) {
+        writeToDisk(cacheFile, thumbnail);
+      }
+    }
+    synchronized (this) {
+      memoryCache.put(key, thumbnail);
+    }
+    return thumbnail;
+  }
+
+  private Thumbnail render(File file) {
+    if (presenter == null) {
+      presenter = new Presenter(new DummyView());
+      fileManager = new ProjectFileManager(new MessageDispatcher<EventType>(true));
+    }
+    Project project;
+    try {
+      project = fileManager.deserializeProjectFromFile(file.getAbsolutePath(), new ArrayList<String>());
+    } catch (Exception e) {
+      LOG.debug("Could not create thumbnail for " + file.getAbsolutePath(), e);
+      // Remember that we failed, so we don't try again while the file stays the same.
+      return new Thumbnail("", null);
+    }
+    presenter.loadProject(project, true);
+
+    Dimension d = presenter.getCanvasDimensions(false, false);
+    double zoomRatio = Math.min(1d * WIDTH / d.getWidth(), 1d * HEIGHT / d.getHeight());
+    BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g2d = image.createGraphics();
+    presenter.draw(g2d, EnumSet.of(DrawOption.ANTIALIASING), null, zoomRatio);
+    g2d.dispose();
+
+    g2d = image.createGraphics();
+    g2d.setColor(Color.black);
+    g2d.drawRect(0, 0, (int) (d.width * zoomRatio) - 1, (int) (d.height * zoomRatio) - 1);
+    g2d.dispose();
+    return new Thumbnail(project.getTitle() == null ? "" : project.getTitle(), image);
+  }
+
+  private Thumbnail readFromDisk(File cacheFile) {
+    if (!cacheFile.exists()) {
+      return null;
+    }
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+      try {
+        String title = in.readUTF();
+        BufferedImage image = ImageIO.read(in);
+        if (image == null) {
+          return null;
+        }
+        return new Thumbnail(title, image);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      LOG.debug("Could not read thumbnail " + cacheFile.getAbsolutePath(), e);
+      return null;
+    }
+  }
+
+  private void writeToDisk(File cacheFile, Thumbnail thumbnail) {
+    File dir = cacheFile.getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      LOG.debug("Could not create thumbnail cache directory " + dir.getAbsolutePath());
+      return;
+    }
+    // Write to a temp file first so a half written thumbnail is never picked up.
+    File tempFile = new File(dir, cacheFile.getName() + ".tmp");
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+      try {
+        out.writeUTF(thumbnail.getTitle());
+        ImageIO.write(thumbnail.getImage(), "png", out);
+      } finally {
+        out.close();
+      }
+      if (!tempFile.renameTo(cacheFile)) {
+        tempFile.delete();
+      }
+    } catch (IOException e) {
+      LOG.debug("Could not write thumbnail " + cacheFile.getAbsolutePath(), e);
+      tempFile.delete();
+    }
+  }
+
+  private void pruneDiskCache() {
+    File[] files = new File(CACHE_DIR).listFiles();
+    if (files == null || files.length <= MAX_DISK_ENTRIES) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+
+      @Override
+      public int compare(File o1, File o2) {
+        return Long.valueOf(o1.lastModified()).compareTo(o2.lastModified());
+      }
+    });
+    for (int i = 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+      files[i].delete();
+    }
+    LOG.debug("Pruned " + (files.length - MAX_DISK_ENTRIES) + " thumbnails");
+  }
+
+  private static String getKey(File file) {
+    String id = file.getAbsolutePath() + "|" + file.lastModified() + "|" + file.length();
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(id.getBytes("UTF-8"));
+      StringBuilder builder = new StringBuilder();
+      for (byte b : digest) {
+        builder.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+      }
+      return builder.toString();
+    } catch (Exception e) {
+      return Integer.toHexString(id.hashCode());
+    }
+  }
+
+  public static class Thumbnail {
+
+    private final String title;
+    private final BufferedImage image;
+
+    public Thumbnail(String title, BufferedImage image) {
+      this.title = title;
+      this.image = image;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    /**
+     * @return thumbnail image or <code>null</code> if the file could not be read
+     */
+    public BufferedImage getImage() {
+      return image;
+    }
+  }
+
+  public interface IThumbnailListener {
+
+    void thumbnailLoaded(File file, Thumbnail thumbnail);
+  }
+}
@@ -0,0 +1,418 @@
+/*
+
+    DIY Layout Creator (DIYLC).
+    Copyright (c) 2009-2018 held jointly by the individual authors.
+
+    This file is part of DIYLC.
+
+    DIYLC is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    DIYLC is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with DIYLC.  If not, see <http://www.gnu.org/licenses/>.
+
+*/
+package org.diylc.swing.plugins.file;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.log4j.Logger;
+import org.diylc.swingframework.IDrawingProvider;
+import org.diylc.utils.Constants;
+
+/**
+ * Exports drawings to PNG without ever holding the whole image in memory. The image is rendered in
+ * horizontal bands, each band is PNG filtered and compressed on its own worker thread and bands
+ * are appended to the file in order as they complete. Memory use is bounded by the band size and
+ * the number of threads, not by the image size, so very large or high-DPI exports are possible.
+ * <br>
+ * Bands are rendered in parallel only when the drawing provider implements
+ * {@link IParallelDrawingProvider}, otherwise a single worker is used. Compressing bands
+ * independently needs <code>Deflater.SYNC_FLUSH</code> which was added in Java 7, on older JREs
+ * bands are rendered one after another and compressed as a single stream.
+ */
+public class TiledPNGExporter {
+
+  private static final Logger LOG = Logger.getLogger(TiledPNGExporter.class);
+
+  public static final int DEFAULT_DPI = 300;
+
+  // Approximate number of pixels in a band, 4M pixels takes 16MB as an int RGB image.
+  private static final int BAND_PIXELS = 1 << 22;
+  private static final int MIN_BAND_HEIGHT = 16;
+
+  private static final byte[] SIGNATURE = new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+  // zlib header for 32K window and default compression.
+  private static final byte[] ZLIB_HEADER = new byte[] {0x78, (byte) 0x9c};
+  // Deflater.SYNC_FLUSH, the constant doesn't exist in Java 6.
+  private static final int SYNC_FLUSH = 2;
+  // Deflater.deflate(byte[], int, int, int), null when running on Java 6.
+  private static final Method SYNC_DEFLATE = findSyncDeflate();
+
+  private static TiledPNGExporter instance;
+
+  public static synchronized TiledPNGExporter getInstance() {
+    if (instance == null) {
+      instance = new TiledPNGExporter();
+    }
+    return instance;
+  }
+
+  private TiledPNGExporter() {}
+
+  private static Method findSyncDeflate() {
+    try {
+      return Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+    } catch (NoSuchMethodException e) {
+      LOG.info("Deflater doesn't support sync flush, PNG bands will be compressed as a single stream");
+      return null;
+    }
+  }
+
+  /**
+   * Exports all pages of the drawing at the specified resolution. Multi-page drawings are exported
+   * to one file per page, with page number appended to the file name.
+   *
+   * @param provider
+   * @param file
+   * @param dpi
+   * @throws IOException
+   */
+  public void exportPNG(IDrawingProvider provider, File file, int dpi) throws IOException {
+    int pageCount = provider.getPageCount();
+    for (int i = 0; i < pageCount; i++) {
+      File pageFile =
+          pageCount == 1 ? file : new File(file.getAbsolutePath().replaceAll("(?i)\\.png$", "") + "_" + (i + 1)
+              + ".png");
+      exportPage(provider, i, pageFile, dpi);
+    }
+  }
+
+  private void exportPage(final IDrawingProvider provider, final int page, File file, int dpi) throws IOException {
+    final double zoom = dpi * Constants.PIXEL_SIZE / Constants.PIXELS_PER_INCH;
+    Dimension size = provider.getSize();
+    final int width = Math.max(1, (int) (size.getWidth() * zoom));
+    final int height = Math.max(1, (int) (size.getHeight() * zoom));
+    final int bandHeight = Math.min(height, Math.max(MIN_BAND_HEIGHT, BAND_PIXELS / width));
+    int bandCount = (height + bandHeight - 1) / bandHeight;
+    int threadCount =
+        provider instanceof IParallelDrawingProvider && SYNC_DEFLATE != null ? Math.min(bandCount, Runtime
+            .getRuntime().availableProcessors()) : 1;
+    LOG.info(String.format("Exporting %dx%d PNG in %d band(s) using %d thread(s)", width, height, bandCount,
+        threadCount));
+    long start = System.currentTimeMillis();
+
+    // Each worker thread draws through its own copy of the provider.
+    final ThreadLocal<IDrawingProvider> workerProvider = new ThreadLocal<IDrawingProvider>() {
+
+      @Override
+      protected IDrawingProvider initialValue() {
+        return provider instanceof IParallelDrawingProvider ? ((IParallelDrawingProvider) provider)
+            .createWorkerCopy() : provider;
+      }
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.write(SIGNATURE);
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      DataOutputStream headerOut = new DataOutputStream(header);
+      headerOut.writeInt(width);
+      headerOut.writeInt(height);
+      headerOut.writeByte(8); // bit depth
+      headerOut.writeByte(2); // true color
+      headerOut.writeByte(0); // deflate
+      headerOut.writeByte(0); // adaptive filtering
+      headerOut.writeByte(0); // no interlace
+      writeChunk(out, "IHDR", header.toByteArray());
+      header.reset();
+      int pixelsPerMeter = (int) Math.round(dpi / 0.0254);
+      headerOut.writeInt(pixelsPerMeter);
+      headerOut.writeInt(pixelsPerMeter);
+      headerOut.writeByte(1); // meters
+      writeChunk(out, "pHYs", header.toByteArray());
+
+      if (SYNC_DEFLATE == null) {
+        writeSingleStream(provider, page, zoom, width, height, bandHeight, out);
+      } else {
+        // Keep a limited number of bands in flight so finished bands don't pile up in memory while
+        // waiting for a slow one before them.
+        LinkedList<Future<Band>> pending = new LinkedList<Future<Band>>();
+        int nextBand = 0;
+        long adler = 1;
+        boolean first = true;
+        while (nextBand < bandCount || !pending.isEmpty()) {
+          while (nextBand < bandCount && pending.size() < threadCount * 2) {
+            final int y = nextBand * bandHeight;
+            final int h = Math.min(bandHeight, height - y);
+            pending.add(executor.submit(new Callable<Band>() {
+
+              @Override
+              public Band call() throws Exception {
+                return renderBand(workerProvider.get(), page, zoom, width, y, h);
+              }
+            }));
+            nextBand++;
+          }
+          Band band = pending.removeFirst().get();
+          if (first) {
+            byte[] data = new byte[ZLIB_HEADER.length + band.data.length];
+            System.arraycopy(ZLIB_HEADER, 0, data, 0, ZLIB_HEADER.length);
+            System.arraycopy(band.data, 0, data, ZLIB_HEADER.length, band.data.length);
+            writeChunk(out, "IDAT", data);
+            first = false;
+          } else {
+            writeChunk(out, "IDAT", band.data);
+          }
+          adler = combineAdler32(adler, band.adler, band.length);
+        }
+
+        // Close the deflate stream with an empty final block and append the checksum.
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.finish();
+        byte[] buffer = new byte[16];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+        trailer.write(buffer, 0, length);
+        new DataOutputStream(trailer).writeInt((int) adler);
+        writeChunk(out, "IDAT", trailer.toByteArray());
+      }
+      writeChunk(out, "IEND", new byte[0]);
+    } catch (InterruptedException e) {
+      throw new IOException("Export interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException("Could not render image", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      out.close();
+    }
+    LOG.info("Export finished in " + (System.currentTimeMillis() - start) + " ms");
+  }
+
+  private Band renderBand(IDrawingProvider provider, int page, double zoom, int width, int y, int height) {
+    int[] pixels = drawBand(provider, page, zoom, width, y, height);
+    int rowLength = width * 3;
+    byte[] previous = new byte[rowLength];
+    byte[] current = new byte[rowLength];
+    byte[] filtered = new byte[rowLength + 1];
+    Adler32 adler = new Adler32();
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(rowLength * height / 4 + 64);
+    byte[] buffer = new byte[64 * 1024];
+    for (int row = 0; row < height; row++) {
+      filterRow(pixels, row, width, current, previous, filtered);
+      adler.update(filtered);
+      deflater.setInput(filtered);
+      while (!deflater.needsInput()) {
+        drain(deflater, buffer, out);
+      }
+      byte[] temp = previous;
+      previous = current;
+      current = temp;
+    }
+    // Sync flush ends the band on a byte boundary, so compressed bands can simply be concatenated.
+    while (syncFlush(deflater, buffer, out) == buffer.length) {
+    }
+    deflater.end();
+    return new Band(out.toByteArray(), adler.getValue(), (long) (rowLength + 1) * height);
+  }
+
+  /**
+   * Fallback for JREs without sync flush. Bands are rendered on the calling thread and fed to one
+   * zlib stream, each band is written as an IDAT chunk as soon as it's compressed.
+   */
+  private void writeSingleStream(IDrawingProvider provider, int page, double zoom, int width, int height,
+      int bandHeight, DataOutputStream out) throws IOException {
+    int rowLength = width * 3;
+    byte[] previous = new byte[rowLength];
+    byte[] current = new byte[rowLength];
+    byte[] filtered = new byte[rowLength + 1];
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    ByteArrayOutputStream data = new ByteArrayOutputStream(rowLength * bandHeight / 4 + 64);
+    byte[] buffer = new byte[64 * 1024];
+    try {
+      for (int y = 0; y < height; y += bandHeight) {
+        int h = Math.min(bandHeight, height - y);
+        int[] pixels = drawBand(provider, page, zoom, width, y, h);
+        for (int row = 0; row < h; row++) {
+          filterRow(pixels, row, width, current, previous, filtered);
+          deflater.setInput(filtered);
+          while (!deflater.needsInput()) {
+            drain(deflater, buffer, data);
+          }
+          byte[] temp = previous;
+          previous = current;
+          current = temp;
+        }
+        if (data.size() > 0) {
+          writeChunk(out, "IDAT", data.toByteArray());
+          data.reset();
+        }
+      }
+      deflater.finish();
+      while (!deflater.finished()) {
+        drain(deflater, buffer, data);
+      }
+      writeChunk(out, "IDAT", data.toByteArray());
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private int[] drawBand(IDrawingProvider provider, int page, double zoom, int width, int y, int height) {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2d = image.createGraphics();
+    g2d.translate(0, -y);
+    g2d.clipRect(0, y, width, height);
+    provider.draw(page, g2d, zoom);
+    g2d.dispose();
+    return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+  }
+
+  private static void filterRow(int[] pixels, int row, int width, byte[] current, byte[] previous,
+      byte[] filtered) {
+    int offset = row * width;
+    for (int i = 0; i < width; i++) {
+      int rgb = pixels[offset + i];
+      current[i * 3] = (byte) (rgb >> 16);
+      current[i * 3 + 1] = (byte) (rgb >> 8);
+      current[i * 3 + 2] = (byte) rgb;
+    }
+    // The row above belongs to another band for the first row, so we can only use Sub there.
+    if (row == 0) {
+      filterSub(current, filtered);
+    } else {
+      filterPaeth(current, previous, filtered);
+    }
+  }
+
+  private static int drain(Deflater deflater, byte[] buffer, ByteArrayOutputStream out) {
+    int length = deflater.deflate(buffer, 0, buffer.length);
+    out.write(buffer, 0, length);
+    return length;
+  }
+
+  private static int syncFlush(Deflater deflater, byte[] buffer, ByteArrayOutputStream out) {
+    int length;
+    try {
+      length = (Integer) SYNC_DEFLATE.invoke(deflater, buffer, 0, buffer.length, SYNC_FLUSH);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+    out.write(buffer, 0, length);
+    return length;
+  }
+
+  private static void filterSub(byte[] current, byte[] filtered) {
+    filtered[0] = 1;
+    for (int i = 0; i < current.length; i++) {
+      int left = i < 3 ? 0 : current[i - 3] & 0xff;
+      filtered[i + 1] = (byte) ((current[i] & 0xff) - left);
+    }
+  }
+
+  private static void filterPaeth(byte[] current, byte[] previous, byte[] filtered) {
+    filtered[0] = 4;
+    for (int i = 0; i < current.length; i++) {
+      int a = i < 3 ? 0 : current[i - 3] & 0xff;
+      int b = previous[i] & 0xff;
+      int c = i < 3 ? 0 : previous[i - 3] & 0xff;
+      int p = a + b - c;
+      int pa = Math.abs(p - a);
+      int pb = Math.abs(p - b);
+      int pc = Math.abs(p - c);
+      int predictor = pa <= pb && pa <= pc ? a : (pb <= pc ? b : c);
+      filtered[i + 1] = (byte) ((current[i] & 0xff) - predictor);
+    }
+  }
+
+  private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+    byte[] typeBytes = type.getBytes("US-ASCII");
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data);
+    out.writeInt(data.length);
+    out.write(typeBytes);
+    out.write(data);
+    out.writeInt((int) crc.getValue());
+  }
+
+  /**
+   * Computes Adler-32 checksum of two concatenated sequences from their checksums, the same way
+   * zlib's <code>adler32_combine</code> does.
+   */
+  private static long combineAdler32(long adler1, long adler2, long length2) {
+    final long base = 65521;
+    long remainder = length2 % base;
+    long sum1 = adler1 & 0xffff;
+    long sum2 = (remainder * sum1) % base;
+    sum1 += (adler2 & 0xffff) + base - 1;
+    sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + base - remainder;
+    if (sum1 >= base) {
+      sum1 -= base;
+    }
+    if (sum1 >= base) {
+      sum1 -= base;
+    }
+    if (sum2 >= (base << 1)) {
+      sum2 -= (base << 1);
+    }
+    if (sum2 >= base) {
+      sum2 -= base;
+    }
+    return sum1 | (sum2 << 16);
+  }
+
+  private static class Band {
+
+    private final byte[] data;
+    private final long adler;
+    private final long length;
+
+    public Band(byte[] data, long adler, long length) {
+      this.data = data;
+      this.adler = adler;
+      this.length = length;
+    }
+  }
+}
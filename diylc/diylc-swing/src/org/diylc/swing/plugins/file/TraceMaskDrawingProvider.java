@@ -36,6 +36,8 @@ import org.diylc.common.IPlugInPort;
 import org.diylc.common.PCBLayer;
 import org.diylc.core.IDIYComponent;
 import org.diylc.presenter.PCBLayerFiler;
+import org.diylc.presenter.Presenter;
+import org.diylc.swing.gui.DummyView;
 import org.diylc.swingframework.IDrawingProvider;
 
 /**
@@ -44,7 +46,7 @@ import org.diylc.swingframework.IDrawingProvider;
  * 
  * @author Branislav Stojkovic
  */
-public class TraceMaskDrawingProvider implements IDrawingProvider {
+public class TraceMaskDrawingProvider implements IParallelDrawingProvider {
 
   private IPlugInPort plugInPort;
 
@@ -68,6 +70,21 @@ public class TraceMaskDrawingProvider implements IDrawingProvider {
     return getUsedLayers().length;
   }
 
+  @Override
+  public IDrawingProvider createWorkerCopy() {
+    Presenter presenter = new Presenter(new DummyView());
+    presenter.loadProject(plugInPort.getCurrentProject().clone(), true);
+    return new TraceMaskDrawingProvider(presenter);
+  }
+
+  /**
+   * @param page
+   * @return PCB layer drawn on the page
+   */
+  public PCBLayer getLayer(int page) {
+    return getUsedLayers()[page];
+  }
+
   private PCBLayer[] getUsedLayers() {
     Set<PCBLayer> layers = EnumSet.noneOf(PCBLayer.class);
     for (IDIYComponent<?> c : plugInPort.getCurrentProject().getComponents()) {
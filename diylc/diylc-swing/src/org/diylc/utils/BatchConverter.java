@@ -22,20 +22,70 @@
 package org.diylc.utils;
 
 import java.io.File;
-import java.io.FilenameFilter;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.apache.log4j.PropertyConfigurator;
 import org.diylc.DIYLCStarter;
-import org.diylc.presenter.Presenter;
-import org.diylc.swing.gui.DummyView;
+import org.diylc.appframework.miscutils.ConfigurationManager;
+import org.diylc.appframework.simplemq.MessageDispatcher;
+import org.diylc.common.EventType;
+import org.diylc.core.Project;
+import org.diylc.presenter.ProjectFileManager;
 
+/**
+ * Command line utility that converts a directory tree of DIY files (V1, V2 or current format) to
+ * the current file format. Files are converted in parallel, each worker thread uses its own
+ * headless {@link ProjectFileManager}.
+ *
+ * <pre>
+ * BatchConverter [-t &lt;threads&gt;] [-i] &lt;source dir&gt; &lt;target dir&gt;
+ *
+ *   -t  number of worker threads, defaults to the number of available processors
+ *   -i  incremental mode, skip files whose converted copy is newer than the source
+ * </pre>
+ *
+ * @author Branislav Stojkovic
+ */
 public class BatchConverter {
-  
+
   private static final Logger LOG = Logger.getLogger(BatchConverter.class);
 
+  private static final String EXTENSION = ".diy";
+
+  private final File sourceDir;
+  private final File targetDir;
+  private final int threadCount;
+  private final boolean incremental;
+
+  // Project file managers are not thread safe, so each worker gets its own.
+  private final ThreadLocal<ProjectFileManager> fileManager = new ThreadLocal<ProjectFileManager>() {
+
+    @Override
+    protected ProjectFileManager initialValue() {
+      return new ProjectFileManager(new MessageDispatcher<EventType>(true));
+    }
+  };
+
+  public BatchConverter(File sourceDir, File targetDir, int threadCount, boolean incremental) {
+    this.sourceDir = sourceDir;
+    this.targetDir = targetDir;
+    this.threadCount = threadCount;
+    this.incremental = incremental;
+  }
+
   public static void main(String[] args) {
     URL url = DIYLCStarter.class.getResource("log4j.properties");
     Properties properties = new Properties();
@@ -46,18 +96,210 @@ public class BatchConverter {
       LOG.error("Could not initialize log4j configuration", e);
     }
 
-    File dir = new File("C:\\Users\\Branislav Stojkovic\\Documents\\layouts_v1");
-    File[] matchingFiles = dir.listFiles(new FilenameFilter() {
-      public boolean accept(File dir, String name) {
-        return true;
+    // V2 parser reads unit preferences from the configuration.
+    ConfigurationManager.initialize("diylc");
+
+    int threadCount = Runtime.getRuntime().availableProcessors();
+    boolean incremental = false;
+    List<String> dirs = new ArrayList<String>();
+    for (int i = 0; i < args.length; i++) {
+      if ("-t".equals(args[i]) && i < args.length - 1) {
+        try {
+          threadCount = Math.max(1, Integer.parseInt(args[++i]));
+        } catch (NumberFormatException e) {
+          printUsage();
+          System.exit(2);
+        }
+      } else if ("-i".equals(args[i])) {
+        incremental = true;
+      } else {
+        dirs.add(args[i]);
+      }
+    }
+    if (dirs.size() != 2 || !new File(dirs.get(0)).isDirectory()) {
+      printUsage();
+      System.exit(2);
+    }
+
+    Summary summary =
+        new BatchConverter(new File(dirs.get(0)), new File(dirs.get(1)), threadCount, incremental).run();
+    System.exit(summary.failed > 0 ? 1 : 0);
+  }
+
+  private static void printUsage() {
+    System.err.println("Usage: BatchConverter [-t <threads>] [-i] <source dir> <target dir>");
+    System.err.println("  -t  number of worker threads, defaults to the number of available processors");
+    System.err.println("  -i  incremental mode, skip files whose converted copy is newer than the source");
+  }
+
+  /**
+   * Converts all files under the source directory and reports progress to the standard output.
+   *
+   * @return summary of the run
+   */
+  public Summary run() {
+    List<File> files = new ArrayList<File>();
+    collectFiles(sourceDir, files);
+    System.out.println(String.format("Converting %d file(s) from %s to %s using %d thread(s)%s", files.size(),
+        sourceDir.getAbsolutePath(), targetDir.getAbsolutePath(), threadCount, incremental ? ", incremental"
+            : ""));
+
+    long start = System.currentTimeMillis();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    CompletionService<Result> completionService = new ExecutorCompletionService<Result>(executor);
+    Map<Future<Result>, File> futureMap = new HashMap<Future<Result>, File>();
+    for (final File file : files) {
+      futureMap.put(completionService.submit(new Callable<Result>() {
+
+        @Override
+        public Result call() throws Exception {
+          return convert(file);
+        }
+      }), file);
+    }
+
+    Summary summary = new Summary();
+    int processed = 0;
+    try {
+      for (int i = 0; i < files.size(); i++) {
+        Future<Result> future = completionService.take();
+        processed++;
+        Result result;
+        try {
+          result = future.get();
+        } catch (ExecutionException e) {
+          // convert() handles exceptions, this is an Error such as StackOverflowError on a malformed
+          // file. Count it against that file and keep going.
+          File file = futureMap.get(future);
+          LOG.error("Could not convert " + file.getAbsolutePath(), e.getCause());
+          result =
+              new Result(getRelativePath(file), Status.FAILED, 0, 0, e.getCause().getClass().getSimpleName()
+                  + (e.getCause().getMessage() == null ? "" : ": " + e.getCause().getMessage()));
+        }
+        switch (result.status) {
+          case CONVERTED:
+            summary.converted++;
+            System.out.println(String.format("[%d/%d] OK      %s (%d ms%s)", i + 1, files.size(), result.path,
+                result.millis, result.warningCount > 0 ? ", " + result.warningCount + " warning(s)" : ""));
+            break;
+          case SKIPPED:
+            summary.skipped++;
+            System.out.println(String.format("[%d/%d] SKIPPED %s (up to date)", i + 1, files.size(), result.path));
+            break;
+          case FAILED:
+            summary.failed++;
+            System.out.println(String.format("[%d/%d] FAILED  %s: %s", i + 1, files.size(), result.path,
+                result.error));
+            break;
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.error("Batch conversion interrupted", e);
+      // Files we never heard back from are not converted.
+      summary.failed += files.size() - processed;
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+    summary.millis = System.currentTimeMillis() - start;
+
+    double seconds = Math.max(summary.millis, 1) / 1000d;
+    System.out.println(String.format(
+        "Done in %.1f s: %d converted, %d skipped, %d failed (%.1f files/s)", seconds, summary.converted,
+        summary.skipped, summary.failed, summary.converted / seconds));
+    return summary;
+  }
+
+  private void collectFiles(File dir, List<File> files) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        // Do not descend into the output if it's placed inside the source tree.
+        if (!child.getAbsoluteFile().equals(targetDir.getAbsoluteFile())) {
+          collectFiles(child, files);
+        }
+      } else if (child.getName().toLowerCase().endsWith(EXTENSION)) {
+        files.add(child);
       }
-    });
-    Presenter presenter = new Presenter(new DummyView());
-    for (File file : matchingFiles) {
-      if (file.getName() != "" && file.getName() != "." && file.getName() != ".." && !file.isDirectory())
-      presenter.loadProjectFromFile(file.getAbsolutePath());
-      presenter.saveProjectToFile(file.getParentFile().getAbsolutePath() + "\\converted\\" + file.getName(), false);
     }
   }
 
+  private String getRelativePath(File file) {
+    return file.getAbsolutePath().substring(sourceDir.getAbsolutePath().length() + 1);
+  }
+
+  private Result convert(File file) {
+    String path = getRelativePath(file);
+    File target = new File(targetDir, path);
+    if (incremental && target.exists() && target.lastModified() >= file.lastModified()) {
+      return new Result(path, Status.SKIPPED, 0, 0, null);
+    }
+    long start = System.currentTimeMillis();
+    try {
+      File parent = target.getParentFile();
+      if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+        throw new IllegalStateException("Could not create directory " + parent.getAbsolutePath());
+      }
+      ProjectFileManager manager = fileManager.get();
+      List<String> warnings = new ArrayList<String>();
+      Project project = manager.deserializeProjectFromFile(file.getAbsolutePath(), warnings);
+      manager.serializeProjectToFile(project, target.getAbsolutePath(), true);
+      for (String warning : warnings) {
+        LOG.warn(path + ": " + warning);
+      }
+      return new Result(path, Status.CONVERTED, System.currentTimeMillis() - start, warnings.size(), null);
+    } catch (Exception e) {
+      LOG.error("Could not convert " + file.getAbsolutePath(), e);
+      return new Result(path, Status.FAILED, System.currentTimeMillis() - start, 0, e.getClass().getSimpleName()
+          + (e.getMessage() == null ? "" : ": " + e.getMessage()));
+    }
+  }
+
+  public static enum Status {
+    CONVERTED, SKIPPED, FAILED
+  }
+
+  private static class Result {
+
+    private final String path;
+    private final Status status;
+    private final long millis;
+    private final int warningCount;
+    private final String error;
+
+    public Result(String path, Status status, long millis, int warningCount, String error) {
+      this.path = path;
+      this.status = status;
+      this.millis = millis;
+      this.warningCount = warningCount;
+      this.error = error;
+    }
+  }
+
+  public static class Summary {
+
+    private int converted;
+    private int skipped;
+    private int failed;
+    private long millis;
+
+    public int getConverted() {
+      return converted;
+    }
+
+    public int getSkipped() {
+      return skipped;
+    }
+
+    public int getFailed() {
+      return failed;
+    }
+
+    public long getMillis() {
+      return millis;
+    }
+  }
 }